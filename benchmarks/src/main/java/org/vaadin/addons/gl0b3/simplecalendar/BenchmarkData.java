@@ -0,0 +1,39 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test data of the benchmarks
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+final class BenchmarkData {
+
+	/**
+	 * the first date of the generated dates
+	 */
+	static final LocalDate START = LocalDate.of(2000, 1, 1);
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * Generates ascending dates with random gaps of 1 to 3 days, so 100.000 dates span about 550 years
+	 *
+	 * @param size   {@link int} the number of the dates
+	 * @param random {@link Random} the source of the gaps
+	 * @return the generated dates
+	 */
+	static List<LocalDate> randomDates(int size, Random random) {
+		List<LocalDate> dates = new ArrayList<>(size);
+		long epochDay = START.toEpochDay();
+		for ( int i = 0; i < size; i++ ) {
+			epochDay += 1 + random.nextInt(3);
+			dates.add(LocalDate.ofEpochDay(epochDay));
+		}
+		return dates;
+	}
+}
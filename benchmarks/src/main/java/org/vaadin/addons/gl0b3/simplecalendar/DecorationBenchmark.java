@@ -0,0 +1,86 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import elemental.json.JsonArray;
+
+/**
+ * The {@link Date} and {@link LocalDate} conversion of <code>addClassToCellByDates</code> and
+ * <code>addClassToCellByLocalDates</code>, alone and together with the sync of the whole decorated period
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DecorationBenchmark {
+
+	/**
+	 * the number of the dates
+	 */
+	@Param({ "10", "100", "1000", "10000", "100000" })
+	public int size;
+
+	/**
+	 * the time zone of the {@link Date} conversion
+	 */
+	@Param({ "UTC", "Europe/Budapest" })
+	public String zone;
+
+	private List<LocalDate> localDates;
+
+	private List<Date> dates;
+
+	private ZoneId zoneId;
+
+	private LocalDate last;
+
+	@Setup
+	public void setUp() {
+		zoneId = ZoneId.of(zone);
+		localDates = BenchmarkData.randomDates(size, new Random(42));
+		dates = localDates.stream().map(date -> Date.from(date.atStartOfDay(zoneId).toInstant())).toList();
+		last = localDates.get(localDates.size() - 1);
+	}
+
+	@Benchmark
+	public DateSet addClassToCellByDates() {
+		DecorationModel model = new DecorationModel();
+		new DecorationBatch(model, zoneId).addClassToCellByDates(dates, "booked");
+		return model.edit("booked");
+	}
+
+	@Benchmark
+	public DateSet addClassToCellByLocalDates() {
+		DecorationModel model = new DecorationModel();
+		new DecorationBatch(model, zoneId).addClassToCellByLocalDates(localDates, "booked");
+		return model.edit("booked");
+	}
+
+	@Benchmark
+	public JsonArray addClassToCellByLocalDatesAndSync() {
+		DecorationModel model = new DecorationModel();
+		new DecorationBatch(model, zoneId).addClassToCellByLocalDates(localDates, "booked");
+		return model.sync(BenchmarkData.START, last);
+	}
+}
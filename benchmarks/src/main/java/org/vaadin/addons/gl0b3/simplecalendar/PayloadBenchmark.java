@@ -0,0 +1,66 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Payload building of the decoration dates: the legacy JSON string array against the compact encoding
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadBenchmark {
+
+	/**
+	 * the number of the dates
+	 */
+	@Param({ "10", "100", "1000", "10000", "100000" })
+	public int size;
+
+	private List<String> isoDates;
+
+	private DateSet dates;
+
+	@Setup
+	public void setUp() {
+		List<LocalDate> localDates = BenchmarkData.randomDates(size, new Random(42));
+		isoDates = new ArrayList<>(size);
+		localDates.forEach(date -> isoDates.add(date.toString()));
+		dates = new DateSet(localDates);
+	}
+
+	@Benchmark
+	public String convertToJsonArray() {
+		return CalendarUtils.convertToJsonArray(isoDates).toJson();
+	}
+
+	@Benchmark
+	public String encodeDates() {
+		return CalendarUtils.encodeDates(dates);
+	}
+
+	@Benchmark
+	public DateSet decodeDates() {
+		return CalendarUtils.decodeDates(CalendarUtils.encodeDates(dates));
+	}
+}
@@ -0,0 +1,98 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.component.UI;
+
+/**
+ * End-to-end generation of the element commands of a {@link YearCalendar} round trip: the attribute changes of
+ * {@link AbstractSimpleCalendar#refresh()} and the decorations which are sent again because of the re-render
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RefreshBenchmark {
+
+	/**
+	 * the number of the decorated dates, spread over classes of at most a year of dates each
+	 */
+	@Param({ "10", "100", "1000", "10000", "100000" })
+	public int size;
+
+	private UI ui;
+
+	private YearCalendar calendar;
+
+	private boolean english;
+
+	@Setup
+	public void setUp() {
+		ui = new UI();
+		calendar = new YearCalendar().setYear(2000);
+		List<List<LocalDate>> classes = new ArrayList<>();
+		for ( int i = 0; i < size; i++ ) {
+			if ( i % 366 == 0 ) {
+				classes.add(new ArrayList<>());
+			}
+			classes.get(classes.size() - 1).add(BenchmarkData.START.plusDays(i % 366));
+		}
+		calendar.decorate(batch -> {
+			for ( int i = 0; i < classes.size(); i++ ) {
+				batch.addClassToCellByLocalDates(classes.get(i), "class-" + i);
+			}
+		});
+		ui.add(calendar);
+		roundTrip();
+	}
+
+	/**
+	 * Changes the locale, which re-renders the client, so all the decorations are sent again
+	 *
+	 * @return the number of the JS invocations of the round trip
+	 */
+	@Benchmark
+	public int refreshLocale() {
+		english = !english;
+		calendar.setLocale(english ? "en" : "de").setDayNameFormat(english ? DayNameFormat.SHORT : DayNameFormat.LONG);
+		calendar.refresh();
+		return roundTrip();
+	}
+
+	/**
+	 * Calls refresh without any change, nothing has to be sent
+	 *
+	 * @return the number of the JS invocations of the round trip
+	 */
+	@Benchmark
+	public int refreshUnchanged() {
+		calendar.refresh();
+		return roundTrip();
+	}
+
+	private int roundTrip() {
+		ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+		ui.getInternals().getStateTree().collectChanges(change -> {
+		});
+		return ui.getInternals().dumpPendingJavaScriptInvocations().size();
+	}
+}
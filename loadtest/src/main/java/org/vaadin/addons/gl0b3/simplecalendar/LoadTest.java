@@ -0,0 +1,188 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * Headless load test of the calendars. It creates the given numbers of {@link SimulatedSession}s without a browser and
+ * reports for every number:
+ * <ul>
+ * <li>the retained heap per session, and the part of it which the calendars add to an empty UI</li>
+ * <li>the serialized size of a session, the part of it which the calendars add to an empty UI, and the serialized
+ * decoration state of the calendars alone</li>
+ * <li>the number of the server side changes processed per second, with the responses built, by all the threads</li>
+ * </ul>
+ * Usage: <code>java -Xmx8g -jar target/loadtest.jar 100 1000 10000</code>, the duration of the throughput measurement
+ * and the number of the threads can be set by the <code>loadtest.seconds</code> and <code>loadtest.threads</code> system
+ * properties.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public final class LoadTest {
+
+	/**
+	 * the numbers of the sessions if none is given
+	 */
+	private static final int[] DEFAULT_SESSIONS = { 100, 1000, 10000 };
+
+	/**
+	 * the number of the sessions whose serialized size is measured
+	 */
+	private static final int SERIALIZED_SAMPLE = 100;
+
+	/**
+	 * the number of the empty sessions of the baseline heap measurement
+	 */
+	private static final int BASELINE_SAMPLE = 1000;
+
+	private LoadTest() {
+	}
+
+	/**
+	 * Runs the load test
+	 *
+	 * @param args the numbers of the sessions, default is 100, 1000 and 10000
+	 * @throws Exception if a measurement fails
+	 */
+	public static void main(String[] args) throws Exception {
+		int[] sessionCounts = args.length > 0 ? new int[args.length] : DEFAULT_SESSIONS;
+		for ( int i = 0; i < args.length; i++ ) {
+			sessionCounts[i] = Integer.parseInt(args[i]);
+		}
+		int seconds = Integer.getInteger("loadtest.seconds", 10);
+		int threads = Integer.getInteger("loadtest.threads", Runtime.getRuntime().availableProcessors());
+		VaadinSession session = new SimulatedVaadinSession();
+
+		long baselineHeap = retainedHeap(session, BASELINE_SAMPLE, true);
+		long baselineSerialized = serializedSize(new SimulatedSession(session, 0, true));
+		System.out.printf(Locale.ROOT, "empty UI: %,d bytes heap, %,d bytes serialized%n", baselineHeap, baselineSerialized);
+		System.out.printf(Locale.ROOT, "%10s %16s %16s %18s %18s %18s %14s %12s%n", "sessions", "heap/session", "calendars heap",
+				"serialized/session", "calendars serial.", "decorations serial.", "changes/s", "JS/change");
+		for ( int count : sessionCounts ) {
+			List<SimulatedSession> sessions = new ArrayList<>(count);
+			long heap = measureHeap(() -> {
+				for ( int i = 0; i < count; i++ ) {
+					sessions.add(new SimulatedSession(session, i, false));
+				}
+			}) / count;
+			long serialized = 0;
+			long decorationState = 0;
+			int sample = Math.min(count, SERIALIZED_SAMPLE);
+			for ( int i = 0; i < sample; i++ ) {
+				serialized += serializedSize(sessions.get(i));
+				decorationState += decorationStateSize(sessions.get(i));
+			}
+			serialized /= sample;
+			decorationState /= sample;
+			Throughput throughput = measureThroughput(sessions, threads, seconds);
+			System.out.printf(Locale.ROOT, "%10d %,16d %,16d %,18d %,18d %,18d %,14.0f %12.2f%n", count, heap, heap - baselineHeap,
+					serialized, serialized - baselineSerialized, decorationState, throughput.changesPerSecond(), throughput.jsPerChange());
+			sessions.clear();
+		}
+	}
+
+	private static long retainedHeap(VaadinSession session, int count, boolean empty) {
+		List<SimulatedSession> sessions = new ArrayList<>(count);
+		long heap = measureHeap(() -> {
+			for ( int i = 0; i < count; i++ ) {
+				sessions.add(new SimulatedSession(session, i, empty));
+			}
+		});
+		sessions.clear();
+		return heap / count;
+	}
+
+	/**
+	 * Gives back how much the used heap has grown by the allocation, after full garbage collections
+	 */
+	private static long measureHeap(Runnable allocation) {
+		long before = usedHeap();
+		allocation.run();
+		return usedHeap() - before;
+	}
+
+	private static long usedHeap() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		long used = Long.MAX_VALUE;
+		for ( int i = 0; i < 5; i++ ) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			} catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+		}
+		return used;
+	}
+
+	private static long serializedSize(SimulatedSession session) {
+		try {
+			return session.serializedSize();
+		} catch ( IOException e ) {
+			throw new IllegalStateException("The session can't be serialized", e);
+		}
+	}
+
+	private static long decorationStateSize(SimulatedSession session) {
+		try {
+			return session.decorationStateSize();
+		} catch ( IOException e ) {
+			throw new IllegalStateException("The decoration state can't be serialized", e);
+		}
+	}
+
+	/**
+	 * Applies random changes to the sessions from the given number of threads for the given time. Every thread owns a
+	 * slice of the sessions, as a session is locked by one request at a time.
+	 */
+	private static Throughput measureThroughput(List<SimulatedSession> sessions, int threads, int seconds) throws Exception {
+		int workers = Math.min(threads, sessions.size());
+		LongAdder changes = new LongAdder();
+		LongAdder invocations = new LongAdder();
+		AtomicBoolean running = new AtomicBoolean(true);
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		List<Future<?>> results = new ArrayList<>();
+		for ( int worker = 0; worker < workers; worker++ ) {
+			List<SimulatedSession> slice = sessions.subList(sessions.size() * worker / workers, sessions.size() * (worker + 1) / workers);
+			results.add(executor.submit(() -> {
+				for ( int i = 0; running.get(); i = (i + 1) % slice.size() ) {
+					invocations.add(slice.get(i).applyChange());
+					changes.increment();
+				}
+			}));
+		}
+		long start = System.nanoTime();
+		Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+		running.set(false);
+		for ( Future<?> result : results ) {
+			result.get();
+		}
+		long nanos = System.nanoTime() - start;
+		executor.shutdown();
+		long total = changes.sum();
+		return new Throughput(total * 1e9 / nanos, total > 0 ? (double) invocations.sum() / total : 0);
+	}
+
+	/**
+	 * The result of a throughput measurement
+	 *
+	 * @param changesPerSecond the processed changes per second
+	 * @param jsPerChange      the average number of the JS invocations of a response
+	 */
+	private record Throughput(double changesPerSecond, double jsPerChange) {
+	}
+}
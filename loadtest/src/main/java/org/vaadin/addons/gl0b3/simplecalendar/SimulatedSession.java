@@ -0,0 +1,189 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * A user session of the load test: a headless {@link UI} of the {@link SimulatedVaadinSession} with a typical calendar page,
+ * a {@link YearCalendar} overview and two linked {@link MonthCalendar}s with holidays, weekends, bookings and an
+ * occupancy heatmap
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+final class SimulatedSession {
+
+	/**
+	 * the year of the calendars
+	 */
+	static final int YEAR = 2024;
+
+	/**
+	 * the number of the bookings of a session
+	 */
+	private static final int BOOKINGS = 60;
+
+	/**
+	 * the buckets of the occupancy heatmap
+	 */
+	private static final HeatmapBuckets OCCUPANCY = HeatmapBuckets.of().from(1, "low").from(4, "mid").from(8, "full");
+
+	private final UI ui;
+
+	private final YearCalendar yearCalendar;
+
+	private final MonthCalendar monthCalendar;
+
+	private final MonthCalendar nextMonthCalendar;
+
+	private final CalendarGroup group;
+
+	private final List<LocalDate> bookings = new ArrayList<>();
+
+	private final Random random;
+
+	/**
+	 * Creates the page of the session and sends its first response
+	 *
+	 * @param session {@link VaadinSession} the session of the UI
+	 * @param seed    {@link long} the seed of the random data and changes
+	 * @param empty   {@link boolean} <code>true</code> for a page without calendars, the baseline of the measurements
+	 */
+	SimulatedSession(VaadinSession session, long seed, boolean empty) {
+		random = new Random(seed);
+		ui = new UI();
+		ui.getInternals().setSession(session);
+		if ( empty ) {
+			yearCalendar = null;
+			monthCalendar = null;
+			nextMonthCalendar = null;
+			group = null;
+			roundTrip();
+			return;
+		}
+		yearCalendar = new YearCalendar(YEAR, "en", true);
+		YearMonth month = YearMonth.of(YEAR, 1 + random.nextInt(11));
+		YearMonth next = month.plusMonths(1);
+		monthCalendar = new MonthCalendar(month.getYear(), month.getMonthValue(), "en", true);
+		nextMonthCalendar = new MonthCalendar(next.getYear(), next.getMonthValue(), "en", true);
+		group = new CalendarGroup(monthCalendar, nextMonthCalendar).setLinkedNavigation(true);
+		group.addClassByRule(Recurrence.weekly(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), "weekend-day");
+
+		for ( int i = 0; i < BOOKINGS; i++ ) {
+			bookings.add(LocalDate.of(YEAR, 1, 1).plusDays(random.nextInt(366)));
+		}
+		int[] occupancy = new int[366];
+		for ( int i = 0; i < occupancy.length; i++ ) {
+			occupancy[i] = random.nextInt(10);
+		}
+		yearCalendar.decorate(batch -> batch.addClassByRule(Recurrence.yearly().byMonth(12).byMonthDay(25, 26), "holiday")
+				.addClassByRule(Recurrence.yearly().byMonth(1).byMonthDay(1), "holiday")
+				.setHeatmap(LocalDate.of(YEAR, 1, 1), occupancy, OCCUPANCY));
+		monthCalendar.addClassToCellByLocalDates(bookings, "booked");
+		nextMonthCalendar.addClassToCellByLocalDates(bookings, "booked");
+		ui.add(yearCalendar, monthCalendar, nextMonthCalendar);
+		roundTrip();
+	}
+
+	/**
+	 * Applies a random server side change, like in the event handler of a request, and builds the response
+	 *
+	 * @return {@link int} the number of the JS invocations of the response
+	 */
+	int applyChange() {
+		int change = random.nextInt(10);
+		if ( change < 4 ) {
+			LocalDate booking = LocalDate.of(YEAR, 1, 1).plusDays(random.nextInt(366));
+			bookings.add(booking);
+			monthCalendar.decorate(batch -> batch.addClassToCellByLocalDates(List.of(booking), "booked"));
+			nextMonthCalendar.decorate(batch -> batch.addClassToCellByLocalDates(List.of(booking), "booked"));
+		} else if ( change < 7 && !bookings.isEmpty() ) {
+			LocalDate booking = bookings.remove(random.nextInt(bookings.size()));
+			monthCalendar.removeClassFromCellByLocalDates(List.of(booking), "booked");
+			nextMonthCalendar.removeClassFromCellByLocalDates(List.of(booking), "booked");
+		} else if ( change < 9 ) {
+			// the group moves the other month calendar too
+			monthCalendar.shiftMonths(random.nextBoolean() ? 1 : -1);
+		} else {
+			int[] occupancy = new int[31];
+			for ( int i = 0; i < occupancy.length; i++ ) {
+				occupancy[i] = random.nextInt(10);
+			}
+			yearCalendar.setHeatmap(LocalDate.of(YEAR, 1 + random.nextInt(11), 1), occupancy, OCCUPANCY);
+		}
+		return roundTrip();
+	}
+
+	/**
+	 * Gives back the size of the serialized UI, as it is replicated with the session
+	 *
+	 * @return {@link long} the number of the bytes
+	 * @throws IOException if the UI can't be serialized
+	 */
+	long serializedSize() throws IOException {
+		return serializedSize(ui);
+	}
+
+	/**
+	 * Gives back the size of the serialized decoration state of the calendars and the group, without the components
+	 * and the rest of the UI
+	 *
+	 * @return {@link long} the number of the bytes, 0 for a page without calendars
+	 * @throws IOException if the decoration state can't be serialized
+	 */
+	long decorationStateSize() throws IOException {
+		if ( yearCalendar == null ) {
+			return 0;
+		}
+		return serializedSize(new DecorationModel[] { yearCalendar.getDecorationModel(), monthCalendar.getDecorationModel(),
+				nextMonthCalendar.getDecorationModel(), group.getDecorationModel() });
+	}
+
+	private static long serializedSize(Object object) throws IOException {
+		CountingOutputStream counter = new CountingOutputStream();
+		try ( ObjectOutputStream out = new ObjectOutputStream(counter) ) {
+			out.writeObject(object);
+		}
+		return counter.count;
+	}
+
+	/**
+	 * Runs what Flow runs before a client response: the before client response callbacks, which send the attributes and
+	 * decorations of the calendars, and the collection of the changes
+	 */
+	private int roundTrip() {
+		UI.setCurrent(ui);
+		try {
+			ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+			ui.getInternals().getStateTree().collectChanges(change -> {
+			});
+			return ui.getInternals().dumpPendingJavaScriptInvocations().size();
+		} finally {
+			UI.setCurrent(null);
+		}
+	}
+
+	private static final class CountingOutputStream extends OutputStream {
+
+		private long count = 0;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * The session of all the simulated UIs, without a service. It is always locked by the thread which holds the simulated
+ * session and runs the {@link VaadinSession#access(Command)} commands at once; unlike a mock it doesn't record anything
+ * and it can be serialized like a real session.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+final class SimulatedVaadinSession extends VaadinSession {
+
+	SimulatedVaadinSession() {
+		super(null);
+	}
+
+	@Override
+	public boolean hasLock() {
+		return true;
+	}
+
+	@Override
+	public Future<Void> access(Command command) {
+		command.execute();
+		return CompletableFuture.completedFuture(null);
+	}
+}
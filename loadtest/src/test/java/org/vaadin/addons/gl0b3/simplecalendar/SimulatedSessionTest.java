@@ -0,0 +1,42 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.vaadin.flow.server.VaadinSession;
+
+public class SimulatedSessionTest {
+
+	private final VaadinSession session = new SimulatedVaadinSession();
+
+	@Test
+	public void emptySessionHasNoDecorationState() throws Exception {
+		SimulatedSession empty = new SimulatedSession(session, 0, true);
+		assertEquals(0, empty.decorationStateSize());
+		assertTrue(empty.serializedSize() > 0);
+	}
+
+	@Test
+	public void calendarsAddToTheSerializedSession() throws Exception {
+		long empty = new SimulatedSession(session, 0, true).serializedSize();
+		SimulatedSession calendars = new SimulatedSession(session, 0, false);
+		long decorationState = calendars.decorationStateSize();
+		assertTrue(decorationState > 0);
+		assertTrue(calendars.serializedSize() > empty + decorationState / 2);
+	}
+
+	@Test
+	public void changesAreAppliedAndSent() throws Exception {
+		SimulatedSession simulated = new SimulatedSession(session, 7, false);
+		int invocations = 0;
+		for ( int i = 0; i < 200; i++ ) {
+			invocations += simulated.applyChange();
+		}
+		// most of the changes send decorations or attributes
+		assertTrue(invocations > 100);
+		// the session can still be serialized after the changes
+		assertTrue(simulated.serializedSize() > 0);
+	}
+}
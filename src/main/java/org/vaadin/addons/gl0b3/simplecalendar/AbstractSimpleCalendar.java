@@ -1,23 +1,79 @@
 package org.vaadin.addons.gl0b3.simplecalendar;
 
-import java.text.SimpleDateFormat;
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.Year;
+import java.time.YearMonth;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentEventListener;
 import com.vaadin.flow.component.HasElement;
 import com.vaadin.flow.component.HasTheme;
+import com.vaadin.flow.component.dependency.JsModule;
+import com.vaadin.flow.component.page.PendingJavaScriptResult;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.shared.Registration;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
 
 /**
  * The base abstract class for Simple Calendar components
  * @author Károly Kótay-Szabó (gl0b3)
  */
+@JsModule("./simple-calendar-connector.js")
 public abstract class AbstractSimpleCalendar extends Component implements HasTheme, HasElement {
 
+	/**
+	 * the client side connector of the calendars, see <code>simple-calendar-connector.js</code>
+	 */
+	static final String CONNECTOR = "window.Vaadin.Flow.simpleCalendarConnector";
+
+	/**
+	 * the name of the client event of a day click
+	 */
+	static final String DAY_CLICK_EVENT = "simple-calendar-day-click";
+
+	/**
+	 * the name of the client event of a range selection
+	 */
+	static final String RANGE_SELECTION_EVENT = "simple-calendar-range-select";
+
+	/**
+	 * the debounce timeout of the range selection events in milliseconds
+	 */
+	static final int RANGE_SELECTION_DEBOUNCE = 150;
+
+	/**
+	 * the name of the client event of a client side navigation
+	 */
+	static final String NAVIGATION_EVENT = "simple-calendar-navigate";
+
+	/**
+	 * the attributes which the client side navigation sets on the client
+	 */
+	private static final List<String> NAVIGATION_ATTRIBUTES = List.of("year", "month");
+
+	/**
+	 * the attributes whose change re-renders the day cells on the client
+	 */
+	private static final Set<String> RERENDERING_ATTRIBUTES = Set.of("year", "month", "locale", "show-other-month-days");
+
 	/**
 	 * the base year of the Year and Month Calendar
 	 */
@@ -44,54 +100,174 @@ public abstract class AbstractSimpleCalendar extends Component implements HasThe
 	protected DayNameFormat dayNameFormat = DayNameFormat.SHORT;
 
 	/**
-	 * Immediatly send the given year parameter to client and refreshes its state
+	 * the time zone in which {@link Date} values are converted to days
+	 */
+	protected ZoneId zoneId = ZoneId.systemDefault();
+
+	/**
+	 * the server side model of the cell decorations
+	 */
+	private final DecorationModel decorations = new DecorationModel();
+
+	/**
+	 * the maximum number of the months cached from the data provider
+	 */
+	private int dataProviderCacheSize = 24;
+
+	/**
+	 * the attributes which have been changed since the last client response, <code>null</code> value means removal
+	 */
+	private final Map<String, String> pendingAttributes = new LinkedHashMap<>();
+
+	/**
+	 * the attribute values which have been sent to the client
+	 */
+	private final Map<String, String> clientAttributes = new HashMap<>();
+
+	/**
+	 * <code>true</code> if the flush of the attributes and decorations is already scheduled for the next client response
+	 */
+	private boolean flushScheduled = false;
+
+	/**
+	 * <code>true</code> if the client side selection listener has to be installed
+	 */
+	private boolean selectionEnabled = false;
+
+	/**
+	 * <code>true</code> if the month grids are rendered on the server at attach
+	 */
+	private boolean serverSideRendering = false;
+
+	/**
+	 * the server side rendered elements, until the client component takes over
+	 */
+	private final List<Element> renderedElements = new ArrayList<>();
+
+	/**
+	 * the first month of the period which has been sent to the client last
+	 */
+	private YearMonth lastPeriodStart;
+
+	/**
+	 * the listener of the metrics
+	 */
+	private CalendarMetricsListener metricsListener = CalendarMetricsListener.NO_OP;
+
+	/**
+	 * the metrics of the current round trip
+	 */
+	private final CalendarMetricsRecorder metrics = new CalendarMetricsRecorder();
+
+	/**
+	 * <code>true</code> if the period can be moved on the client, see {@link #setClientNavigation(boolean)}
+	 */
+	private boolean clientNavigation = false;
+
+	/**
+	 * the registration of the client navigation event listener
+	 */
+	private Registration navigationRegistration;
+
+	/**
+	 * the elements whose click moves the period on the client, with the number of the steps
+	 */
+	private final Map<Element, Integer> navigationTriggers = new LinkedHashMap<>();
+
+	/**
+	 * the decorations of the adjacent periods which have been sent to the client cache, by the first months of the periods
+	 */
+	private final Map<YearMonth, Prefetch> prefetched = new HashMap<>();
+
+	/**
+	 * the version of the last prefetched cache entry
+	 */
+	private int prefetchVersion = 0;
+
+	/**
+	 * <code>true</code> while the period is moved after a client side navigation
+	 */
+	private boolean navigatingFromClient = false;
+
+	/**
+	 * the group of the calendar, it is set by {@link CalendarGroup}
+	 */
+	CalendarGroup group;
+
+	/**
+	 * Creates the calendar. The decorations are sent again whenever the component is attached, because a (re)attached
+	 * client component has no decorations yet.
+	 */
+	protected AbstractSimpleCalendar() {
+		addAttachListener(event -> {
+			if ( serverSideRendering ) {
+				renderOnServer();
+			}
+			resendDecorations();
+			if ( group != null ) {
+				group.resendDecorations();
+			}
+			if ( selectionEnabled ) {
+				installSelection();
+			}
+			if ( clientNavigation ) {
+				prefetched.clear();
+				installNavigation();
+				navigationTriggers.forEach(this::installNavigationTrigger);
+			}
+		});
+	}
+
+	/**
+	 * Send the given year parameter to client and refreshes its state.
+	 * The property changes of a server round trip are sent together, so the client re-renders only once.
 	 *
 	 * @param year {@link int} the year we want to change to
 	 */
 	public void refreshYear(int year) {
 		this.year = year;
-		getElement().callJsFunction("setYear", year);
+		updateAttribute("year", String.valueOf(year));
 	}
 
 	/**
-	 * Immediately send the given locale parameter to client and refreshes its state
+	 * Send the given locale parameter to client and refreshes its state
 	 *
 	 * @param locale {@link String} the locale we want to change to
 	 */
 	public void refreshLocale(String locale) {
 		this.locale = locale;
-		getElement().callJsFunction("setLocale", locale);
+		updateAttribute("locale", locale);
 	}
 
 	/**
-	 * Immediately send the given yearIsFirst parameter to client and refreshes its state
+	 * Send the given yearIsFirst parameter to client and refreshes its state
 	 *
 	 * @param yearIsFirst {@link boolean} the yearIsFirst we want to change to
 	 */
 	public void refreshYearIsFirst(boolean yearIsFirst) {
 		this.yearIsFirst = yearIsFirst;
-		getElement().callJsFunction("setYearIsFirst", yearIsFirst);
+		updateAttribute("year-is-first", yearIsFirst);
 	}
 
 	/**
-	 * Immediately send the given showOtherMonthDays parameter to client and refreshes its state
+	 * Send the given showOtherMonthDays parameter to client and refreshes its state
 	 *
 	 * @param showOtherMonthDays {@link boolean} the showOtherMonthDays we want to change to
 	 */
 	public void refreshShowOtherMonthDays(boolean showOtherMonthDays) {
 		this.showOtherMonthDays = showOtherMonthDays;
-		getElement().callJsFunction("setShowOtherMonthDays", showOtherMonthDays);
+		updateAttribute("show-other-month-days", showOtherMonthDays);
 	}
 
 	/**
-	 * Immediately send the given dayNameFormat parameter to client and refreshes its state
+	 * Send the given dayNameFormat parameter to client and refreshes its state
 	 *
 	 * @param dayNameFormat {@link DayNameFormat} the dayNameFormat we want to change to
 	 */
 	public void refreshDayNameFormat(DayNameFormat dayNameFormat) {
 		this.dayNameFormat = dayNameFormat;
 		if ( dayNameFormat != null ) {
-			getElement().callJsFunction("setWeekdayType", dayNameFormat.getValue());
+			updateAttribute("weekday-type", dayNameFormat.getValue());
 		}
 	}
 
@@ -100,10 +276,834 @@ public abstract class AbstractSimpleCalendar extends Component implements HasThe
 	 * Otherwise, call the another refresh method with parameters, ie: {@link AbstractSimpleCalendar#refreshYear(int)}
 	 */
 	public void refresh() {
-		getElement().setAttribute("year", String.valueOf(this.year));
-		getElement().setAttribute("locale", this.locale);
-		getElement().setAttribute("year-is-first", this.yearIsFirst);
-		getElement().setAttribute("show-other-month-days", this.showOtherMonthDays);
-		getElement().setAttribute("weekday-type", this.dayNameFormat.getValue());
+		updateAttribute("year", String.valueOf(this.year));
+		updateAttribute("locale", this.locale);
+		updateAttribute("year-is-first", this.yearIsFirst);
+		updateAttribute("show-other-month-days", this.showOtherMonthDays);
+		if ( this.dayNameFormat != null ) {
+			updateAttribute("weekday-type", this.dayNameFormat.getValue());
+		}
+	}
+
+	/**
+	 * Mark the given attribute to be sent to the client. All the changed attributes are sent together right before the
+	 * client response, and the ones which have the same value as on the client are skipped.
+	 *
+	 * @param name  {@link String} the attribute name
+	 * @param value {@link String} the attribute value, <code>null</code> removes the attribute
+	 */
+	protected void updateAttribute(String name, String value) {
+		pendingAttributes.put(name, value);
+		scheduleFlush();
+		YearMonth periodStart = getPeriodStart();
+		if ( lastPeriodStart != null && !periodStart.equals(lastPeriodStart) ) {
+			YearMonth oldPeriodStart = lastPeriodStart;
+			lastPeriodStart = periodStart;
+			fireEvent(new PeriodChangeEvent(this, navigatingFromClient, oldPeriodStart, periodStart));
+		} else {
+			lastPeriodStart = periodStart;
+		}
+	}
+
+	/**
+	 * Mark the given boolean attribute to be sent to the client, see {@link #updateAttribute(String, String)}
+	 *
+	 * @param name  {@link String} the attribute name
+	 * @param value {@link boolean} <code>true</code> sets, <code>false</code> removes the attribute
+	 */
+	protected void updateAttribute(String name, boolean value) {
+		updateAttribute(name, value ? "" : null);
+	}
+
+	/**
+	 * Set the time zone in which the {@link Date} values of the decoration methods are converted to days
+	 *
+	 * @param zoneId {@link ZoneId} the time zone, default is the system default zone
+	 */
+	public void setZoneId(ZoneId zoneId) {
+		this.zoneId = zoneId;
+	}
+
+	/**
+	 * Gives back the time zone in which the {@link Date} values of the decoration methods are converted to days
+	 *
+	 * @return the {@link ZoneId}
+	 */
+	public ZoneId getZoneId() {
+		return zoneId;
+	}
+
+	/**
+	 * Changes the cell decorations through a {@link DecorationBatch}. The calendar keeps the decorations in a server side
+	 * model; all the changes of the same server round trip are compared to what the client already has, and only the
+	 * difference is sent as one payload applied in one client side pass. After a re-attach or a re-render (ie: year or
+	 * locale change) the decorations are sent again automatically.
+	 * <p>
+	 * Usage: <code>calendar.decorate(batch -&gt; batch.addClassToCellByLocalDates(holidays, "holiday").removeClassFromCellByType("weekend", "open"));</code>
+	 *
+	 * @param operations {@link Consumer<DecorationBatch>} which records the operations into the given batch
+	 */
+	public void decorate(Consumer<DecorationBatch> operations) {
+		long start = isMeasured() ? System.nanoTime() : 0;
+		operations.accept(new DecorationBatch(decorations, zoneId));
+		if ( isMeasured() ) {
+			metrics.conversion(System.nanoTime() - start);
+		}
+		scheduleFlush();
+	}
+
+	/**
+	 * Remove style class from the TD cells which have the given cellType
+	 *
+	 * @param cellType  {@link String} the cellType: "weekday" or "weekend"
+	 * @param className {@link String} the CSS style class name which have to be removed
+	 */
+	public void removeClassFromCellByType(String cellType, String className) {
+		decorate(batch -> batch.removeClassFromCellByType(cellType, className));
+	}
+
+	/**
+	 * Add the given className style class to all the days TD cells in the year.
+	 *
+	 * @param dates     {@link List<Date>} which cells have to me modified
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 */
+	public void addClassToCellByDates(List<Date> dates, String className) {
+		decorate(batch -> batch.addClassToCellByDates(dates, className));
+	}
+
+	/**
+	 * Add the given className style class to all the days TD cells in the year.
+	 *
+	 * @param dates     {@link List<LocalDate>} which cells have to me modified
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 */
+	public void addClassToCellByLocalDates(List<LocalDate> dates, String className) {
+		decorate(batch -> batch.addClassToCellByLocalDates(dates, className));
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells of the streamed dates, ie: from a JDBC cursor.
+	 * The dates are added to the decoration model one by one, without an intermediate list.
+	 *
+	 * @param dates     {@link Stream<LocalDate>} which cells have to me modified
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 */
+	public void addClassToCellByLocalDates(Stream<LocalDate> dates, String className) {
+		decorate(batch -> batch.addClassToCellByLocalDates(dates, className));
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells of the iterated dates, ie: from a JDBC cursor.
+	 * The dates are added to the decoration model one by one, without an intermediate list.
+	 *
+	 * @param dates     {@link Iterator<LocalDate>} which cells have to me modified
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 */
+	public void addClassToCellByLocalDates(Iterator<LocalDate> dates, String className) {
+		decorate(batch -> batch.addClassToCellByLocalDates(dates, className));
+	}
+
+	/**
+	 * Replace the dates of the given className style class, see {@link DecorationBatch#setClassToCellByLocalDates(java.util.Collection, String)}
+	 *
+	 * @param dates     {@link List<LocalDate>} the cells which have to have the class
+	 * @param className {@link String} the CSS style class
+	 */
+	public void setClassToCellByLocalDates(List<LocalDate> dates, String className) {
+		decorate(batch -> batch.setClassToCellByLocalDates(dates, className));
+	}
+
+	/**
+	 * Remove the given className style class from the days TD cells of the given dates.
+	 *
+	 * @param dates     {@link List<LocalDate>} which cells have to me modified
+	 * @param className {@link String} the CSS style class which have to be removed from the cell
+	 */
+	public void removeClassFromCellByLocalDates(List<LocalDate> dates, String className) {
+		decorate(batch -> batch.removeClassFromCellByLocalDates(dates, className));
+	}
+
+	/**
+	 * Remove the given className style class from all the days TD cells.
+	 *
+	 * @param className {@link String} the CSS style class which have to be removed
+	 */
+	public void removeClass(String className) {
+		decorate(batch -> batch.removeClass(className));
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells between from and to, both inclusive.
+	 * The range is evaluated lazily, only for the visible dates.
+	 *
+	 * @param from      {@link LocalDate} the first date of the range
+	 * @param to        {@link LocalDate} the last date of the range
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 */
+	public void addClassToRange(LocalDate from, LocalDate to, String className) {
+		decorate(batch -> batch.addClassToRange(from, to, className));
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells which match the given rule, ie: a {@link Recurrence}.
+	 * The rule is evaluated lazily, only for the visible dates.
+	 *
+	 * @param rule      {@link DecorationRule} the rule of the decorated dates
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 */
+	public void addClassByRule(DecorationRule rule, String className) {
+		decorate(batch -> batch.addClassByRule(rule, className));
+	}
+
+	/**
+	 * Decorate the days by numeric values, ie: by occupancy, see {@link DecorationBatch#setHeatmap(LocalDate, int[], HeatmapBuckets)}.
+	 * Usage: <code>calendar.setHeatmap(LocalDate.of(2024, 1, 1), occupancy, HeatmapBuckets.of().from(1, "low").from(5, "full"));</code>
+	 *
+	 * @param from    {@link LocalDate} the day of the first value, ie: the first day of the year
+	 * @param values  {@link int[]} the values of the consecutive days
+	 * @param buckets {@link HeatmapBuckets} the thresholds and the classes
+	 */
+	public void setHeatmap(LocalDate from, int[] values, HeatmapBuckets buckets) {
+		decorate(batch -> batch.setHeatmap(from, values, buckets));
+	}
+
+	/**
+	 * Decorate the days by numeric values, ie: by occupancy, see {@link DecorationBatch#setHeatmap(LocalDate, double[], HeatmapBuckets)}.
+	 *
+	 * @param from    {@link LocalDate} the day of the first value, ie: the first day of the year
+	 * @param values  {@link double[]} the values of the consecutive days, NaN means no value
+	 * @param buckets {@link HeatmapBuckets} the thresholds and the classes
+	 */
+	public void setHeatmap(LocalDate from, double[] values, HeatmapBuckets buckets) {
+		decorate(batch -> batch.setHeatmap(from, values, buckets));
+	}
+
+	/**
+	 * Evaluate the decoration rules for the visible period again, ie: after the events of a {@link CalendarEventStore}
+	 * have been changed. Only the difference is sent to the client.
+	 */
+	public void refreshDecorations() {
+		decorations.refreshRules();
+		scheduleFlush();
+	}
+
+	/**
+	 * Set the maximum number of dates sent to the client in one message. If the decorations to send are more, they are
+	 * sent in chunks, the next chunk when the client has received the previous one.
+	 *
+	 * @param maxDatesPerMessage {@link int} the maximum number of dates, default is 10000
+	 */
+	public void setMaxDatesPerMessage(int maxDatesPerMessage) {
+		if ( maxDatesPerMessage < 1 ) {
+			throw new IllegalArgumentException("The maximum number of dates per message has to be positive: " + maxDatesPerMessage);
+		}
+		decorations.setMaxDatesPerSync(maxDatesPerMessage);
+	}
+
+	/**
+	 * Set a lazy source of decorations. The calendar fetches only the visible months and caches the results per month,
+	 * see {@link #setDataProviderCacheSize(int)}. The decorations of the provider are added to the other decorations.
+	 *
+	 * @param dataProvider {@link CalendarDataProvider} the provider, <code>null</code> removes the current one
+	 */
+	public void setDataProvider(CalendarDataProvider dataProvider) {
+		decorations.setDataProvider(dataProvider != null ? new DataProviderCache(dataProvider, dataProviderCacheSize) : null);
+		scheduleFlush();
+	}
+
+	/**
+	 * Gives back the lazy source of decorations
+	 *
+	 * @return the {@link CalendarDataProvider}, <code>null</code> if it is not set
+	 */
+	public CalendarDataProvider getDataProvider() {
+		DataProviderCache cache = decorations.getDataProvider();
+		return cache != null ? cache.getProvider() : null;
+	}
+
+	/**
+	 * Gives back the decoration model of the calendar, ie: to measure the decoration state of a session
+	 *
+	 * @return the {@link DecorationModel}
+	 */
+	DecorationModel getDecorationModel() {
+		return decorations;
+	}
+
+	/**
+	 * Set how many months of the data provider results are cached. The least recently used months are evicted first.
+	 * The cache always keeps the months which are shown, or prefetched for the client side navigation, at once.
+	 *
+	 * @param months {@link int} the maximum number of cached months, default is 24
+	 */
+	public void setDataProviderCacheSize(int months) {
+		this.dataProviderCacheSize = months;
+		if ( decorations.getDataProvider() != null ) {
+			decorations.getDataProvider().setMaxMonths(months);
+		}
+	}
+
+	/**
+	 * Drop all the cached data provider results and fetch the visible months again
+	 */
+	public void refreshDataProvider() {
+		if ( decorations.getDataProvider() != null ) {
+			decorations.getDataProvider().invalidate();
+			scheduleFlush();
+		}
+	}
+
+	/**
+	 * Drop the cached data provider results of the given month and fetch it again if it is visible
+	 *
+	 * @param month {@link YearMonth} the month which has been changed
+	 */
+	public void refreshDataProvider(YearMonth month) {
+		if ( decorations.getDataProvider() != null ) {
+			decorations.getDataProvider().invalidate(month);
+			scheduleFlush();
+		}
+	}
+
+	/**
+	 * Render the month grids on the server when the component is attached. The grids are sent as the light DOM children
+	 * of the component, which the browser shows until the client component is defined; after that the client component
+	 * renders itself and the server side rendered elements are removed. The placeholder of {@link CalendarFirstPaint} is
+	 * removed as soon as the component is in the page, as the component shows the same grids.
+	 * The light DOM is applied by the Flow client, so it is visible only after the Flow client has been loaded; for a
+	 * paint before any JS runs, add a {@link CalendarFirstPaint} to the initial page too.
+	 *
+	 * @param serverSideRendering {@link boolean} <code>true</code> to render on the server, default is <code>false</code>
+	 */
+	public void setServerSideRendering(boolean serverSideRendering) {
+		this.serverSideRendering = serverSideRendering;
+	}
+
+	/**
+	 * Gives back if the month grids are rendered on the server at attach
+	 *
+	 * @return <code>true</code> if the server side rendering is enabled
+	 */
+	public boolean isServerSideRendering() {
+		return serverSideRendering;
+	}
+
+	/**
+	 * Gives back the months which are rendered on the server, in display order
+	 *
+	 * @return {@link List<YearMonth>} the months, empty if the component doesn't support server side rendering
+	 */
+	protected List<YearMonth> getDisplayedMonths() {
+		return List.of();
+	}
+
+	private void renderOnServer() {
+		removeServerSideRendering();
+		Element rendered = renderMonths();
+		if ( rendered == null ) {
+			return;
+		}
+		renderedElements.add(rendered);
+		getElement().appendChild(rendered);
+		recordJsCall();
+		getElement().executeJs("return " + CONNECTOR + ".whenDefined(this, $0)", CalendarFirstPaint.PLACEHOLDER_ID).then(value -> removeServerSideRendering());
+	}
+
+	/**
+	 * Gives back the server side rendered calendar for the initial page, see {@link CalendarFirstPaint}: an element with the
+	 * tag and the attributes of this component, which holds the rendered month grids like the light DOM of the component.
+	 *
+	 * @return the host {@link Element}, <code>null</code> if the component doesn't support server side rendering
+	 */
+	Element renderServerSideHost() {
+		Element rendered = renderMonths();
+		if ( rendered == null ) {
+			return null;
+		}
+		Element host = new Element(getElement().getTag());
+		getElement().getAttributeNames().forEach(name -> host.setAttribute(name, getElement().getAttribute(name)));
+		pendingAttributes.forEach((name, value) -> {
+			if ( value != null ) {
+				host.setAttribute(name, value);
+			} else {
+				host.removeAttribute(name);
+			}
+		});
+		host.appendChild(rendered);
+		return host;
+	}
+
+	private Element renderMonths() {
+		List<YearMonth> months = getDisplayedMonths();
+		if ( months.isEmpty() ) {
+			return null;
+		}
+		Map<String, DateSet> decorated = decorations.getDecorations(getFirstVisibleDate(), getLastVisibleDate());
+		return ServerSideRenderer.render(months, locale, yearIsFirst, showOtherMonthDays, dayNameFormat, decorated);
+	}
+
+	private void removeServerSideRendering() {
+		if ( !renderedElements.isEmpty() ) {
+			getElement().removeChild(renderedElements.toArray(new Element[0]));
+			renderedElements.clear();
+		}
+	}
+
+	/**
+	 * Add a listener which is notified when the user clicks on a day
+	 *
+	 * @param listener {@link ComponentEventListener<DayClickEvent>} the listener
+	 * @return the {@link Registration} to remove the listener
+	 */
+	public Registration addDayClickListener(ComponentEventListener<DayClickEvent> listener) {
+		enableSelection();
+		return addListener(DayClickEvent.class, listener);
+	}
+
+	/**
+	 * Add a listener which is notified when the user selects a range of days by dragging across them.
+	 * One drag sends only one event, and the drags which follow each other quickly are coalesced. The touch-action of
+	 * the calendar is set to none, so a touch drag selects days instead of scrolling the page.
+	 *
+	 * @param listener {@link ComponentEventListener<DateRangeSelectionEvent>} the listener
+	 * @return the {@link Registration} to remove the listener
+	 */
+	public Registration addDateRangeSelectionListener(ComponentEventListener<DateRangeSelectionEvent> listener) {
+		enableSelection();
+		getElement().getStyle().set("touch-action", "none");
+		return addListener(DateRangeSelectionEvent.class, listener);
+	}
+
+	private void enableSelection() {
+		if ( !selectionEnabled ) {
+			selectionEnabled = true;
+			installSelection();
+		}
+	}
+
+	private void installSelection() {
+		recordJsCall();
+		getElement().executeJs(CONNECTOR + ".initSelection(this, $0, $1)", DAY_CLICK_EVENT, RANGE_SELECTION_EVENT);
+	}
+
+	/**
+	 * Add a listener which is notified when the displayed period has been changed on the server, ie: by a refresh method
+	 *
+	 * @param listener {@link ComponentEventListener<PeriodChangeEvent>} the listener
+	 * @return the {@link Registration} to remove the listener
+	 */
+	public Registration addPeriodChangeListener(ComponentEventListener<PeriodChangeEvent> listener) {
+		return addListener(PeriodChangeEvent.class, listener);
+	}
+
+	/**
+	 * Move the displayed period by the given number of months and send it to the client. By default the period is the
+	 * {@link #year}, which is moved by the whole years of the given number of months, ie: 12 moves to the next year and
+	 * -12 to the previous one; the remaining months are ignored in both directions. The calendars which show months
+	 * override it.
+	 *
+	 * @param months {@link int} the number of months, negative to move backwards
+	 */
+	public void shiftMonths(int months) {
+		refreshYear(this.year + months / 12);
+	}
+
+	/**
+	 * Follow the period change of another calendar, ie: of a member of the same {@link CalendarGroup} with linked
+	 * navigation. By default the period is moved by as many months as the other period has been moved.
+	 *
+	 * @param oldPeriodStart {@link YearMonth} the first month of the previous period of the other calendar
+	 * @param periodStart    {@link YearMonth} the first month of the new period of the other calendar
+	 */
+	protected void followPeriodChange(YearMonth oldPeriodStart, YearMonth periodStart) {
+		shiftMonths((int) oldPeriodStart.until(periodStart, ChronoUnit.MONTHS));
+	}
+
+	/**
+	 * Gives back how many months the period moves by one step of the client side navigation
+	 *
+	 * @return {@link int} the months of a step, 0 if the calendar doesn't support the client side navigation
+	 */
+	protected int getNavigationStep() {
+		return 0;
+	}
+
+	/**
+	 * If <code>true</code>, the period can be moved on the client without waiting for the server, see
+	 * {@link #addNavigationTrigger(Component, int)}. The client changes the period at once and notifies the server
+	 * asynchronously, which fires a {@link PeriodChangeEvent} from the client.
+	 * While the calendar shows a period, the decorations of the previous and the next periods are sent to a client side
+	 * cache in the background, so the decorations are shown at once after a step too.
+	 *
+	 * @param clientNavigation {@link boolean} enable the client side navigation, default is <code>false</code>
+	 * @throws UnsupportedOperationException if the calendar doesn't support the client side navigation
+	 */
+	public void setClientNavigation(boolean clientNavigation) {
+		if ( clientNavigation && getNavigationStep() == 0 ) {
+			throw new UnsupportedOperationException("The calendar doesn't support the client side navigation");
+		}
+		if ( this.clientNavigation == clientNavigation ) {
+			return;
+		}
+		this.clientNavigation = clientNavigation;
+		prefetched.clear();
+		if ( clientNavigation ) {
+			navigationRegistration = getElement().addEventListener(NAVIGATION_EVENT, event -> {
+				JsonObject data = event.getEventData();
+				onClientNavigation((int) data.getNumber("event.detail.year"), (int) data.getNumber("event.detail.month"),
+						(int) data.getNumber("event.detail.version"));
+			}).addEventData("event.detail.year").addEventData("event.detail.month").addEventData("event.detail.version");
+			if ( getElement().getNode().isAttached() ) {
+				installNavigation();
+			}
+			scheduleFlush();
+		} else {
+			navigationRegistration.remove();
+			navigationRegistration = null;
+			recordJsCall();
+			getElement().executeJs(CONNECTOR + ".disableNavigation(this)");
+		}
+	}
+
+	/**
+	 * Gives back if the period can be moved on the client
+	 *
+	 * @return <code>true</code> if the client side navigation is enabled
+	 */
+	public boolean isClientNavigation() {
+		return clientNavigation;
+	}
+
+	/**
+	 * Move the period on the client when the given component, ie: a previous or next button, is clicked. It enables the
+	 * client side navigation, see {@link #setClientNavigation(boolean)}. The trigger has to be in the same UI.
+	 * <p>
+	 * Usage: <code>calendar.addNavigationTrigger(previousButton, -1); calendar.addNavigationTrigger(nextButton, 1);</code>
+	 *
+	 * @param trigger {@link Component} the clicked component
+	 * @param steps   {@link int} the number of the steps, negative to move backwards; a step is a month in the
+	 *                {@link MonthCalendar} and a year in the {@link YearCalendar}
+	 * @return the {@link Registration} to remove the trigger
+	 */
+	public Registration addNavigationTrigger(Component trigger, int steps) {
+		setClientNavigation(true);
+		Element element = trigger.getElement();
+		navigationTriggers.put(element, steps);
+		installNavigationTrigger(element, steps);
+		Registration attachRegistration = trigger.addAttachListener(event -> installNavigationTrigger(element, steps));
+		return () -> {
+			attachRegistration.remove();
+			if ( navigationTriggers.remove(element) != null ) {
+				element.executeJs(CONNECTOR + ".unbindTrigger(this)");
+			}
+		};
+	}
+
+	private void installNavigation() {
+		recordJsCall();
+		getElement().executeJs(CONNECTOR + ".initNavigation(this, $0, $1)", NAVIGATION_EVENT, getNavigationStep());
+	}
+
+	private void installNavigationTrigger(Element trigger, int steps) {
+		if ( clientNavigation && getElement().getNode().isAttached() && trigger.getNode().isAttached() ) {
+			recordJsCall();
+			getElement().executeJs(CONNECTOR + ".bindTrigger(this, $0, $1)", trigger, steps);
+		}
+	}
+
+	/**
+	 * Follows the period which the client has already moved to. The attributes are not sent back, and if the client has
+	 * applied the prefetched decorations of the period, only the changes since the prefetch are sent.
+	 */
+	private void onClientNavigation(int year, int month, int version) {
+		YearMonth target = YearMonth.of(year, month);
+		int months = (int) getPeriodStart().until(target, ChronoUnit.MONTHS);
+		if ( months == 0 ) {
+			return;
+		}
+		navigatingFromClient = true;
+		try {
+			shiftMonths(months);
+		} finally {
+			navigatingFromClient = false;
+		}
+		for ( String name : NAVIGATION_ATTRIBUTES ) {
+			if ( pendingAttributes.containsKey(name) ) {
+				// the element state follows the client, the client already has the value
+				String value = pendingAttributes.remove(name);
+				if ( value != null ) {
+					getElement().setAttribute(name, value);
+				} else {
+					getElement().removeAttribute(name);
+				}
+				clientAttributes.put(name, value);
+			}
+		}
+		Prefetch prefetch = prefetched.get(target);
+		if ( prefetch != null && prefetch.version() == version ) {
+			decorations.assumeClient(prefetch.decorations());
+		} else if ( version != -1 ) {
+			// the client has applied a stale cache entry, its classes are cleared before everything is sent again
+			decorations.clearClient();
+		} else {
+			decorations.resetClient();
+		}
+		if ( group != null ) {
+			group.resendDecorations();
+		}
+		scheduleFlush();
+	}
+
+	/**
+	 * Sends the decorations of the previous and next periods to the client cache, the ones which have not been changed
+	 * since they have been sent are skipped
+	 */
+	private void prefetchAdjacentPeriods() {
+		int step = getNavigationStep();
+		YearMonth start = getPeriodStart();
+		Map<YearMonth, Prefetch> current = new HashMap<>();
+		JsonObject entries = Json.createObject();
+		JsonArray keep = Json.createArray();
+		for ( YearMonth period : List.of(start.minusMonths(step), start.plusMonths(step)) ) {
+			String key = period.getYear() + "-" + period.getMonthValue();
+			keep.set(keep.length(), key);
+			LocalDate first = period.atDay(1);
+			LocalDate last = period.plusMonths(step - 1L).atEndOfMonth();
+			if ( showOtherMonthDays ) {
+				first = first.minusDays(first.getDayOfWeek().getValue() - 1L);
+				last = last.plusDays(7L - last.getDayOfWeek().getValue());
+			}
+			Map<String, DateSet> periodDecorations = decorations.getDecorations(first, last);
+			Prefetch prefetch = prefetched.get(period);
+			if ( prefetch == null || !prefetch.decorations().equals(periodDecorations) ) {
+				prefetch = new Prefetch(++prefetchVersion, periodDecorations);
+				JsonObject classes = Json.createObject();
+				periodDecorations.forEach((className, dates) -> classes.put(className, CalendarUtils.encodeDates(dates)));
+				JsonObject entry = Json.createObject();
+				entry.put("version", prefetch.version());
+				entry.put("classes", classes);
+				entries.put(key, entry);
+			}
+			current.put(period, prefetch);
+		}
+		prefetched.clear();
+		prefetched.putAll(current);
+		if ( entries.keys().length > 0 ) {
+			if ( isMeasured() ) {
+				metrics.jsCall();
+				metrics.payload(entries.toJson().length(), 0);
+			}
+			getElement().executeJs(CONNECTOR + ".prefetch(this, $0, $1)", entries, keep);
+		}
+	}
+
+	/**
+	 * Gives back the first month of the displayed period. By default the period is the whole {@link #year}.
+	 *
+	 * @return the first {@link YearMonth}
+	 */
+	protected YearMonth getPeriodStart() {
+		return YearMonth.of(this.year, 1);
+	}
+
+	/**
+	 * Set the listener of the metrics, ie: a shared {@link CalendarMetricsCollector}. It receives the number of the JS calls
+	 * and attribute updates, the size of the decoration payloads, the number of the converted dates and the conversion
+	 * time of every round trip in which the calendar has sent something.
+	 *
+	 * @param metricsListener {@link CalendarMetricsListener} the listener, <code>null</code> or {@link CalendarMetricsListener#NO_OP} turns off the measuring
+	 */
+	public void setMetricsListener(CalendarMetricsListener metricsListener) {
+		this.metricsListener = metricsListener != null ? metricsListener : CalendarMetricsListener.NO_OP;
+	}
+
+	/**
+	 * Gives back the listener of the metrics
+	 *
+	 * @return the {@link CalendarMetricsListener}, {@link CalendarMetricsListener#NO_OP} if it is not set
+	 */
+	public CalendarMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
+
+	/**
+	 * Count a JS call of the calendar in the metrics
+	 */
+	void recordJsCall() {
+		if ( isMeasured() ) {
+			metrics.jsCall();
+		}
+	}
+
+	/**
+	 * Count a decoration payload of the {@link CalendarGroup} in the metrics of this calendar, which carries it for the
+	 * group. If the round trip of this calendar has already been reported, it is reported right away.
+	 *
+	 * @param bytes           {@link long} the size of the payload
+	 * @param dates           {@link long} the number of the encoded dates
+	 * @param conversionNanos {@link long} the time of building the payload
+	 */
+	void recordGroupPayload(long bytes, long dates, long conversionNanos) {
+		if ( isMeasured() ) {
+			metrics.conversion(conversionNanos);
+			metrics.jsCall();
+			metrics.payload(bytes, dates);
+			if ( !flushScheduled ) {
+				metrics.report(this, metricsListener);
+			}
+		}
+	}
+
+	boolean isMeasured() {
+		return metricsListener != CalendarMetricsListener.NO_OP;
+	}
+
+	/**
+	 * Gives back the first date the client shows, including the days of other months if they are shown.
+	 * By default it is the first day of the {@link #year}, or the Monday of its week.
+	 *
+	 * @return the first visible {@link LocalDate}
+	 */
+	protected LocalDate getFirstVisibleDate() {
+		LocalDate first = LocalDate.of(this.year, 1, 1);
+		return this.showOtherMonthDays ? first.minusDays(first.getDayOfWeek().getValue() - 1L) : first;
+	}
+
+	/**
+	 * Gives back the last date the client shows, including the days of other months if they are shown.
+	 * By default it is the last day of the {@link #year}, or the Sunday of its week.
+	 *
+	 * @return the last visible {@link LocalDate}
+	 */
+	protected LocalDate getLastVisibleDate() {
+		LocalDate last = LocalDate.of(this.year, 12, 31);
+		return this.showOtherMonthDays ? last.plusDays(7L - last.getDayOfWeek().getValue()) : last;
+	}
+
+	/**
+	 * Forget what the client has and send all the decorations again in the next client response.
+	 * Call it when the client component is re-rendered.
+	 */
+	protected void resendDecorations() {
+		decorations.resetClient();
+		scheduleFlush();
+	}
+
+	/**
+	 * Schedule the sending of the changed attributes and decorations for the next client response, ie: after the visible
+	 * period has been changed. It is scheduled only once per round trip.
+	 */
+	protected void scheduleFlush() {
+		if ( !flushScheduled ) {
+			flushScheduled = true;
+			getElement().getNode().runWhenAttached(ui -> ui.beforeClientResponse(this, context -> flush()));
+		}
+	}
+
+	private void flush() {
+		flushScheduled = false;
+		flushAttributes();
+		updateDataProviderCapacity();
+		if ( !flushDecorations() && clientNavigation ) {
+			prefetchAdjacentPeriods();
+		}
+		if ( isMeasured() ) {
+			metrics.report(this, metricsListener);
+		}
+	}
+
+	/**
+	 * Makes the data provider cache keep at least the visible months and, with the client side navigation, the months
+	 * of the prefetched adjacent periods, so they don't evict each other in one round trip
+	 */
+	private void updateDataProviderCapacity() {
+		DataProviderCache cache = decorations.getDataProvider();
+		if ( cache != null ) {
+			int visibleMonths = (int) ChronoUnit.MONTHS.between(YearMonth.from(getFirstVisibleDate()), YearMonth.from(getLastVisibleDate())) + 1;
+			// an adjacent period spans a step and the other month days on both sides
+			cache.setMinMonths(visibleMonths + (clientNavigation ? 2 * (getNavigationStep() + 2) : 0));
+		}
+	}
+
+	/**
+	 * Sends the changed attributes to the client. If an attribute which re-renders the days has been changed, the
+	 * decorations are sent again.
+	 */
+	private void flushAttributes() {
+		boolean rerendered = false;
+		for ( Map.Entry<String, String> attribute : pendingAttributes.entrySet() ) {
+			String name = attribute.getKey();
+			String value = attribute.getValue();
+			if ( clientAttributes.containsKey(name) && Objects.equals(clientAttributes.get(name), value) ) {
+				continue;
+			}
+			if ( value != null ) {
+				getElement().setAttribute(name, value);
+			} else {
+				getElement().removeAttribute(name);
+			}
+			clientAttributes.put(name, value);
+			if ( isMeasured() ) {
+				metrics.attributeUpdate();
+			}
+			rerendered |= RERENDERING_ATTRIBUTES.contains(name);
+		}
+		pendingAttributes.clear();
+		if ( rerendered ) {
+			decorations.resetClient();
+			if ( group != null ) {
+				group.resendDecorations();
+			}
+		}
+	}
+
+	/**
+	 * Sends the difference between the decoration model and the client to the client. If it is more than the maximum
+	 * number of dates per message, the rest is sent in the next round trips.
+	 *
+	 * @return <code>true</code> if decorations have been sent
+	 */
+	private boolean flushDecorations() {
+		long start = isMeasured() ? System.nanoTime() : 0;
+		JsonArray operations = decorations.sync(getFirstVisibleDate(), getLastVisibleDate());
+		if ( isMeasured() ) {
+			metrics.conversion(System.nanoTime() - start);
+		}
+		if ( operations.length() > 0 ) {
+			if ( isMeasured() ) {
+				metrics.jsCall();
+				metrics.payload(operations.toJson().length(), decorations.getSyncedDates());
+			}
+			PendingJavaScriptResult result = sendDecorations(operations);
+			if ( decorations.hasPendingChanges() || clientNavigation ) {
+				// the rest, or the prefetch of the adjacent periods, is sent when the client has received this chunk
+				result.then(value -> scheduleFlush(), error -> scheduleFlush());
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Applies the decoration operations on the client with one JS call and one <code>setTimeout</code>. The epoch days
+	 * are decoded on the client and every class is applied with one <code>addClassToCellByDates</code> call of the
+	 * component. The client remembers the classes it has received, so a "clear" operation removes all of them.
+	 * Override it if the day cells are not in the element itself, ie: in child calendars.
+	 *
+	 * @param operations {@link JsonArray} the operations, see {@link DecorationBatch} for the types
+	 * @return the {@link PendingJavaScriptResult} of the JS call
+	 */
+	protected PendingJavaScriptResult sendDecorations(JsonArray operations) {
+		return getElement().executeJs(CONNECTOR + ".decorate(this, $0)", operations);
+	}
+
+	/**
+	 * The decorations of a period which have been sent to the client cache
+	 *
+	 * @param version     the version of the cache entry
+	 * @param decorations the dates by CSS class names
+	 */
+	private record Prefetch(int version, Map<String, DateSet> decorations) implements Serializable {
 	}
 }
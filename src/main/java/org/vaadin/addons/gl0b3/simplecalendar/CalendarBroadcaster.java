@@ -0,0 +1,240 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.server.VaadinContext;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.shared.Registration;
+
+/**
+ * Fans out decoration changes to all the registered calendars, from any thread. The changes are coalesced per UI:
+ * the first change opens a window (100 ms by default), and everything which is published within the window is applied
+ * in one {@link UI#access(com.vaadin.flow.server.Command)}, which means one push per UI instead of one per change.
+ * <p>
+ * The broadcasters are application wide and identified by a channel name, so the registrations hold only the name and
+ * the sessions can be serialized. They are kept in the {@link VaadinContext} of the application together with the thread
+ * which delivers the changes; the thread is stopped when the {@link VaadinService} is destroyed, ie: on redeploy.
+ * <p>
+ * Usage: <code>CalendarBroadcaster bookings = CalendarBroadcaster.getInstance("bookings");</code> in a request thread,
+ * <code>bookings.register(calendar);</code> and from a backend thread
+ * <code>bookings.publish(batch -&gt; batch.addClassToCellByLocalDates(days, "booked"));</code>
+ * Without a current request use {@link #getInstance(VaadinService, String)}.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public final class CalendarBroadcaster {
+
+	/**
+	 * the subscribed calendars and their pending changes by UIs
+	 */
+	private final Map<UI, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+	/**
+	 * the channels of the application
+	 */
+	private final Channels channels;
+
+	/**
+	 * the name of the channel
+	 */
+	private final String channel;
+
+	/**
+	 * the coalescing window in milliseconds
+	 */
+	private volatile long windowMillis = 100;
+
+	private CalendarBroadcaster(Channels channels, String channel) {
+		this.channels = channels;
+		this.channel = channel;
+	}
+
+	/**
+	 * Gives back the broadcaster of the given channel in the application of the current request, it is created on the first call
+	 *
+	 * @param channel {@link String} the name of the channel, ie: "bookings"
+	 * @return the {@link CalendarBroadcaster}
+	 * @throws IllegalStateException if there is no current {@link VaadinService}, ie: in a backend thread
+	 */
+	public static CalendarBroadcaster getInstance(String channel) {
+		VaadinService service = VaadinService.getCurrent();
+		if ( service == null ) {
+			throw new IllegalStateException("There is no current VaadinService, use getInstance(VaadinService, String) outside of a request");
+		}
+		return getInstance(service, channel);
+	}
+
+	/**
+	 * Gives back the broadcaster of the given channel in the application of the given service, it is created on the first call
+	 *
+	 * @param service {@link VaadinService} the service of the application
+	 * @param channel {@link String} the name of the channel, ie: "bookings"
+	 * @return the {@link CalendarBroadcaster}
+	 */
+	public static CalendarBroadcaster getInstance(VaadinService service, String channel) {
+		Channels channels = Channels.of(service);
+		return channels.broadcasters.computeIfAbsent(channel, name -> new CalendarBroadcaster(channels, name));
+	}
+
+	/**
+	 * Set the coalescing window. The changes which are published within the window are sent to a UI together.
+	 *
+	 * @param window {@link Duration} the window, default is 100 ms
+	 * @return this {@link CalendarBroadcaster}
+	 */
+	public CalendarBroadcaster setCoalescingWindow(Duration window) {
+		this.windowMillis = window.toMillis();
+		return this;
+	}
+
+	/**
+	 * Register the calendar to receive the published changes while it is attached
+	 *
+	 * @param calendar {@link AbstractSimpleCalendar} the calendar
+	 * @return the {@link Registration} to unregister the calendar
+	 */
+	public Registration register(AbstractSimpleCalendar calendar) {
+		String name = channel;
+		calendar.getUI().ifPresent(ui -> subscribe(ui, calendar));
+		Registration attach = calendar.addAttachListener(event -> getInstance(event.getUI(), name).subscribe(event.getUI(), calendar));
+		Registration detach = calendar.addDetachListener(event -> getInstance(event.getUI(), name).unsubscribe(event.getUI(), calendar));
+		return () -> {
+			attach.remove();
+			detach.remove();
+			calendar.getUI().ifPresent(ui -> getInstance(ui, name).unsubscribe(ui, calendar));
+		};
+	}
+
+	private static CalendarBroadcaster getInstance(UI ui, String channel) {
+		return getInstance(ui.getSession().getService(), channel);
+	}
+
+	/**
+	 * Publish a decoration change to all the registered calendars. It can be called from any thread.
+	 *
+	 * @param change {@link Consumer<DecorationBatch>} the change, it is applied to the batch of every calendar
+	 */
+	public void publish(Consumer<DecorationBatch> change) {
+		for ( Map.Entry<UI, Subscription> entry : subscriptions.entrySet() ) {
+			Subscription subscription = entry.getValue();
+			synchronized ( subscription ) {
+				subscription.pending.add(change);
+				if ( subscription.scheduled ) {
+					continue;
+				}
+				subscription.scheduled = true;
+			}
+			channels.schedule(() -> deliver(entry.getKey(), subscription), windowMillis);
+		}
+	}
+
+	private void subscribe(UI ui, AbstractSimpleCalendar calendar) {
+		subscriptions.compute(ui, (key, subscription) -> {
+			Subscription current = subscription != null ? subscription : new Subscription();
+			synchronized ( current ) {
+				current.calendars.add(calendar);
+			}
+			return current;
+		});
+	}
+
+	private void unsubscribe(UI ui, AbstractSimpleCalendar calendar) {
+		subscriptions.computeIfPresent(ui, (key, subscription) -> {
+			synchronized ( subscription ) {
+				subscription.calendars.remove(calendar);
+				return subscription.calendars.isEmpty() ? null : subscription;
+			}
+		});
+	}
+
+	private void deliver(UI ui, Subscription subscription) {
+		List<Consumer<DecorationBatch>> changes;
+		List<AbstractSimpleCalendar> calendars;
+		synchronized ( subscription ) {
+			changes = new ArrayList<>(subscription.pending);
+			calendars = new ArrayList<>(subscription.calendars);
+			subscription.pending.clear();
+			subscription.scheduled = false;
+		}
+		try {
+			ui.access(() -> calendars.forEach(calendar -> calendar.decorate(batch -> changes.forEach(change -> change.accept(batch)))));
+		} catch ( UIDetachedException e ) {
+			subscriptions.remove(ui, subscription);
+		}
+	}
+
+	/**
+	 * The broadcasters of an application and the thread which delivers their changes, kept in the {@link VaadinContext}
+	 */
+	private static final class Channels {
+
+		private final Map<String, CalendarBroadcaster> broadcasters = new ConcurrentHashMap<>();
+
+		private ScheduledExecutorService scheduler;
+
+		private boolean destroyed = false;
+
+		private static Channels of(VaadinService service) {
+			VaadinContext context = service.getContext();
+			return context.getAttribute(Channels.class, () -> {
+				Channels channels = new Channels();
+				service.addServiceDestroyListener(event -> {
+					context.removeAttribute(Channels.class);
+					channels.destroy();
+				});
+				return channels;
+			});
+		}
+
+		private synchronized void schedule(Runnable task, long delayMillis) {
+			if ( destroyed ) {
+				return;
+			}
+			if ( scheduler == null ) {
+				scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+					Thread thread = new Thread(runnable, "simple-calendar-broadcaster");
+					thread.setDaemon(true);
+					return thread;
+				});
+			}
+			try {
+				scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+			} catch ( RejectedExecutionException e ) {
+				// the executor is being shut down
+			}
+		}
+
+		private synchronized void destroy() {
+			destroyed = true;
+			broadcasters.clear();
+			if ( scheduler != null ) {
+				scheduler.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * The calendars of a UI and the changes which are waiting for the end of the coalescing window
+	 */
+	private static final class Subscription {
+
+		private final Set<AbstractSimpleCalendar> calendars = new LinkedHashSet<>();
+
+		private final List<Consumer<DecorationBatch>> pending = new ArrayList<>();
+
+		private boolean scheduled = false;
+	}
+}
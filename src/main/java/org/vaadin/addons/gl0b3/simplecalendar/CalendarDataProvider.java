@@ -0,0 +1,43 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+/**
+ * Lazy source of cell decorations, modeled on Vaadin's <code>DataProvider</code>. The calendar queries it only with the
+ * visible period, whole months at a time, and caches the results per month.
+ * <p>
+ * Usage: <code>calendar.setDataProvider(query -&gt; bookingService.findBookedDays(query.from(), query.to()).map(day -&gt; new CalendarDataProvider.DayDecoration(day, "booked")));</code>
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+@FunctionalInterface
+public interface CalendarDataProvider extends Serializable {
+
+	/**
+	 * Gives back the decorations of the queried period
+	 *
+	 * @param query {@link CalendarQuery} the queried period
+	 * @return {@link Stream<DayDecoration>} the decorations, dates outside the period are ignored
+	 */
+	Stream<DayDecoration> fetch(CalendarQuery query);
+
+	/**
+	 * A queried period
+	 *
+	 * @param from {@link LocalDate} the first date of the period, always the first day of a month
+	 * @param to   {@link LocalDate} the last date of the period (inclusive), always the last day of a month
+	 */
+	record CalendarQuery(LocalDate from, LocalDate to) implements Serializable {
+	}
+
+	/**
+	 * A CSS style class of a day
+	 *
+	 * @param date      {@link LocalDate} the day
+	 * @param className {@link String} the CSS style class of the day's TD cell
+	 */
+	record DayDecoration(LocalDate date, String className) implements Serializable {
+	}
+}
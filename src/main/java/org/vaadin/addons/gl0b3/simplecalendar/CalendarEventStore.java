@@ -0,0 +1,667 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import com.vaadin.flow.server.VaadinContext;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.Registration;
+
+/**
+ * Events with start and end dates in an interval tree, which gives back the events, the busy days, the number of the
+ * overlapping events per day and the conflicting days of a period in O(log n + k) time, where k is the number of the
+ * events in the period. Adding, moving and removing an event takes O(log n) time.
+ * <p>
+ * The derived days can be used as lazily evaluated decorations, they are computed only for the visible period:
+ * <pre>
+ * store.put(booking.getId(), booking.getArrival(), booking.getDeparture());
+ * calendar.addClassByRule(store.busyRule(), "busy");
+ * calendar.addClassByRule(store.conflictRule(), "conflict");
+ * store.bind(calendar);
+ * </pre>
+ * The store is thread safe.
+ * <p>
+ * The rules and the bindings of a calendar reference the store by its name, so a store which is shared by the sessions
+ * is not serialized with them; after deserialization they find the store of the same name in the application. The named
+ * stores are kept in the {@link VaadinContext} of the application, so two applications of the JVM can use the same name,
+ * and they are dropped when the {@link VaadinService} is destroyed. Give the shared stores a name, ie:
+ * <code>new CalendarEventStore&lt;&gt;("bookings")</code> in a request thread, so the sessions find them on another node too.
+ *
+ * @param <K> the type of the event keys
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public class CalendarEventStore<K> implements Serializable {
+
+	/**
+	 * the name of the store
+	 */
+	private final String name;
+
+	/**
+	 * the root of the interval tree, ordered by the start day and the insertion order
+	 */
+	private Node<K> root;
+
+	/**
+	 * the tree nodes by event keys
+	 */
+	private final Map<K, Node<K>> nodes = new HashMap<>();
+
+	/**
+	 * the insertion counter, it makes the tree keys unique
+	 */
+	private long sequence = 0;
+
+	/**
+	 * the listeners of the changes, they are not serialized with the store
+	 */
+	private transient List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Create a store with a generated name in the application of the current request, which can be found only in this
+	 * JVM after deserialization
+	 */
+	public CalendarEventStore() {
+		this(UUID.randomUUID().toString());
+	}
+
+	/**
+	 * Create a store with the given name in the application of the current request. A later store with the same name
+	 * replaces this one for the deserialized rules and bindings. Without a current {@link VaadinService}, ie: in a
+	 * backend thread, the store is not registered, use {@link #CalendarEventStore(VaadinService, String)} there.
+	 *
+	 * @param name {@link String} the name of the store, ie: "bookings"
+	 */
+	public CalendarEventStore(String name) {
+		this(VaadinService.getCurrent(), name);
+	}
+
+	/**
+	 * Create a store with the given name in the application of the given service. A later store with the same name
+	 * replaces this one for the deserialized rules and bindings.
+	 *
+	 * @param service {@link VaadinService} the service of the application, <code>null</code> to not register the store
+	 * @param name    {@link String} the name of the store, ie: "bookings"
+	 */
+	public CalendarEventStore(VaadinService service, String name) {
+		this.name = name;
+		if ( service != null ) {
+			Stores.of(service).register(this);
+		}
+	}
+
+	/**
+	 * Gives back the name of the store
+	 *
+	 * @return {@link String} the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Add an event, or move it if the key is already in the store
+	 *
+	 * @param key   {@link K} the key of the event
+	 * @param start {@link LocalDate} the first day of the event
+	 * @param end   {@link LocalDate} the last day of the event, inclusive
+	 */
+	public void put(K key, LocalDate start, LocalDate end) {
+		if ( end.isBefore(start) ) {
+			throw new IllegalArgumentException("The end of the event is before its start: " + start + " - " + end);
+		}
+		LocalDate changedFrom = start;
+		LocalDate changedTo = end;
+		synchronized ( this ) {
+			Node<K> previous = nodes.remove(key);
+			if ( previous != null ) {
+				root = delete(root, previous.start, previous.sequence);
+				changedFrom = min(changedFrom, LocalDate.ofEpochDay(previous.start));
+				changedTo = max(changedTo, LocalDate.ofEpochDay(previous.end));
+			}
+			Node<K> node = new Node<>(key, (int) start.toEpochDay(), (int) end.toEpochDay(), sequence++);
+			nodes.put(key, node);
+			root = insert(root, node);
+		}
+		fireChange(changedFrom, changedTo);
+	}
+
+	/**
+	 * Remove an event
+	 *
+	 * @param key {@link K} the key of the event
+	 * @return {@link boolean} <code>true</code> if the event was in the store
+	 */
+	public boolean remove(K key) {
+		Node<K> previous;
+		synchronized ( this ) {
+			previous = nodes.remove(key);
+			if ( previous == null ) {
+				return false;
+			}
+			root = delete(root, previous.start, previous.sequence);
+		}
+		fireChange(LocalDate.ofEpochDay(previous.start), LocalDate.ofEpochDay(previous.end));
+		return true;
+	}
+
+	/**
+	 * Remove all the events
+	 */
+	public void clear() {
+		LocalDate changedFrom;
+		LocalDate changedTo;
+		synchronized ( this ) {
+			if ( root == null ) {
+				return;
+			}
+			Node<K> first = root;
+			while ( first.left != null ) {
+				first = first.left;
+			}
+			changedFrom = LocalDate.ofEpochDay(first.start);
+			changedTo = LocalDate.ofEpochDay(root.maxEnd);
+			root = null;
+			nodes.clear();
+		}
+		fireChange(changedFrom, changedTo);
+	}
+
+	/**
+	 * Gives back the number of the events
+	 *
+	 * @return {@link int} the number of the events
+	 */
+	public synchronized int size() {
+		return nodes.size();
+	}
+
+	/**
+	 * Gives back the keys of the events which have at least one day in the given period, ordered by their start
+	 *
+	 * @param from {@link LocalDate} the first day of the period
+	 * @param to   {@link LocalDate} the last day of the period, inclusive
+	 * @return {@link List<K>} the keys of the events
+	 */
+	public synchronized List<K> getEvents(LocalDate from, LocalDate to) {
+		List<K> events = new ArrayList<>();
+		query(root, (int) from.toEpochDay(), (int) to.toEpochDay(), node -> events.add(node.key));
+		return events;
+	}
+
+	/**
+	 * Gives back the number of the events on each day of the given period
+	 *
+	 * @param from {@link LocalDate} the first day of the period
+	 * @param to   {@link LocalDate} the last day of the period, inclusive
+	 * @return {@link int[]} the number of the events, the first value belongs to the first day of the period
+	 */
+	public synchronized int[] getOverlapCounts(LocalDate from, LocalDate to) {
+		int first = (int) from.toEpochDay();
+		int last = (int) to.toEpochDay();
+		int[] counts = new int[Math.max(0, last - first + 1)];
+		query(root, first, last, node -> {
+			counts[Math.max(node.start, first) - first]++;
+			int end = Math.min(node.end, last) - first + 1;
+			if ( end < counts.length ) {
+				counts[end]--;
+			}
+		});
+		for ( int i = 1; i < counts.length; i++ ) {
+			counts[i] += counts[i - 1];
+		}
+		return counts;
+	}
+
+	/**
+	 * Gives back the days of the given period which have at least the given number of events
+	 *
+	 * @param from    {@link LocalDate} the first day of the period
+	 * @param to      {@link LocalDate} the last day of the period, inclusive
+	 * @param minimum {@link int} the minimum number of the overlapping events
+	 * @return {@link DateSet} the days
+	 */
+	public DateSet getDaysWithOverlap(LocalDate from, LocalDate to, int minimum) {
+		int[] counts = getOverlapCounts(from, to);
+		DateSet days = new DateSet();
+		long first = from.toEpochDay();
+		for ( int i = 0; i < counts.length; i++ ) {
+			if ( counts[i] >= minimum ) {
+				days.add(first + i);
+			}
+		}
+		return days;
+	}
+
+	/**
+	 * Gives back the days of the given period which have at least one event
+	 *
+	 * @param from {@link LocalDate} the first day of the period
+	 * @param to   {@link LocalDate} the last day of the period, inclusive
+	 * @return {@link DateSet} the busy days
+	 */
+	public DateSet getBusyDays(LocalDate from, LocalDate to) {
+		return getDaysWithOverlap(from, to, 1);
+	}
+
+	/**
+	 * Gives back the days of the given period which have more than one event
+	 *
+	 * @param from {@link LocalDate} the first day of the period
+	 * @param to   {@link LocalDate} the last day of the period, inclusive
+	 * @return {@link DateSet} the conflicting days
+	 */
+	public DateSet getConflictDays(LocalDate from, LocalDate to) {
+		return getDaysWithOverlap(from, to, 2);
+	}
+
+	/**
+	 * Gives back a rule of the days which have at least the given number of events, it is evaluated for the visible period
+	 *
+	 * @param minimum {@link int} the minimum number of the overlapping events
+	 * @return the {@link DecorationRule}
+	 */
+	public DecorationRule overlapRule(int minimum) {
+		return new OverlapRule(new StoreReference(this), minimum);
+	}
+
+	/**
+	 * Gives back a rule of the days which have at least one event
+	 *
+	 * @return the {@link DecorationRule}
+	 */
+	public DecorationRule busyRule() {
+		return overlapRule(1);
+	}
+
+	/**
+	 * Gives back a rule of the days which have more than one event
+	 *
+	 * @return the {@link DecorationRule}
+	 */
+	public DecorationRule conflictRule() {
+		return overlapRule(2);
+	}
+
+	/**
+	 * Add a listener which is notified after the events have been changed. It is called in the thread which changed the store.
+	 *
+	 * @param listener {@link ChangeListener} the listener
+	 * @return the {@link Registration} to remove the listener
+	 */
+	public Registration addChangeListener(ChangeListener listener) {
+		listeners.add(listener);
+		return () -> listeners.remove(listener);
+	}
+
+	/**
+	 * Evaluate the decoration rules of the calendar again whenever a change touches its visible period, while the
+	 * calendar is attached. The calendar is refreshed in its UI's lock, so the store can be changed from any thread.
+	 *
+	 * @param calendar {@link AbstractSimpleCalendar} the calendar which uses the rules of this store
+	 * @return the {@link Registration} to stop the refreshing
+	 */
+	public Registration bind(AbstractSimpleCalendar calendar) {
+		Binding binding = new Binding(new StoreReference(this), calendar);
+		Registration attach = calendar.addAttachListener(event -> {
+			binding.activate();
+			calendar.refreshDecorations();
+		});
+		Registration detach = calendar.addDetachListener(event -> binding.deactivate());
+		if ( calendar.getUI().isPresent() ) {
+			binding.activate();
+		}
+		return () -> {
+			attach.remove();
+			detach.remove();
+			binding.deactivate();
+		};
+	}
+
+	private void fireChange(LocalDate from, LocalDate to) {
+		for ( ChangeListener listener : listeners ) {
+			listener.eventsChanged(from, to);
+		}
+	}
+
+	/**
+	 * Gives back the service of the current request or session, <code>null</code> outside of them
+	 */
+	private static VaadinService currentService() {
+		VaadinService service = VaadinService.getCurrent();
+		if ( service == null && VaadinSession.getCurrent() != null ) {
+			service = VaadinSession.getCurrent().getService();
+		}
+		return service;
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		listeners = new CopyOnWriteArrayList<>();
+	}
+
+	/**
+	 * A deserialized store is replaced by the store of the same name which is alive in the application, so the events
+	 * and the listeners are not split into two copies. If there is none, the deserialized store is registered.
+	 */
+	private Object readResolve() {
+		VaadinService service = currentService();
+		if ( service == null ) {
+			return this;
+		}
+		return Stores.of(service).registerIfAbsent(this);
+	}
+
+	private static LocalDate min(LocalDate first, LocalDate second) {
+		return first.isBefore(second) ? first : second;
+	}
+
+	private static LocalDate max(LocalDate first, LocalDate second) {
+		return first.isAfter(second) ? first : second;
+	}
+
+	/**
+	 * Calls the consumer with the nodes which overlap the given period. The subtrees whose maximum end is before the
+	 * period and the right subtrees of the nodes which start after the period are skipped.
+	 */
+	private static <K> void query(Node<K> node, int from, int to, Consumer<Node<K>> consumer) {
+		while ( node != null && node.maxEnd >= from ) {
+			query(node.left, from, to, consumer);
+			if ( node.start > to ) {
+				return;
+			}
+			if ( node.end >= from ) {
+				consumer.accept(node);
+			}
+			node = node.right;
+		}
+	}
+
+	private static <K> Node<K> insert(Node<K> node, Node<K> inserted) {
+		if ( node == null ) {
+			return inserted;
+		}
+		if ( compare(inserted.start, inserted.sequence, node) < 0 ) {
+			node.left = insert(node.left, inserted);
+		} else {
+			node.right = insert(node.right, inserted);
+		}
+		return balance(node);
+	}
+
+	private static <K> Node<K> delete(Node<K> node, int start, long sequence) {
+		if ( node == null ) {
+			return null;
+		}
+		int comparison = compare(start, sequence, node);
+		if ( comparison < 0 ) {
+			node.left = delete(node.left, start, sequence);
+		} else if ( comparison > 0 ) {
+			node.right = delete(node.right, start, sequence);
+		} else {
+			if ( node.left == null ) {
+				return node.right;
+			}
+			if ( node.right == null ) {
+				return node.left;
+			}
+			Node<K> successor = node.right;
+			while ( successor.left != null ) {
+				successor = successor.left;
+			}
+			successor.right = delete(node.right, successor.start, successor.sequence);
+			successor.left = node.left;
+			return balance(successor);
+		}
+		return balance(node);
+	}
+
+	private static int compare(int start, long sequence, Node<?> node) {
+		int comparison = Integer.compare(start, node.start);
+		return comparison != 0 ? comparison : Long.compare(sequence, node.sequence);
+	}
+
+	private static <K> Node<K> balance(Node<K> node) {
+		node.update();
+		int factor = height(node.left) - height(node.right);
+		if ( factor > 1 ) {
+			if ( height(node.left.left) < height(node.left.right) ) {
+				node.left = rotateLeft(node.left);
+			}
+			return rotateRight(node);
+		}
+		if ( factor < -1 ) {
+			if ( height(node.right.right) < height(node.right.left) ) {
+				node.right = rotateRight(node.right);
+			}
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	private static <K> Node<K> rotateRight(Node<K> node) {
+		Node<K> pivot = node.left;
+		node.left = pivot.right;
+		pivot.right = node;
+		node.update();
+		pivot.update();
+		return pivot;
+	}
+
+	private static <K> Node<K> rotateLeft(Node<K> node) {
+		Node<K> pivot = node.right;
+		node.right = pivot.left;
+		pivot.left = node;
+		node.update();
+		pivot.update();
+		return pivot;
+	}
+
+	private static int height(Node<?> node) {
+		return node != null ? node.height : 0;
+	}
+
+	/**
+	 * Listener of the changes of a {@link CalendarEventStore}
+	 */
+	@FunctionalInterface
+	public interface ChangeListener extends Serializable {
+
+		/**
+		 * Called after events have been added, moved or removed
+		 *
+		 * @param from {@link LocalDate} the first day which may have been changed
+		 * @param to   {@link LocalDate} the last day which may have been changed
+		 */
+		void eventsChanged(LocalDate from, LocalDate to);
+	}
+
+	/**
+	 * A node of the AVL tree, augmented with the maximum end day of its subtree
+	 */
+	private static final class Node<K> implements Serializable {
+
+		private final K key;
+
+		private final int start;
+
+		private final int end;
+
+		private final long sequence;
+
+		private int maxEnd;
+
+		private int height = 1;
+
+		private Node<K> left;
+
+		private Node<K> right;
+
+		private Node(K key, int start, int end, long sequence) {
+			this.key = key;
+			this.start = start;
+			this.end = end;
+			this.sequence = sequence;
+			this.maxEnd = end;
+		}
+
+		private void update() {
+			height = Math.max(height(left), height(right)) + 1;
+			maxEnd = end;
+			if ( left != null && left.maxEnd > maxEnd ) {
+				maxEnd = left.maxEnd;
+			}
+			if ( right != null && right.maxEnd > maxEnd ) {
+				maxEnd = right.maxEnd;
+			}
+		}
+	}
+
+	/**
+	 * The named stores of an application, kept in the {@link VaadinContext}. A store is referenced weakly, it is dropped
+	 * when no session and no application code uses it.
+	 */
+	private static final class Stores {
+
+		private final Map<String, WeakReference<CalendarEventStore<?>>> stores = new ConcurrentHashMap<>();
+
+		private static Stores of(VaadinService service) {
+			VaadinContext context = service.getContext();
+			return context.getAttribute(Stores.class, () -> {
+				Stores stores = new Stores();
+				service.addServiceDestroyListener(event -> {
+					context.removeAttribute(Stores.class);
+					stores.stores.clear();
+				});
+				return stores;
+			});
+		}
+
+		private void register(CalendarEventStore<?> store) {
+			stores.values().removeIf(reference -> reference.get() == null);
+			stores.put(store.name, new WeakReference<>(store));
+		}
+
+		private synchronized CalendarEventStore<?> registerIfAbsent(CalendarEventStore<?> store) {
+			CalendarEventStore<?> existing = find(store.name);
+			if ( existing != null ) {
+				return existing;
+			}
+			register(store);
+			return store;
+		}
+
+		private CalendarEventStore<?> find(String name) {
+			WeakReference<CalendarEventStore<?>> reference = stores.get(name);
+			return reference != null ? reference.get() : null;
+		}
+	}
+
+	/**
+	 * A reference to a store which is serialized as the name of the store, and finds the store of the name in the
+	 * application of the current request after deserialization
+	 */
+	private static final class StoreReference implements Serializable {
+
+		private final String name;
+
+		private transient CalendarEventStore<?> store;
+
+		private StoreReference(CalendarEventStore<?> store) {
+			this.name = store.name;
+			this.store = store;
+		}
+
+		private CalendarEventStore<?> get() {
+			if ( store == null ) {
+				VaadinService service = currentService();
+				store = service != null ? Stores.of(service).find(name) : null;
+			}
+			return store;
+		}
+	}
+
+	/**
+	 * Refreshes a bound calendar on the changes of its visible period. It is registered in the store while the calendar
+	 * is attached, and registers itself again after the session has been deserialized.
+	 */
+	private static final class Binding implements ChangeListener {
+
+		private final StoreReference store;
+
+		private final AbstractSimpleCalendar calendar;
+
+		private volatile boolean active = false;
+
+		private Binding(StoreReference store, AbstractSimpleCalendar calendar) {
+			this.store = store;
+			this.calendar = calendar;
+		}
+
+		private boolean activate() {
+			CalendarEventStore<?> resolved = store.get();
+			if ( resolved != null && !active ) {
+				active = true;
+				resolved.listeners.add(this);
+			}
+			return resolved != null;
+		}
+
+		private void deactivate() {
+			CalendarEventStore<?> resolved = store.get();
+			active = false;
+			if ( resolved != null ) {
+				resolved.listeners.remove(this);
+			}
+		}
+
+		@Override
+		public void eventsChanged(LocalDate from, LocalDate to) {
+			calendar.getUI().ifPresent(ui -> ui.access(() -> {
+				if ( !from.isAfter(calendar.getLastVisibleDate()) && !to.isBefore(calendar.getFirstVisibleDate()) ) {
+					calendar.refreshDecorations();
+				}
+			}));
+		}
+
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+			in.defaultReadObject();
+			if ( active ) {
+				// the store is looked up after the whole session has been read, it may be serialized in the same session;
+				// without a current request the application is not known yet, so it is looked up before the next response
+				active = false;
+				in.registerValidation(() -> {
+					if ( !activate() ) {
+						calendar.getUI().ifPresent(ui -> ui.beforeClientResponse(calendar, context -> activate()));
+					}
+				}, 0);
+			}
+		}
+	}
+
+	/**
+	 * The days which have at least the given number of events, a store which is not found after deserialization gives no days
+	 */
+	private record OverlapRule(StoreReference store, int minimum) implements DecorationRule {
+
+		@Override
+		public void collectDates(LocalDate from, LocalDate to, DateSet dates) {
+			CalendarEventStore<?> resolved = store.get();
+			if ( resolved != null ) {
+				dates.addAll(resolved.getDaysWithOverlap(from, to, minimum));
+			}
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import org.jsoup.nodes.Document;
+
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.function.SerializableSupplier;
+import com.vaadin.flow.server.communication.IndexHtmlRequestListener;
+import com.vaadin.flow.server.communication.IndexHtmlResponse;
+
+/**
+ * Writes the server side rendered month grids of a calendar into the initial HTML page of a route, so the browser paints
+ * them before any JS has been loaded. The placeholder is a calendar element with the tag and attributes of the calendar
+ * and the grids as its children, put into the element the views are rendered into (the "outlet" of the index.html by
+ * default), where the calendar of the view appears. It is removed when the calendar of the view, with
+ * {@link AbstractSimpleCalendar#setServerSideRendering(boolean)} enabled, is in the page with its own grids.
+ * <p>
+ * Register it in a <code>VaadinServiceInitListener</code>:
+ * <code>event.addIndexHtmlRequestListener(new CalendarFirstPaint("bookings", () -&gt; new YearCalendar(2024, "en", true)));</code>
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public class CalendarFirstPaint implements IndexHtmlRequestListener {
+
+	/**
+	 * the id of the placeholder element in the initial page
+	 */
+	static final String PLACEHOLDER_ID = "simple-calendar-first-paint";
+
+	/**
+	 * the route of the page without the leading and trailing slashes
+	 */
+	private final String route;
+
+	/**
+	 * the id of the element in the initial page which the views are rendered into
+	 */
+	static final String OUTLET_ID = "outlet";
+
+	/**
+	 * creates the calendar which is rendered, like the calendar of the view
+	 */
+	private final SerializableSupplier<? extends AbstractSimpleCalendar> calendarSupplier;
+
+	/**
+	 * the id of the element which the placeholder is put into
+	 */
+	private final String containerId;
+
+	/**
+	 * Creates the listener which puts the placeholder into the "outlet" element of the initial page
+	 *
+	 * @param route            {@link String} the route of the page, ie: "bookings", or "" for the root
+	 * @param calendarSupplier {@link SerializableSupplier} creates the calendar which is rendered, with the period, locale and
+	 *                         decorations of the calendar of the view; it is called for every initial page request
+	 */
+	public CalendarFirstPaint(String route, SerializableSupplier<? extends AbstractSimpleCalendar> calendarSupplier) {
+		this(route, calendarSupplier, OUTLET_ID);
+	}
+
+	/**
+	 * Creates the listener
+	 *
+	 * @param route            {@link String} the route of the page, ie: "bookings", or "" for the root
+	 * @param calendarSupplier {@link SerializableSupplier} creates the calendar which is rendered, with the period, locale and
+	 *                         decorations of the calendar of the view; it is called for every initial page request
+	 * @param containerId      {@link String} the id of the element of the initial page which the placeholder is put into;
+	 *                         the placeholder is appended to the body if there is no such element
+	 */
+	public CalendarFirstPaint(String route, SerializableSupplier<? extends AbstractSimpleCalendar> calendarSupplier, String containerId) {
+		this.route = trimSlashes(route);
+		this.calendarSupplier = calendarSupplier;
+		this.containerId = containerId;
+	}
+
+	@Override
+	public void modifyIndexHtmlResponse(IndexHtmlResponse indexHtmlResponse) {
+		String pathInfo = indexHtmlResponse.getVaadinRequest().getPathInfo();
+		if ( !route.equals(trimSlashes(pathInfo != null ? pathInfo : "")) ) {
+			return;
+		}
+		Element host = calendarSupplier.get().renderServerSideHost();
+		if ( host == null ) {
+			return;
+		}
+		host.setAttribute("id", PLACEHOLDER_ID);
+		Document document = indexHtmlResponse.getDocument();
+		org.jsoup.nodes.Element container = document.getElementById(containerId);
+		(container != null ? container : document.body()).append(host.getOuterHTML());
+	}
+
+	private static String trimSlashes(String path) {
+		int from = 0;
+		int to = path.length();
+		while ( from < to && path.charAt(from) == '/' ) {
+			from++;
+		}
+		while ( to > from && path.charAt(to - 1) == '/' ) {
+			to--;
+		}
+		return path.substring(from, to);
+	}
+}
@@ -0,0 +1,325 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.page.PendingJavaScriptResult;
+import com.vaadin.flow.shared.Registration;
+
+import elemental.json.JsonArray;
+
+/**
+ * A group of calendars of the same UI which share decorations and can navigate together. The shared decorations are
+ * applied to the {@link YearCalendar} and {@link MonthCalendar} members.
+ * <p>
+ * The shared decorations are kept in one model for the whole group and sent with one JS call per round trip, which
+ * applies the same payload to all the members, instead of serializing the same dates for every calendar.
+ * Use class names for the shared decorations which are not used by the own decorations of the members.
+ * The payload of the group is counted in the metrics of its first attached member, see
+ * {@link AbstractSimpleCalendar#setMetricsListener(CalendarMetricsListener)}.
+ * <p>
+ * With linked navigation, moving the period of one member, ie: by {@link MonthCalendar#refreshMonth(int)}, moves the
+ * other members in the same round trip: a {@link MonthCalendar} by the same number of months, a {@link YearCalendar} to
+ * the year the moved period starts in.
+ * <pre>
+ * CalendarGroup group = new CalendarGroup(january, february, march).setLinkedNavigation(true);
+ * group.addClassToCellByLocalDates(holidays, "holiday");
+ * </pre>
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public class CalendarGroup implements Serializable {
+
+	/**
+	 * the members and the registrations of their period change listeners
+	 */
+	private final Map<AbstractSimpleCalendar, Registration> members = new LinkedHashMap<>();
+
+	/**
+	 * the model of the shared decorations
+	 */
+	private final DecorationModel decorations = new DecorationModel();
+
+	/**
+	 * the time zone in which {@link java.util.Date} values are converted to days
+	 */
+	private ZoneId zoneId = ZoneId.systemDefault();
+
+	/**
+	 * <code>true</code> if moving a member moves the others
+	 */
+	private boolean linkedNavigation = false;
+
+	/**
+	 * <code>true</code> while the group moves its members
+	 */
+	private boolean navigating = false;
+
+	/**
+	 * <code>true</code> if the flush of the shared decorations is already scheduled for the next client response
+	 */
+	private boolean flushScheduled = false;
+
+	/**
+	 * Creates a group with the given members
+	 *
+	 * @param members {@link AbstractSimpleCalendar} the members
+	 */
+	public CalendarGroup(AbstractSimpleCalendar... members) {
+		for ( AbstractSimpleCalendar member : members ) {
+			add(member);
+		}
+	}
+
+	/**
+	 * Add a member to the group. A calendar can be a member of only one group.
+	 *
+	 * @param member {@link AbstractSimpleCalendar} the calendar
+	 * @return this {@link CalendarGroup}
+	 */
+	public CalendarGroup add(AbstractSimpleCalendar member) {
+		if ( member.group != null && member.group != this ) {
+			throw new IllegalStateException("The calendar is already a member of another group");
+		}
+		if ( !members.containsKey(member) ) {
+			member.group = this;
+			members.put(member, member.addPeriodChangeListener(event -> onPeriodChange(event.getSource(), event.getOldPeriodStart(), event.getPeriodStart())));
+			resendDecorations();
+		}
+		return this;
+	}
+
+	/**
+	 * Remove a member from the group. The shared decorations stay on its cells until it is re-rendered.
+	 *
+	 * @param member {@link AbstractSimpleCalendar} the calendar
+	 * @return this {@link CalendarGroup}
+	 */
+	public CalendarGroup remove(AbstractSimpleCalendar member) {
+		Registration registration = members.remove(member);
+		if ( registration != null ) {
+			registration.remove();
+			member.group = null;
+			scheduleFlush();
+		}
+		return this;
+	}
+
+	/**
+	 * Gives back the members of the group
+	 *
+	 * @return {@link List<AbstractSimpleCalendar>} the members in the order they have been added
+	 */
+	public List<AbstractSimpleCalendar> getMembers() {
+		return List.copyOf(members.keySet());
+	}
+
+	/**
+	 * Gives back the model of the shared decorations, ie: to measure the decoration state of a session
+	 *
+	 * @return the {@link DecorationModel}
+	 */
+	DecorationModel getDecorationModel() {
+		return decorations;
+	}
+
+	/**
+	 * If <code>true</code>, moving the period of a member moves the other members, see
+	 * {@link AbstractSimpleCalendar#followPeriodChange(YearMonth, YearMonth)}
+	 *
+	 * @param linkedNavigation {@link boolean} link the navigation of the members, default is <code>false</code>
+	 * @return this {@link CalendarGroup}
+	 */
+	public CalendarGroup setLinkedNavigation(boolean linkedNavigation) {
+		this.linkedNavigation = linkedNavigation;
+		return this;
+	}
+
+	/**
+	 * Move all the members by the given number of months, in one round trip. The months are counted on the member with
+	 * the shortest navigation step, ie: a {@link MonthCalendar}, and the other members follow it like in the linked
+	 * navigation, so a {@link YearCalendar} moves when the month crosses a year.
+	 *
+	 * @param months {@link int} the number of months, negative to move backwards
+	 */
+	public void shiftMonths(int months) {
+		AbstractSimpleCalendar lead = null;
+		for ( AbstractSimpleCalendar member : members.keySet() ) {
+			if ( lead == null || navigationStep(member) < navigationStep(lead) ) {
+				lead = member;
+			}
+		}
+		if ( lead == null ) {
+			return;
+		}
+		YearMonth oldPeriodStart = lead.getPeriodStart();
+		navigating = true;
+		try {
+			lead.shiftMonths(months);
+		} finally {
+			navigating = false;
+		}
+		navigate(lead, oldPeriodStart, lead.getPeriodStart());
+	}
+
+	/**
+	 * Set the time zone in which the {@link java.util.Date} values of the shared decorations are converted to days
+	 *
+	 * @param zoneId {@link ZoneId} the time zone, default is the system default zone
+	 */
+	public void setZoneId(ZoneId zoneId) {
+		this.zoneId = zoneId;
+	}
+
+	/**
+	 * Changes the shared decorations through a {@link DecorationBatch}, see {@link AbstractSimpleCalendar#decorate(Consumer)}
+	 *
+	 * @param operations {@link Consumer<DecorationBatch>} which records the operations into the given batch
+	 */
+	public void decorate(Consumer<DecorationBatch> operations) {
+		operations.accept(new DecorationBatch(decorations, zoneId));
+		scheduleFlush();
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells of all the members
+	 *
+	 * @param dates     {@link List<LocalDate>} which cells have to me modified
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 */
+	public void addClassToCellByLocalDates(List<LocalDate> dates, String className) {
+		decorate(batch -> batch.addClassToCellByLocalDates(dates, className));
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells of all the members which match the given rule
+	 *
+	 * @param rule      {@link DecorationRule} the rule of the decorated dates
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 */
+	public void addClassByRule(DecorationRule rule, String className) {
+		decorate(batch -> batch.addClassByRule(rule, className));
+	}
+
+	/**
+	 * Remove the given className style class from all the days TD cells of all the members
+	 *
+	 * @param className {@link String} the CSS style class which have to be removed
+	 */
+	public void removeClass(String className) {
+		decorate(batch -> batch.removeClass(className));
+	}
+
+	/**
+	 * Forget what the members have and send all the shared decorations again, ie: because a member has been re-rendered
+	 */
+	void resendDecorations() {
+		decorations.resetClient();
+		scheduleFlush();
+	}
+
+	private static int navigationStep(AbstractSimpleCalendar member) {
+		int step = member.getNavigationStep();
+		return step > 0 ? step : Integer.MAX_VALUE;
+	}
+
+	private void onPeriodChange(AbstractSimpleCalendar source, YearMonth oldPeriodStart, YearMonth periodStart) {
+		if ( linkedNavigation && !navigating ) {
+			navigate(source, oldPeriodStart, periodStart);
+		}
+	}
+
+	/**
+	 * Moves the members other than the source after the period of the source has been moved, see
+	 * {@link AbstractSimpleCalendar#followPeriodChange(YearMonth, YearMonth)}
+	 */
+	private void navigate(AbstractSimpleCalendar source, YearMonth oldPeriodStart, YearMonth periodStart) {
+		if ( oldPeriodStart.equals(periodStart) ) {
+			return;
+		}
+		navigating = true;
+		try {
+			for ( AbstractSimpleCalendar member : members.keySet() ) {
+				if ( member != source ) {
+					member.followPeriodChange(oldPeriodStart, periodStart);
+				}
+			}
+		} finally {
+			navigating = false;
+		}
+	}
+
+	private void scheduleFlush() {
+		if ( flushScheduled ) {
+			return;
+		}
+		attachedMembers().stream().findFirst().flatMap(AbstractSimpleCalendar::getUI).ifPresent(ui -> {
+			flushScheduled = true;
+			ui.beforeClientResponse(ui, context -> flush(ui));
+		});
+	}
+
+	/**
+	 * Sends the difference between the shared model and the members with one JS call. The visible period of the group is
+	 * the union of the visible periods of the attached members.
+	 */
+	private void flush(UI ui) {
+		flushScheduled = false;
+		List<AbstractSimpleCalendar> attached = attachedMembers();
+		if ( attached.isEmpty() ) {
+			return;
+		}
+		LocalDate from = null;
+		LocalDate to = null;
+		for ( AbstractSimpleCalendar member : attached ) {
+			LocalDate first = member.getFirstVisibleDate();
+			LocalDate last = member.getLastVisibleDate();
+			from = from == null || first.isBefore(from) ? first : from;
+			to = to == null || last.isAfter(to) ? last : to;
+		}
+		// the payload is counted in the metrics of the first attached member, which carries it for the group
+		AbstractSimpleCalendar carrier = attached.get(0);
+		long start = carrier.isMeasured() ? System.nanoTime() : 0;
+		JsonArray operations = decorations.sync(from, to);
+		if ( operations.length() == 0 ) {
+			return;
+		}
+		if ( carrier.isMeasured() ) {
+			carrier.recordGroupPayload(operations.toJson().length(), decorations.getSyncedDates(), System.nanoTime() - start);
+		}
+		Serializable[] parameters = new Serializable[attached.size() + 1];
+		StringBuilder elements = new StringBuilder();
+		parameters[0] = operations;
+		for ( int i = 0; i < attached.size(); i++ ) {
+			parameters[i + 1] = attached.get(i).getElement();
+			elements.append(i > 0 ? ", $" : "$").append(i + 1);
+		}
+		PendingJavaScriptResult result = ui.getPage().executeJs(AbstractSimpleCalendar.CONNECTOR + ".decorateGroup($0, [" + elements + "])", parameters);
+		if ( decorations.hasPendingChanges() ) {
+			// the rest is sent when the client has received this chunk
+			result.then(value -> scheduleFlush(), error -> scheduleFlush());
+		}
+	}
+
+	private List<AbstractSimpleCalendar> attachedMembers() {
+		List<AbstractSimpleCalendar> attached = new ArrayList<>();
+		Optional<UI> groupUi = Optional.empty();
+		for ( AbstractSimpleCalendar member : members.keySet() ) {
+			Optional<UI> ui = member.getUI();
+			if ( ui.isPresent() && (groupUi.isEmpty() || groupUi.get() == ui.get()) ) {
+				groupUi = ui;
+				attached.add(member);
+			}
+		}
+		return attached;
+	}
+}
@@ -0,0 +1,24 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Computes the calendar metadata (public holidays, business days, etc.) of a year and region for the
+ * {@link CalendarMetadataRegistry}. It is called only once per year and region.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+@FunctionalInterface
+public interface CalendarMetadataLoader {
+
+	/**
+	 * Gives back the dates of the categories of the given year and region
+	 *
+	 * @param year   {@link int} the year
+	 * @param region {@link String} the region, ie: a country code or a locale
+	 * @return the dates by category names, ie: "holiday"
+	 */
+	Map<String, ? extends Collection<LocalDate>> load(int year, String region);
+}
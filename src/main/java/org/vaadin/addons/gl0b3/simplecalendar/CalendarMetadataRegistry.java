@@ -0,0 +1,225 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.server.VaadinContext;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * Application wide registry of calendar metadata, like public holidays or business days. The metadata of a year and
+ * region is computed once by the registered {@link CalendarMetadataLoader} and kept as immutable {@link DateSet}s, which
+ * are shared by all the calendars of all the sessions.
+ * <p>
+ * The registry is kept in the {@link VaadinContext} of the application, so the applications of a JVM have their own
+ * loaders and metadata, and it is dropped when the {@link VaadinService} is destroyed, ie: on redeploy.
+ * The calendars reference the shared sets through small rules:
+ * <code>calendar.addClassByRule(CalendarMetadataRegistry.getInstance().rule("HU", "holiday"), "holiday");</code>
+ * Without a current request use {@link #getInstance(VaadinService)}.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public final class CalendarMetadataRegistry {
+
+	/**
+	 * the loaders by regions
+	 */
+	private final Map<String, CalendarMetadataLoader> loaders = new ConcurrentHashMap<>();
+
+	/**
+	 * the computed metadata by years and regions
+	 */
+	private final Map<MetadataKey, CalendarMetadata> metadata = new ConcurrentHashMap<>();
+
+	private CalendarMetadataRegistry() {
+	}
+
+	/**
+	 * Gives back the registry of the application of the current request, it is created on the first call
+	 *
+	 * @return the {@link CalendarMetadataRegistry}
+	 * @throws IllegalStateException if there is no current {@link VaadinService}, ie: in a backend thread
+	 */
+	public static CalendarMetadataRegistry getInstance() {
+		VaadinService service = VaadinService.getCurrent();
+		if ( service == null ) {
+			throw new IllegalStateException("There is no current VaadinService, use getInstance(VaadinService) outside of a request");
+		}
+		return getInstance(service);
+	}
+
+	/**
+	 * Gives back the registry of the application of the given service, it is created on the first call
+	 *
+	 * @param service {@link VaadinService} the service of the application
+	 * @return the {@link CalendarMetadataRegistry}
+	 */
+	public static CalendarMetadataRegistry getInstance(VaadinService service) {
+		VaadinContext context = service.getContext();
+		return context.getAttribute(CalendarMetadataRegistry.class, () -> {
+			CalendarMetadataRegistry registry = new CalendarMetadataRegistry();
+			service.addServiceDestroyListener(event -> context.removeAttribute(CalendarMetadataRegistry.class));
+			return registry;
+		});
+	}
+
+	/**
+	 * Register the loader of a region. The already computed metadata of the region is dropped.
+	 *
+	 * @param region {@link String} the region, ie: a country code or a locale
+	 * @param loader {@link CalendarMetadataLoader} which computes the metadata of a year
+	 */
+	public void registerLoader(String region, CalendarMetadataLoader loader) {
+		loaders.put(region, loader);
+		invalidate(region);
+	}
+
+	/**
+	 * Gives back if there is a loader for the region
+	 *
+	 * @param region {@link String} the region
+	 * @return <code>true</code> if a loader has been registered for the region
+	 */
+	public boolean hasLoader(String region) {
+		return loaders.containsKey(region);
+	}
+
+	/**
+	 * Drop the computed metadata of the region, it is computed again on the next use.
+	 * The calendars which show it have to be refreshed to see the changes.
+	 *
+	 * @param region {@link String} the region
+	 */
+	public void invalidate(String region) {
+		metadata.keySet().removeIf(key -> key.region().equals(region));
+	}
+
+	/**
+	 * Gives back the metadata of the given year and region, it is computed on the first call
+	 *
+	 * @param year   {@link int} the year
+	 * @param region {@link String} the region
+	 * @return the {@link CalendarMetadata}
+	 * @throws IllegalArgumentException if there is no loader for the region
+	 */
+	public CalendarMetadata get(int year, String region) {
+		return metadata.computeIfAbsent(new MetadataKey(year, region), key -> {
+			CalendarMetadataLoader loader = loaders.get(region);
+			if ( loader == null ) {
+				throw new IllegalArgumentException("No calendar metadata loader for region: " + region);
+			}
+			Map<String, DateSet> categories = new LinkedHashMap<>();
+			for ( Map.Entry<String, ? extends Collection<LocalDate>> entry : loader.load(year, region).entrySet() ) {
+				categories.put(entry.getKey(), new DateSet(entry.getValue()).toImmutable());
+			}
+			return new CalendarMetadata(year, region, Map.copyOf(categories));
+		});
+	}
+
+	/**
+	 * Gives back a decoration rule of the category of the region, for any year the calendar shows.
+	 * The rule holds only the region and the category, the dates are shared. It gives no dates while there is no loader
+	 * for the region, and logs a warning.
+	 *
+	 * @param region   {@link String} the region
+	 * @param category {@link String} the category, ie: "holiday"
+	 * @return the {@link DecorationRule}
+	 */
+	public DecorationRule rule(String region, String category) {
+		return new SharedRule(this, region, category);
+	}
+
+	/**
+	 * The immutable metadata of a year and region
+	 *
+	 * @param year       {@link int} the year
+	 * @param region     {@link String} the region
+	 * @param categories the immutable dates by category names
+	 */
+	public record CalendarMetadata(int year, String region, Map<String, DateSet> categories) {
+
+		private static final DateSet EMPTY = new DateSet().toImmutable();
+
+		/**
+		 * Gives back the dates of the category
+		 *
+		 * @param category {@link String} the category
+		 * @return the immutable {@link DateSet}, empty if the category is unknown
+		 */
+		public DateSet getDates(String category) {
+			return Objects.requireNonNullElse(categories.get(category), EMPTY);
+		}
+	}
+
+	private record MetadataKey(int year, String region) {
+	}
+
+	/**
+	 * A rule which reads the shared metadata of the registry. It is serialized without the registry and the metadata, and
+	 * finds the registry of the application of the current request or session after deserialization.
+	 */
+	private static final class SharedRule implements DecorationRule, Serializable {
+
+		private final String region;
+
+		private final String category;
+
+		private transient CalendarMetadataRegistry registry;
+
+		/**
+		 * <code>true</code> if the missing loader has been logged, it is logged once per rule
+		 */
+		private transient boolean warned = false;
+
+		private SharedRule(CalendarMetadataRegistry registry, String region, String category) {
+			this.registry = registry;
+			this.region = region;
+			this.category = category;
+		}
+
+		@Override
+		public void collectDates(LocalDate from, LocalDate to, DateSet dates) {
+			CalendarMetadataRegistry resolved = registry();
+			if ( resolved == null || !resolved.hasLoader(region) ) {
+				if ( warned ) {
+					return;
+				}
+				warned = true;
+				LoggerFactory.getLogger(CalendarMetadataRegistry.class).warn("No calendar metadata loader for region {}, the {} dates are left out", region, category);
+				return;
+			}
+			for ( int year = from.getYear(); year <= to.getYear(); year++ ) {
+				resolved.get(year, region).getDates(category).collectDates(from, to, dates);
+			}
+		}
+
+		private CalendarMetadataRegistry registry() {
+			if ( registry == null ) {
+				VaadinService service = VaadinService.getCurrent();
+				if ( service == null && VaadinSession.getCurrent() != null ) {
+					service = VaadinSession.getCurrent().getService();
+				}
+				registry = service != null ? getInstance(service) : null;
+			}
+			return registry;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof SharedRule rule && region.equals(rule.region) && category.equals(rule.category);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(region, category);
+		}
+	}
+}
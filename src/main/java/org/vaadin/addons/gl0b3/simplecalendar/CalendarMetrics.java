@@ -0,0 +1,16 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.Serializable;
+
+/**
+ * What a calendar has cost in one server round trip, reported to a {@link CalendarMetricsListener}
+ *
+ * @param jsCalls          the number of the JS calls
+ * @param attributeUpdates the number of the attributes sent to the client
+ * @param payloadBytes     the size of the serialized decoration payloads in bytes
+ * @param datesConverted   the number of the dates encoded into the decoration payloads
+ * @param conversionNanos  the time spent in recording the decorations and building the payloads, in nanoseconds
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public record CalendarMetrics(int jsCalls, int attributeUpdates, long payloadBytes, long datesConverted, long conversionNanos) implements Serializable {
+}
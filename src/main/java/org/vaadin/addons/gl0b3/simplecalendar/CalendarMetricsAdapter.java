@@ -0,0 +1,118 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.Serializable;
+
+/**
+ * {@link CalendarMetricsListener} which forwards the metrics to a metrics library through functions, so the add-on
+ * doesn't depend on the library. The metric names start with "simple.calendar.", the calendar tag is the simple
+ * class name of the calendar, ie: "YearCalendar", and the UI tag is the id of the UI of the calendar, or an empty string
+ * if the calendar is detached.
+ * <p>
+ * Micrometer example:
+ * <pre>
+ * calendar.setMetricsListener(new CalendarMetricsAdapter(
+ *         (name, calendar, ui, amount) -&gt; registry.counter(name, "calendar", calendar, "ui", ui).increment(amount),
+ *         (name, calendar, ui, nanos) -&gt; registry.timer(name, "calendar", calendar, "ui", ui).record(nanos, TimeUnit.NANOSECONDS)));
+ * </pre>
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public class CalendarMetricsAdapter implements CalendarMetricsListener {
+
+	/**
+	 * the counter of the round trips
+	 */
+	public static final String ROUND_TRIPS = "simple.calendar.round.trips";
+
+	/**
+	 * the counter of the JS calls
+	 */
+	public static final String JS_CALLS = "simple.calendar.js.calls";
+
+	/**
+	 * the counter of the attribute updates
+	 */
+	public static final String ATTRIBUTE_UPDATES = "simple.calendar.attribute.updates";
+
+	/**
+	 * the counter of the decoration payload bytes
+	 */
+	public static final String PAYLOAD_BYTES = "simple.calendar.payload.bytes";
+
+	/**
+	 * the counter of the converted dates
+	 */
+	public static final String DATES_CONVERTED = "simple.calendar.dates.converted";
+
+	/**
+	 * the timer of the conversions
+	 */
+	public static final String CONVERSION_TIME = "simple.calendar.conversion";
+
+	/**
+	 * the function which increments a counter
+	 */
+	private final CounterSink counters;
+
+	/**
+	 * the function which records a time
+	 */
+	private final TimerSink timers;
+
+	/**
+	 * Creates the adapter
+	 *
+	 * @param counters {@link CounterSink} the function which increments a counter
+	 * @param timers   {@link TimerSink} the function which records a time
+	 */
+	public CalendarMetricsAdapter(CounterSink counters, TimerSink timers) {
+		this.counters = counters;
+		this.timers = timers;
+	}
+
+	@Override
+	public void onRoundTrip(AbstractSimpleCalendar calendar, CalendarMetrics metrics) {
+		String type = calendar.getClass().getSimpleName();
+		String ui = calendar.getUI().map(attached -> String.valueOf(attached.getUIId())).orElse("");
+		counters.increment(ROUND_TRIPS, type, ui, 1);
+		counters.increment(JS_CALLS, type, ui, metrics.jsCalls());
+		counters.increment(ATTRIBUTE_UPDATES, type, ui, metrics.attributeUpdates());
+		counters.increment(PAYLOAD_BYTES, type, ui, metrics.payloadBytes());
+		counters.increment(DATES_CONVERTED, type, ui, metrics.datesConverted());
+		timers.record(CONVERSION_TIME, type, ui, metrics.conversionNanos());
+	}
+
+	/**
+	 * Increments a counter of the metrics library
+	 */
+	@FunctionalInterface
+	public interface CounterSink extends Serializable {
+
+		/**
+		 * Increment the counter
+		 *
+		 * @param name     {@link String} the name of the metric
+		 * @param calendar {@link String} the calendar tag
+		 * @param ui       {@link String} the UI tag
+		 * @param amount   {@link double} the amount to add
+		 */
+		void increment(String name, String calendar, String ui, double amount);
+	}
+
+	/**
+	 * Records a time in a timer of the metrics library
+	 */
+	@FunctionalInterface
+	public interface TimerSink extends Serializable {
+
+		/**
+		 * Record the time
+		 *
+		 * @param name     {@link String} the name of the metric
+		 * @param calendar {@link String} the calendar tag
+		 * @param ui       {@link String} the UI tag
+		 * @param nanos    {@link long} the time in nanoseconds
+		 */
+		void record(String name, String calendar, String ui, long nanos);
+	}
+}
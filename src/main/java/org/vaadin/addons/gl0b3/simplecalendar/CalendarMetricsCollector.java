@@ -0,0 +1,100 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe {@link CalendarMetricsListener} which sums up the metrics of all the calendars it is set to.
+ * One instance can be shared by all the calendars of the application.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public class CalendarMetricsCollector implements CalendarMetricsListener {
+
+	private final LongAdder roundTrips = new LongAdder();
+
+	private final LongAdder jsCalls = new LongAdder();
+
+	private final LongAdder attributeUpdates = new LongAdder();
+
+	private final LongAdder payloadBytes = new LongAdder();
+
+	private final LongAdder datesConverted = new LongAdder();
+
+	private final LongAdder conversionNanos = new LongAdder();
+
+	@Override
+	public void onRoundTrip(AbstractSimpleCalendar calendar, CalendarMetrics metrics) {
+		roundTrips.increment();
+		jsCalls.add(metrics.jsCalls());
+		attributeUpdates.add(metrics.attributeUpdates());
+		payloadBytes.add(metrics.payloadBytes());
+		datesConverted.add(metrics.datesConverted());
+		conversionNanos.add(metrics.conversionNanos());
+	}
+
+	/**
+	 * Gives back the number of the reported round trips
+	 *
+	 * @return {@link long} the number of the round trips
+	 */
+	public long getRoundTrips() {
+		return roundTrips.sum();
+	}
+
+	/**
+	 * Gives back the number of the JS calls
+	 *
+	 * @return {@link long} the number of the JS calls
+	 */
+	public long getJsCalls() {
+		return jsCalls.sum();
+	}
+
+	/**
+	 * Gives back the number of the attributes sent to the client
+	 *
+	 * @return {@link long} the number of the attribute updates
+	 */
+	public long getAttributeUpdates() {
+		return attributeUpdates.sum();
+	}
+
+	/**
+	 * Gives back the size of the decoration payloads
+	 *
+	 * @return {@link long} the size in bytes
+	 */
+	public long getPayloadBytes() {
+		return payloadBytes.sum();
+	}
+
+	/**
+	 * Gives back the number of the dates encoded into the decoration payloads
+	 *
+	 * @return {@link long} the number of the dates
+	 */
+	public long getDatesConverted() {
+		return datesConverted.sum();
+	}
+
+	/**
+	 * Gives back the time spent in recording the decorations and building the payloads
+	 *
+	 * @return {@link long} the time in nanoseconds
+	 */
+	public long getConversionNanos() {
+		return conversionNanos.sum();
+	}
+
+	/**
+	 * Set all the sums to zero
+	 */
+	public void reset() {
+		roundTrips.reset();
+		jsCalls.reset();
+		attributeUpdates.reset();
+		payloadBytes.reset();
+		datesConverted.reset();
+		conversionNanos.reset();
+	}
+}
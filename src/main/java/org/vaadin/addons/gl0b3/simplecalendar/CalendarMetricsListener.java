@@ -0,0 +1,41 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.Serializable;
+
+/**
+ * Receives the costs of the calendars per server round trip, see {@link AbstractSimpleCalendar#setMetricsListener(CalendarMetricsListener)}.
+ * The calendar and its UI identify the component and the UI of the metrics.
+ * <p>
+ * {@link CalendarMetricsCollector} sums them up without any dependency, {@link CalendarMetricsAdapter} forwards them to
+ * a metrics library, ie: Micrometer.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+@FunctionalInterface
+public interface CalendarMetricsListener extends Serializable {
+
+	/**
+	 * The listener which ignores the metrics, the calendars don't measure anything while they have this listener
+	 */
+	CalendarMetricsListener NO_OP = NoOp.INSTANCE;
+
+	/**
+	 * Called at the end of every server round trip in which the calendar has sent something to the client
+	 *
+	 * @param calendar {@link AbstractSimpleCalendar} the calendar
+	 * @param metrics  {@link CalendarMetrics} the costs of the round trip
+	 */
+	void onRoundTrip(AbstractSimpleCalendar calendar, CalendarMetrics metrics);
+
+	/**
+	 * The {@link #NO_OP} listener, an enum so it stays the same instance after deserialization
+	 */
+	enum NoOp implements CalendarMetricsListener {
+
+		INSTANCE;
+
+		@Override
+		public void onRoundTrip(AbstractSimpleCalendar calendar, CalendarMetrics metrics) {
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.Serializable;
+
+/**
+ * Accumulates the metrics of a calendar until the end of the round trip
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+class CalendarMetricsRecorder implements Serializable {
+
+	private int jsCalls;
+
+	private int attributeUpdates;
+
+	private long payloadBytes;
+
+	private long datesConverted;
+
+	private long conversionNanos;
+
+	void jsCall() {
+		jsCalls++;
+	}
+
+	void attributeUpdate() {
+		attributeUpdates++;
+	}
+
+	void payload(long bytes, long dates) {
+		payloadBytes += bytes;
+		datesConverted += dates;
+	}
+
+	void conversion(long nanos) {
+		conversionNanos += nanos;
+	}
+
+	/**
+	 * Reports the accumulated metrics to the listener if something has been sent, and starts a new round trip. The time
+	 * of a conversion which found nothing to send is not reported.
+	 *
+	 * @param calendar {@link AbstractSimpleCalendar} the calendar
+	 * @param listener {@link CalendarMetricsListener} the listener
+	 */
+	void report(AbstractSimpleCalendar calendar, CalendarMetricsListener listener) {
+		if ( jsCalls > 0 || attributeUpdates > 0 ) {
+			listener.onRoundTrip(calendar, new CalendarMetrics(jsCalls, attributeUpdates, payloadBytes, datesConverted, conversionNanos));
+		}
+		jsCalls = 0;
+		attributeUpdates = 0;
+		payloadBytes = 0;
+		datesConverted = 0;
+		conversionNanos = 0;
+	}
+}
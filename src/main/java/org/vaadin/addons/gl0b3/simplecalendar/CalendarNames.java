@@ -0,0 +1,69 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Application wide cache of the localized day and month names of the server side rendering.
+ * The names are computed once per locale and {@link DayNameFormat}.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+final class CalendarNames {
+
+	/**
+	 * the names of the days from Monday to Sunday by locale and format
+	 */
+	private static final Map<NamesKey, String[]> DAY_NAMES = new ConcurrentHashMap<>();
+
+	/**
+	 * the names of the months from January to December by locale
+	 */
+	private static final Map<String, String[]> MONTH_NAMES = new ConcurrentHashMap<>();
+
+	private CalendarNames() {
+	}
+
+	/**
+	 * Gives back the names of the days from Monday to Sunday
+	 *
+	 * @param locale {@link String} the language locale, ie: "en"
+	 * @param format {@link DayNameFormat} the format of the names
+	 * @return the names, the returned array must not be modified
+	 */
+	static String[] getDayNames(String locale, DayNameFormat format) {
+		return DAY_NAMES.computeIfAbsent(new NamesKey(locale, format), key -> {
+			Locale javaLocale = Locale.forLanguageTag(locale);
+			String[] names = new String[7];
+			for ( DayOfWeek day : DayOfWeek.values() ) {
+				names[day.getValue() - 1] = day.getDisplayName(format.getTextStyle(), javaLocale);
+			}
+			return names;
+		});
+	}
+
+	/**
+	 * Gives back the name of the month
+	 *
+	 * @param locale {@link String} the language locale, ie: "en"
+	 * @param month  {@link int} the month, 1 to 12
+	 * @return the standalone full name of the month
+	 */
+	static String getMonthName(String locale, int month) {
+		return MONTH_NAMES.computeIfAbsent(locale, key -> {
+			Locale javaLocale = Locale.forLanguageTag(locale);
+			String[] names = new String[12];
+			for ( Month value : Month.values() ) {
+				names[value.getValue() - 1] = value.getDisplayName(TextStyle.FULL_STANDALONE, javaLocale);
+			}
+			return names;
+		})[month - 1];
+	}
+
+	private record NamesKey(String locale, DayNameFormat format) {
+	}
+}
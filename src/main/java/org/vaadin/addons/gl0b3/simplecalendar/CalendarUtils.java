@@ -1,6 +1,14 @@
 package org.vaadin.addons.gl0b3.simplecalendar;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
+import java.util.function.LongConsumer;
 
 import elemental.json.Json;
 import elemental.json.JsonArray;
@@ -11,6 +19,11 @@ import elemental.json.JsonArray;
  */
 public class CalendarUtils {
 
+	/**
+	 * the number of milliseconds in a day
+	 */
+	private static final long MILLIS_PER_DAY = 86_400_000L;
+
 	/**
 	 * Convert {@link List<String>} dates into {@link JsonArray}
 	 *
@@ -19,9 +32,166 @@ public class CalendarUtils {
 	 */
 	public static JsonArray convertToJsonArray(List<String> stringDates) {
 		JsonArray jsonDateArray = Json.createArray();
-		for ( int i = 0; i < stringDates.size(); i++ ) {
-			jsonDateArray.set(i, stringDates.get(i));
+		int i = 0;
+		for ( String stringDate : stringDates ) {
+			jsonDateArray.set(i++, stringDate);
 		}
 		return jsonDateArray;
 	}
+
+	/**
+	 * Convert the {@link Date} into the epoch day of its local date in the given time zone
+	 *
+	 * @param date   {@link Date} the date to convert, <code>java.sql.Date</code> is supported too
+	 * @param zoneId {@link ZoneId} the time zone of the local date
+	 * @return {@link long} the epoch day
+	 */
+	public static long toEpochDay(Date date, ZoneId zoneId) {
+		return toEpochDay(date.getTime(), zoneId.getRules());
+	}
+
+	/**
+	 * Convert the epoch milliseconds into the epoch day of its local date by the given time zone rules.
+	 * Fixed offset zones are converted without any allocation; use it in loops with the rules fetched once.
+	 *
+	 * @param epochMilli {@link long} the milliseconds from 1970-01-01T00:00Z
+	 * @param rules      {@link ZoneRules} the rules of the time zone
+	 * @return {@link long} the epoch day
+	 */
+	public static long toEpochDay(long epochMilli, ZoneRules rules) {
+		int offsetSeconds = rules.isFixedOffset()
+				? rules.getOffset(Instant.EPOCH).getTotalSeconds()
+				: rules.getOffset(Instant.ofEpochMilli(epochMilli)).getTotalSeconds();
+		return Math.floorDiv(epochMilli + offsetSeconds * 1000L, MILLIS_PER_DAY);
+	}
+
+	/**
+	 * Encode the dates into a compact base64 {@link String}. The dates are written as runs of consecutive days with
+	 * unsigned LEB128 varints: the zigzag encoded epoch day of the first run's start, then the length of the first run,
+	 * and for every further run the gap from the end of the previous run and the length of the run.
+	 * A fully marked year takes 5 bytes, a date per week about 2 bytes per date.
+	 *
+	 * @param dates {@link DateSet} the dates which have to be encoded
+	 * @return the base64 encoded dates, empty {@link String} for an empty set
+	 */
+	public static String encodeDates(DateSet dates) {
+		return new String(Base64.getEncoder().encode(encodeRuns(dates)), StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Decode dates which were encoded by {@link #encodeDates(DateSet)}
+	 *
+	 * @param encodedDates {@link String} the base64 encoded dates
+	 * @return the decoded {@link DateSet}
+	 */
+	public static DateSet decodeDates(String encodedDates) {
+		return decodeRuns(Base64.getDecoder().decode(encodedDates));
+	}
+
+	/**
+	 * Encode the dates into runs of consecutive days, the raw bytes of {@link #encodeDates(DateSet)}
+	 *
+	 * @param dates {@link DateSet} the dates which have to be encoded
+	 * @return the encoded runs, empty array for an empty set
+	 */
+	static byte[] encodeRuns(DateSet dates) {
+		RunEncoder encoder = new RunEncoder();
+		dates.forEachEpochDay(encoder);
+		return encoder.finish();
+	}
+
+	/**
+	 * Decode the runs which were encoded by {@link #encodeRuns(DateSet)}
+	 *
+	 * @param bytes {@link byte[]} the encoded runs
+	 * @return the decoded {@link DateSet}
+	 */
+	static DateSet decodeRuns(byte[] bytes) {
+		DateSet dates = new DateSet();
+		int[] position = { 0 };
+		long day = 0;
+		boolean first = true;
+		while ( position[0] < bytes.length ) {
+			long value = readVarint(bytes, position);
+			day = first ? (value >>> 1) ^ -(value & 1) : day + value;
+			first = false;
+			long length = readVarint(bytes, position);
+			for ( long i = 0; i < length; i++ ) {
+				dates.add(day + i);
+			}
+			day += length;
+		}
+		return dates;
+	}
+
+	private static long readVarint(byte[] bytes, int[] position) {
+		long value = 0;
+		int shift = 0;
+		byte current;
+		do {
+			current = bytes[position[0]++];
+			value |= (long) (current & 0x7f) << shift;
+			shift += 7;
+		} while ( (current & 0x80) != 0 );
+		return value;
+	}
+
+	/**
+	 * Writes ascending epoch days as runs of consecutive days, see {@link #encodeDates(DateSet)}
+	 */
+	private static final class RunEncoder implements LongConsumer {
+
+		private byte[] buffer = new byte[64];
+
+		private int length = 0;
+
+		private boolean empty = true;
+
+		private long runStart;
+
+		private long runEnd;
+
+		private long previousRunEnd;
+
+		@Override
+		public void accept(long epochDay) {
+			if ( empty ) {
+				empty = false;
+				runStart = epochDay;
+				runEnd = epochDay + 1;
+				writeVarint((runStart << 1) ^ (runStart >> 63));
+			} else if ( epochDay == runEnd ) {
+				runEnd++;
+			} else {
+				writeRun();
+				runStart = epochDay;
+				runEnd = epochDay + 1;
+				writeVarint(runStart - previousRunEnd);
+			}
+		}
+
+		byte[] finish() {
+			if ( empty ) {
+				return new byte[0];
+			}
+			writeRun();
+			return Arrays.copyOf(buffer, length);
+		}
+
+		private void writeRun() {
+			writeVarint(runEnd - runStart);
+			previousRunEnd = runEnd;
+		}
+
+		private void writeVarint(long value) {
+			if ( length + 10 > buffer.length ) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+			while ( (value & ~0x7fL) != 0 ) {
+				buffer[length++] = (byte) ((value & 0x7f) | 0x80);
+				value >>>= 7;
+			}
+			buffer[length++] = (byte) value;
+		}
+	}
 }
@@ -0,0 +1,156 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the results of a {@link CalendarDataProvider} per month in a bounded LRU map.
+ * The cached months are not serialized, they are fetched again after the session has been deserialized.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+class DataProviderCache implements Serializable {
+
+	/**
+	 * the cached provider
+	 */
+	private final CalendarDataProvider provider;
+
+	/**
+	 * the maximum number of the cached months
+	 */
+	private int maxMonths;
+
+	/**
+	 * the number of the months the calendar needs at once, the cache keeps at least this many months
+	 */
+	private int minMonths = 1;
+
+	/**
+	 * the decorations by class names per month, in access order
+	 */
+	private transient LinkedHashMap<YearMonth, Map<String, DateSet>> months = createMonths();
+
+	DataProviderCache(CalendarDataProvider provider, int maxMonths) {
+		this.provider = provider;
+		this.maxMonths = maxMonths;
+	}
+
+	CalendarDataProvider getProvider() {
+		return provider;
+	}
+
+	void setMaxMonths(int maxMonths) {
+		this.maxMonths = maxMonths;
+		evict();
+	}
+
+	/**
+	 * Set the number of the months the calendar needs at once, ie: the visible months and the prefetched adjacent
+	 * periods. If it is more than the maximum, the cache keeps this many months, so the months of one sync don't evict
+	 * each other.
+	 *
+	 * @param minMonths {@link int} the number of the months
+	 */
+	void setMinMonths(int minMonths) {
+		this.minMonths = minMonths;
+		evict();
+	}
+
+	void invalidate() {
+		months.clear();
+	}
+
+	void invalidate(YearMonth month) {
+		months.remove(month);
+	}
+
+	/**
+	 * Gives back the decorations between from and to (both inclusive). The missing months are fetched with one query
+	 * from the first missing month to the last one.
+	 *
+	 * @param from {@link LocalDate} the first date
+	 * @param to   {@link LocalDate} the last date
+	 * @return the decorated dates by class names
+	 */
+	Map<String, DateSet> get(LocalDate from, LocalDate to) {
+		YearMonth first = YearMonth.from(from);
+		YearMonth last = YearMonth.from(to);
+		YearMonth firstMissing = null;
+		YearMonth lastMissing = null;
+		for ( YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1) ) {
+			if ( !months.containsKey(month) ) {
+				firstMissing = firstMissing == null ? month : firstMissing;
+				lastMissing = month;
+			}
+		}
+		Map<YearMonth, Map<String, DateSet>> fetched = new HashMap<>();
+		// the cached months are taken before the fetched ones are put, which can evict them
+		Map<YearMonth, Map<String, DateSet>> cached = new HashMap<>();
+		for ( YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1) ) {
+			Map<String, DateSet> monthDecorations = months.get(month);
+			if ( monthDecorations != null ) {
+				cached.put(month, monthDecorations);
+			}
+		}
+		if ( firstMissing != null ) {
+			YearMonth fetchFrom = firstMissing;
+			YearMonth fetchTo = lastMissing;
+			for ( YearMonth month = fetchFrom; !month.isAfter(fetchTo); month = month.plusMonths(1) ) {
+				fetched.put(month, new HashMap<>());
+			}
+			try ( var decorations = provider.fetch(new CalendarDataProvider.CalendarQuery(fetchFrom.atDay(1), fetchTo.atEndOfMonth())) ) {
+				decorations.forEach(decoration -> {
+					Map<String, DateSet> monthDecorations = fetched.get(YearMonth.from(decoration.date()));
+					if ( monthDecorations != null ) {
+						monthDecorations.computeIfAbsent(decoration.className(), className -> new DateSet()).add(decoration.date());
+					}
+				});
+			}
+		}
+
+		Map<String, DateSet> result = new LinkedHashMap<>();
+		for ( YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1) ) {
+			Map<String, DateSet> monthDecorations = fetched.get(month);
+			if ( monthDecorations != null ) {
+				months.put(month, monthDecorations);
+			} else {
+				monthDecorations = cached.get(month);
+			}
+			for ( Map.Entry<String, DateSet> entry : monthDecorations.entrySet() ) {
+				entry.getValue().collectDates(from, to, result.computeIfAbsent(entry.getKey(), className -> new DateSet()));
+			}
+		}
+		return result;
+	}
+
+	private void evict() {
+		while ( months.size() > capacity() ) {
+			months.remove(months.keySet().iterator().next());
+		}
+	}
+
+	private int capacity() {
+		return Math.max(maxMonths, minMonths);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		months = createMonths();
+	}
+
+	private LinkedHashMap<YearMonth, Map<String, DateSet>> createMonths() {
+		return new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<YearMonth, Map<String, DateSet>> eldest) {
+				return size() > capacity();
+			}
+		};
+	}
+}
@@ -0,0 +1,82 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.LocalDate;
+
+import com.vaadin.flow.component.ComponentEvent;
+import com.vaadin.flow.component.DebounceSettings;
+import com.vaadin.flow.component.DomEvent;
+import com.vaadin.flow.component.EventData;
+import com.vaadin.flow.dom.DebouncePhase;
+
+/**
+ * Fired when the user selects a range of days by dragging across the day cells. The client sends one event per drag,
+ * and the events which follow each other within {@value AbstractSimpleCalendar#RANGE_SELECTION_DEBOUNCE} ms are
+ * coalesced into the last one. The days are sent as epoch day numbers.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+@DomEvent(value = AbstractSimpleCalendar.RANGE_SELECTION_EVENT,
+		debounce = @DebounceSettings(timeout = AbstractSimpleCalendar.RANGE_SELECTION_DEBOUNCE, phases = DebouncePhase.TRAILING))
+public class DateRangeSelectionEvent extends ComponentEvent<AbstractSimpleCalendar> {
+
+	/**
+	 * the epoch day of the first selected day
+	 */
+	private final long startEpochDay;
+
+	/**
+	 * the epoch day of the last selected day
+	 */
+	private final long endEpochDay;
+
+	/**
+	 * Creates the event
+	 *
+	 * @param source        {@link AbstractSimpleCalendar} the calendar
+	 * @param fromClient    {@link boolean} <code>true</code> if the event comes from the client
+	 * @param startEpochDay {@link int} the epoch day of the first selected day
+	 * @param endEpochDay   {@link int} the epoch day of the last selected day
+	 */
+	public DateRangeSelectionEvent(AbstractSimpleCalendar source, boolean fromClient,
+			@EventData("event.detail.start") int startEpochDay, @EventData("event.detail.end") int endEpochDay) {
+		super(source, fromClient);
+		this.startEpochDay = Math.min(startEpochDay, endEpochDay);
+		this.endEpochDay = Math.max(startEpochDay, endEpochDay);
+	}
+
+	/**
+	 * Gives back the first selected day
+	 *
+	 * @return the first {@link LocalDate} of the range
+	 */
+	public LocalDate getStart() {
+		return LocalDate.ofEpochDay(startEpochDay);
+	}
+
+	/**
+	 * Gives back the last selected day
+	 *
+	 * @return the last {@link LocalDate} of the range (inclusive)
+	 */
+	public LocalDate getEnd() {
+		return LocalDate.ofEpochDay(endEpochDay);
+	}
+
+	/**
+	 * Gives back the epoch day of the first selected day
+	 *
+	 * @return {@link long} the epoch day
+	 */
+	public long getStartEpochDay() {
+		return startEpochDay;
+	}
+
+	/**
+	 * Gives back the epoch day of the last selected day
+	 *
+	 * @return {@link long} the epoch day
+	 */
+	public long getEndEpochDay() {
+		return endEpochDay;
+	}
+}
@@ -0,0 +1,472 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+
+/**
+ * A compact set of dates. The dates are stored as epoch days in bitmaps, one bitmap per block of {@value #BLOCK_SIZE} days,
+ * so a fully marked year costs less than a hundred bytes.
+ * As a {@link DecorationRule} it gives back its own dates in the evaluated period.
+ * <p>
+ * The set is serialized compactly, as runs of consecutive days or as the raw bitmap words, whichever is smaller.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public class DateSet implements DecorationRule {
+
+	/**
+	 * the number of days in one bitmap block
+	 */
+	static final int BLOCK_SIZE = 512;
+
+	/**
+	 * the serialized form which stores the dates as runs of consecutive days
+	 */
+	private static final byte RUNS = 0;
+
+	/**
+	 * the serialized form which stores the words of the bitmap blocks
+	 */
+	private static final byte BITMAPS = 1;
+
+	/**
+	 * the bitmap blocks by their block index (epoch day / {@link #BLOCK_SIZE}), serialized by {@link #writeDates(DataOutput)}
+	 */
+	private transient TreeMap<Integer, BitSet> blocks = new TreeMap<>();
+
+	/**
+	 * the number of dates in the set
+	 */
+	private transient int size = 0;
+
+	/**
+	 * <code>true</code> if the set can't be modified any more, see {@link #toImmutable()}
+	 */
+	private boolean immutable = false;
+
+	/**
+	 * Creates an empty date set
+	 */
+	public DateSet() {
+	}
+
+	/**
+	 * Creates a date set with the given dates
+	 *
+	 * @param dates {@link Iterable<LocalDate>} the dates of the set
+	 */
+	public DateSet(Iterable<LocalDate> dates) {
+		addAll(dates);
+	}
+
+	/**
+	 * Add the given date to the set
+	 *
+	 * @param date {@link LocalDate} the date to add
+	 * @return <code>true</code> if the set did not contain the date
+	 */
+	public boolean add(LocalDate date) {
+		return add(date.toEpochDay());
+	}
+
+	/**
+	 * Add the date of the given epoch day to the set
+	 *
+	 * @param epochDay {@link long} the epoch day of the date
+	 * @return <code>true</code> if the set did not contain the date
+	 */
+	public boolean add(long epochDay) {
+		checkMutable();
+		BitSet block = blocks.computeIfAbsent(blockIndex(epochDay), index -> new BitSet(BLOCK_SIZE));
+		int bit = bitIndex(epochDay);
+		if ( block.get(bit) ) {
+			return false;
+		}
+		block.set(bit);
+		size++;
+		return true;
+	}
+
+	/**
+	 * Add all the given dates to the set
+	 *
+	 * @param dates {@link Iterable<LocalDate>} the dates to add
+	 */
+	public void addAll(Iterable<LocalDate> dates) {
+		for ( LocalDate date : dates ) {
+			add(date);
+		}
+	}
+
+	/**
+	 * Add all the dates of the other set to this set
+	 *
+	 * @param other {@link DateSet} the dates to add
+	 */
+	public void addAll(DateSet other) {
+		checkMutable();
+		for ( Map.Entry<Integer, BitSet> entry : other.blocks.entrySet() ) {
+			BitSet block = blocks.computeIfAbsent(entry.getKey(), index -> new BitSet(BLOCK_SIZE));
+			size -= block.cardinality();
+			block.or(entry.getValue());
+			size += block.cardinality();
+		}
+	}
+
+	/**
+	 * Remove the given date from the set
+	 *
+	 * @param date {@link LocalDate} the date to remove
+	 * @return <code>true</code> if the set contained the date
+	 */
+	public boolean remove(LocalDate date) {
+		return remove(date.toEpochDay());
+	}
+
+	/**
+	 * Remove the date of the given epoch day from the set
+	 *
+	 * @param epochDay {@link long} the epoch day of the date
+	 * @return <code>true</code> if the set contained the date
+	 */
+	public boolean remove(long epochDay) {
+		checkMutable();
+		int index = blockIndex(epochDay);
+		BitSet block = blocks.get(index);
+		int bit = bitIndex(epochDay);
+		if ( block == null || !block.get(bit) ) {
+			return false;
+		}
+		block.clear(bit);
+		size--;
+		if ( block.isEmpty() ) {
+			blocks.remove(index);
+		}
+		return true;
+	}
+
+	/**
+	 * Remove all the dates of the other set from this set
+	 *
+	 * @param other {@link DateSet} the dates to remove
+	 */
+	public void removeAll(DateSet other) {
+		checkMutable();
+		for ( Map.Entry<Integer, BitSet> entry : other.blocks.entrySet() ) {
+			BitSet block = blocks.get(entry.getKey());
+			if ( block != null ) {
+				size -= block.cardinality();
+				block.andNot(entry.getValue());
+				size += block.cardinality();
+				if ( block.isEmpty() ) {
+					blocks.remove(entry.getKey());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gives back if the set contains the given date
+	 *
+	 * @param date {@link LocalDate} the date to look for
+	 * @return <code>true</code> if the set contains the date
+	 */
+	public boolean contains(LocalDate date) {
+		return contains(date.toEpochDay());
+	}
+
+	/**
+	 * Gives back if the set contains the date of the given epoch day
+	 *
+	 * @param epochDay {@link long} the epoch day of the date
+	 * @return <code>true</code> if the set contains the date
+	 */
+	public boolean contains(long epochDay) {
+		BitSet block = blocks.get(blockIndex(epochDay));
+		return block != null && block.get(bitIndex(epochDay));
+	}
+
+	/**
+	 * Gives back the dates of this set which are not in the other set
+	 *
+	 * @param other {@link DateSet} the dates to leave out
+	 * @return a new {@link DateSet} with the difference
+	 */
+	public DateSet difference(DateSet other) {
+		DateSet difference = copy();
+		difference.removeAll(other);
+		return difference;
+	}
+
+	/**
+	 * Gives back a copy of this set. The copy is always modifiable.
+	 *
+	 * @return the new {@link DateSet}
+	 */
+	public DateSet copy() {
+		DateSet copy = new DateSet();
+		copy.addAll(this);
+		return copy;
+	}
+
+	/**
+	 * Calls the given consumer with the epoch day of all dates in the set, in ascending order
+	 *
+	 * @param consumer {@link LongConsumer} which receives the epoch days
+	 */
+	public void forEachEpochDay(LongConsumer consumer) {
+		for ( Map.Entry<Integer, BitSet> entry : blocks.entrySet() ) {
+			long base = (long) entry.getKey() * BLOCK_SIZE;
+			BitSet block = entry.getValue();
+			for ( int bit = block.nextSetBit(0); bit >= 0; bit = block.nextSetBit(bit + 1) ) {
+				consumer.accept(base + bit);
+			}
+		}
+	}
+
+	/**
+	 * Calls the given consumer with the epoch day of the dates between from and to (both inclusive), in ascending order
+	 *
+	 * @param fromEpochDay {@link long} the first epoch day
+	 * @param toEpochDay   {@link long} the last epoch day
+	 * @param consumer     {@link LongConsumer} which receives the epoch days
+	 */
+	public void forEachEpochDay(long fromEpochDay, long toEpochDay, LongConsumer consumer) {
+		if ( fromEpochDay > toEpochDay ) {
+			return;
+		}
+		for ( Map.Entry<Integer, BitSet> entry : blocks.subMap(blockIndex(fromEpochDay), true, blockIndex(toEpochDay), true).entrySet() ) {
+			long base = (long) entry.getKey() * BLOCK_SIZE;
+			BitSet block = entry.getValue();
+			int firstBit = (int) Math.max(0, fromEpochDay - base);
+			int lastBit = (int) Math.min(BLOCK_SIZE - 1, toEpochDay - base);
+			for ( int bit = block.nextSetBit(firstBit); bit >= 0 && bit <= lastBit; bit = block.nextSetBit(bit + 1) ) {
+				consumer.accept(base + bit);
+			}
+		}
+	}
+
+	/**
+	 * Gives back the dates of the set between from and to (both inclusive)
+	 *
+	 * @param from {@link LocalDate} the first date
+	 * @param to   {@link LocalDate} the last date
+	 * @return a new {@link DateSet} with the dates of the period
+	 */
+	public DateSet subSet(LocalDate from, LocalDate to) {
+		DateSet subSet = new DateSet();
+		collectDates(from, to, subSet);
+		return subSet;
+	}
+
+	@Override
+	public void collectDates(LocalDate from, LocalDate to, DateSet dates) {
+		long fromEpochDay = from.toEpochDay();
+		long toEpochDay = to.toEpochDay();
+		if ( fromEpochDay > toEpochDay ) {
+			return;
+		}
+		for ( Map.Entry<Integer, BitSet> entry : blocks.subMap(blockIndex(fromEpochDay), true, blockIndex(toEpochDay), true).entrySet() ) {
+			long base = (long) entry.getKey() * BLOCK_SIZE;
+			if ( base >= fromEpochDay && base + BLOCK_SIZE - 1 <= toEpochDay ) {
+				// whole block in the period: merge the bitmaps
+				dates.checkMutable();
+				BitSet block = dates.blocks.computeIfAbsent(entry.getKey(), index -> new BitSet(BLOCK_SIZE));
+				dates.size -= block.cardinality();
+				block.or(entry.getValue());
+				dates.size += block.cardinality();
+			} else {
+				BitSet block = entry.getValue();
+				int lastBit = (int) Math.min(BLOCK_SIZE - 1, toEpochDay - base);
+				for ( int bit = block.nextSetBit((int) Math.max(0, fromEpochDay - base)); bit >= 0 && bit <= lastBit; bit = block.nextSetBit(bit + 1) ) {
+					dates.add(base + bit);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gives back the first dates of the set
+	 *
+	 * @param count {@link int} the maximum number of the dates
+	 * @return a new {@link DateSet} with the first count dates in ascending order
+	 */
+	public DateSet head(int count) {
+		DateSet head = new DateSet();
+		for ( Map.Entry<Integer, BitSet> entry : blocks.entrySet() ) {
+			int remaining = count - head.size;
+			if ( remaining <= 0 ) {
+				break;
+			}
+			BitSet block = entry.getValue();
+			int cardinality = block.cardinality();
+			if ( cardinality <= remaining ) {
+				head.blocks.put(entry.getKey(), (BitSet) block.clone());
+				head.size += cardinality;
+			} else {
+				long base = (long) entry.getKey() * BLOCK_SIZE;
+				for ( int bit = block.nextSetBit(0); head.size < count; bit = block.nextSetBit(bit + 1) ) {
+					head.add(base + bit);
+				}
+			}
+		}
+		return head;
+	}
+
+	/**
+	 * Gives back the number of dates in the set
+	 *
+	 * @return {@link int} the size of the set
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gives back if the set is empty
+	 *
+	 * @return <code>true</code> if the set has no dates
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Remove all dates from the set
+	 */
+	public void clear() {
+		checkMutable();
+		blocks.clear();
+		size = 0;
+	}
+
+	/**
+	 * Gives back an immutable copy of this set, which can be shared safely between sessions and threads
+	 *
+	 * @return the immutable {@link DateSet}, this set if it is already immutable
+	 */
+	public DateSet toImmutable() {
+		if ( immutable ) {
+			return this;
+		}
+		DateSet copy = copy();
+		copy.immutable = true;
+		return copy;
+	}
+
+	/**
+	 * Gives back if the set can be modified
+	 *
+	 * @return <code>true</code> if the set is immutable
+	 */
+	public boolean isImmutable() {
+		return immutable;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof DateSet otherSet && size == otherSet.size && blocks.equals(otherSet.blocks);
+	}
+
+	@Override
+	public int hashCode() {
+		return blocks.hashCode();
+	}
+
+	/**
+	 * Writes the dates in the smaller of the run and the bitmap form
+	 *
+	 * @param out {@link DataOutput} the output
+	 * @throws IOException if the output fails
+	 */
+	void writeDates(DataOutput out) throws IOException {
+		byte[] runs = CalendarUtils.encodeRuns(this);
+		if ( runs.length <= blocks.size() * (BLOCK_SIZE / Byte.SIZE + Integer.BYTES) ) {
+			out.writeByte(RUNS);
+			out.writeInt(runs.length);
+			out.write(runs);
+			return;
+		}
+		out.writeByte(BITMAPS);
+		out.writeInt(blocks.size());
+		for ( Map.Entry<Integer, BitSet> entry : blocks.entrySet() ) {
+			long[] words = entry.getValue().toLongArray();
+			out.writeInt(entry.getKey());
+			out.writeByte(words.length);
+			for ( long word : words ) {
+				out.writeLong(word);
+			}
+		}
+	}
+
+	/**
+	 * Reads the dates which were written by {@link #writeDates(DataOutput)}
+	 *
+	 * @param in {@link DataInput} the input
+	 * @return the mutable {@link DateSet} of the dates
+	 * @throws IOException if the input fails or it is not a written date set
+	 */
+	static DateSet readDates(DataInput in) throws IOException {
+		byte form = in.readByte();
+		if ( form == RUNS ) {
+			byte[] runs = new byte[in.readInt()];
+			in.readFully(runs);
+			return CalendarUtils.decodeRuns(runs);
+		}
+		if ( form != BITMAPS ) {
+			throw new IOException("Unknown date set form: " + form);
+		}
+		DateSet dates = new DateSet();
+		for ( int count = in.readInt(); count > 0; count-- ) {
+			int index = in.readInt();
+			int length = in.readByte();
+			if ( length < 0 || length > BLOCK_SIZE / Long.SIZE ) {
+				throw new IOException("Invalid date set block length: " + length);
+			}
+			long[] words = new long[length];
+			for ( int i = 0; i < words.length; i++ ) {
+				words[i] = in.readLong();
+			}
+			BitSet block = BitSet.valueOf(words);
+			if ( !block.isEmpty() ) {
+				dates.blocks.put(index, block);
+				dates.size += block.cardinality();
+			}
+		}
+		return dates;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		writeDates(out);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		DateSet dates = readDates(in);
+		blocks = dates.blocks;
+		size = dates.size;
+	}
+
+	private void checkMutable() {
+		if ( immutable ) {
+			throw new UnsupportedOperationException("The date set is immutable");
+		}
+	}
+
+	private static int blockIndex(long epochDay) {
+		return (int) Math.floorDiv(epochDay, BLOCK_SIZE);
+	}
+
+	private static int bitIndex(long epochDay) {
+		return Math.floorMod(epochDay, BLOCK_SIZE);
+	}
+}
@@ -0,0 +1,51 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.LocalDate;
+
+import com.vaadin.flow.component.ComponentEvent;
+import com.vaadin.flow.component.DomEvent;
+import com.vaadin.flow.component.EventData;
+
+/**
+ * Fired when the user clicks on a day cell of the calendar. The day is sent from the client as an epoch day number.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+@DomEvent(AbstractSimpleCalendar.DAY_CLICK_EVENT)
+public class DayClickEvent extends ComponentEvent<AbstractSimpleCalendar> {
+
+	/**
+	 * the epoch day of the clicked day
+	 */
+	private final long epochDay;
+
+	/**
+	 * Creates the event
+	 *
+	 * @param source     {@link AbstractSimpleCalendar} the calendar
+	 * @param fromClient {@link boolean} <code>true</code> if the event comes from the client
+	 * @param epochDay   {@link int} the epoch day of the clicked day
+	 */
+	public DayClickEvent(AbstractSimpleCalendar source, boolean fromClient, @EventData("event.detail.epochDay") int epochDay) {
+		super(source, fromClient);
+		this.epochDay = epochDay;
+	}
+
+	/**
+	 * Gives back the clicked day
+	 *
+	 * @return the clicked {@link LocalDate}
+	 */
+	public LocalDate getDate() {
+		return LocalDate.ofEpochDay(epochDay);
+	}
+
+	/**
+	 * Gives back the epoch day of the clicked day
+	 *
+	 * @return {@link long} the epoch day
+	 */
+	public long getEpochDay() {
+		return epochDay;
+	}
+}
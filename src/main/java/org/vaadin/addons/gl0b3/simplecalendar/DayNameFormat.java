@@ -1,5 +1,7 @@
 package org.vaadin.addons.gl0b3.simplecalendar;
 
+import java.time.format.TextStyle;
+
 /**
  * The naming format of the days and month.
  * It follows the Luxon weekdays format: https://moment.github.io/luxon/api-docs/index.html#infoweekdays
@@ -9,23 +11,29 @@ public enum DayNameFormat {
 	/**
 	 * the shortest format
 	 */
-	NARROW("narrow"),
+	NARROW("narrow", TextStyle.NARROW),
 	/**
 	 * short format
 	 */
-	SHORT("short"),
+	SHORT("short", TextStyle.SHORT),
 	/**
 	 * long format
 	 */
-	LONG("long");
+	LONG("long", TextStyle.FULL);
 
 	/**
 	 * Holding the {@link String} value of the day name format
 	 */
 	private final String value;
 
-	DayNameFormat(String value) {
+	/**
+	 * the matching java.time text style, used by the server side rendering
+	 */
+	private final TextStyle textStyle;
+
+	DayNameFormat(String value, TextStyle textStyle) {
 		this.value = value;
+		this.textStyle = textStyle;
 	}
 
 	/**
@@ -36,4 +44,13 @@ public enum DayNameFormat {
 	public String getValue() {
 		return this.value;
 	}
+
+	/**
+	 * Gives back the matching {@link TextStyle} of the format
+	 *
+	 * @return the {@link TextStyle}
+	 */
+	public TextStyle getTextStyle() {
+		return this.textStyle;
+	}
 }
\ No newline at end of file
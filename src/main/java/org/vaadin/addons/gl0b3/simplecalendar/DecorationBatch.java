@@ -0,0 +1,302 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+
+/**
+ * Collects the cell decoration operations of a {@link AbstractSimpleCalendar#decorate(java.util.function.Consumer)} call.
+ * The operations change the server side decoration model of the calendar; only the difference to what the client already
+ * has is sent, as one payload applied in one client side pass.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public class DecorationBatch {
+
+	/**
+	 * the operation type of adding a class to the cells of the given dates
+	 */
+	static final String ADD_CLASS = "add";
+
+	/**
+	 * the operation type of removing a class from all the cells and adding it to the cells of the given dates
+	 */
+	static final String RESET_CLASS = "reset";
+
+	/**
+	 * the operation type of removing a class from the cells of the given cell type
+	 */
+	static final String REMOVE_CLASS_BY_TYPE = "removeByType";
+
+	/**
+	 * the operation type of removing all the classes the model has sent from the cells, it is sent before the decorations
+	 * are sent again
+	 */
+	static final String CLEAR_CLIENT = "clear";
+
+	/**
+	 * the decoration model of the calendar
+	 */
+	private final DecorationModel model;
+
+	/**
+	 * the time zone of the {@link Date} conversions
+	 */
+	private final ZoneId zoneId;
+
+	DecorationBatch(DecorationModel model, ZoneId zoneId) {
+		this.model = model;
+		this.zoneId = zoneId;
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells of the given dates.
+	 * The dates are converted to local dates in the time zone of the calendar, see {@link AbstractSimpleCalendar#setZoneId(ZoneId)}.
+	 *
+	 * @param dates     {@link List<Date>} which cells have to me modified
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch addClassToCellByDates(List<Date> dates, String className) {
+		if ( dates != null ) {
+			ZoneRules rules = zoneId.getRules();
+			DateSet classDates = model.edit(className);
+			for ( Date date : dates ) {
+				classDates.add(CalendarUtils.toEpochDay(date.getTime(), rules));
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells of the given dates.
+	 *
+	 * @param dates     {@link Collection<LocalDate>} which cells have to me modified
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch addClassToCellByLocalDates(Collection<LocalDate> dates, String className) {
+		if ( dates != null ) {
+			model.add(className, dates);
+		}
+		return this;
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells of the streamed dates, ie: from a JDBC cursor.
+	 * The dates are added to the decoration model one by one, without an intermediate list; the stream is consumed.
+	 *
+	 * @param dates     {@link Stream<LocalDate>} which cells have to me modified
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch addClassToCellByLocalDates(Stream<LocalDate> dates, String className) {
+		if ( dates != null ) {
+			DateSet classDates = model.edit(className);
+			dates.forEachOrdered(classDates::add);
+		}
+		return this;
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells of the iterated dates, ie: from a JDBC cursor.
+	 * The dates are added to the decoration model one by one, without an intermediate list; the iterator is consumed.
+	 *
+	 * @param dates     {@link Iterator<LocalDate>} which cells have to me modified
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch addClassToCellByLocalDates(Iterator<LocalDate> dates, String className) {
+		if ( dates != null ) {
+			DateSet classDates = model.edit(className);
+			dates.forEachRemaining(classDates::add);
+		}
+		return this;
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells of the dates of the spliterator.
+	 * The dates are added to the decoration model one by one, without an intermediate list; the spliterator is consumed.
+	 *
+	 * @param dates     {@link Spliterator<LocalDate>} which cells have to me modified
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch addClassToCellByLocalDates(Spliterator<LocalDate> dates, String className) {
+		if ( dates != null ) {
+			DateSet classDates = model.edit(className);
+			dates.forEachRemaining(classDates::add);
+		}
+		return this;
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells of the dates of the set. The bitmaps of the set are merged
+	 * into the decoration model without converting the dates one by one.
+	 *
+	 * @param dates     {@link DateSet} which cells have to me modified
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch addClassToCellByDateSet(DateSet dates, String className) {
+		if ( dates != null ) {
+			model.edit(className).addAll(dates);
+		}
+		return this;
+	}
+
+	/**
+	 * Replace the dates of the given className style class. The class is removed from the cells which are not in the given
+	 * dates any more and added to the new ones.
+	 *
+	 * @param dates     {@link Collection<LocalDate>} the cells which have to have the class
+	 * @param className {@link String} the CSS style class
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch setClassToCellByLocalDates(Collection<LocalDate> dates, String className) {
+		model.set(className, dates != null ? new DateSet(dates) : new DateSet());
+		return this;
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells between from and to, both inclusive.
+	 * The range is evaluated lazily, only for the visible dates.
+	 *
+	 * @param from      {@link LocalDate} the first date of the range
+	 * @param to        {@link LocalDate} the last date of the range
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch addClassToRange(LocalDate from, LocalDate to, String className) {
+		return addClassByRule(Recurrence.range(from, to), className);
+	}
+
+	/**
+	 * Add the given className style class to the days TD cells which match the given rule, ie: a {@link Recurrence}.
+	 * The rule is evaluated lazily, only for the visible dates. A {@link Recurrence} or a modifiable {@link DateSet} is copied,
+	 * so changing it later doesn't change the decorations; add the changed rule again instead.
+	 *
+	 * @param rule      {@link DecorationRule} the rule of the decorated dates
+	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch addClassByRule(DecorationRule rule, String className) {
+		if ( rule instanceof Recurrence recurrence ) {
+			model.addRule(className, recurrence.copy());
+		} else if ( rule instanceof DateSet dateSet ) {
+			model.addRule(className, dateSet.toImmutable());
+		} else {
+			model.addRule(className, rule);
+		}
+		return this;
+	}
+
+	/**
+	 * Decorate the days by numeric values, ie: by occupancy. The values belong to the consecutive days from the given date,
+	 * every day gets the class of its bucket, and the classes of the buckets are replaced in this period.
+	 *
+	 * @param from    {@link LocalDate} the day of the first value, ie: the first day of the year
+	 * @param values  {@link int[]} the values of the consecutive days
+	 * @param buckets {@link HeatmapBuckets} the thresholds and the classes
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch setHeatmap(LocalDate from, int[] values, HeatmapBuckets buckets) {
+		DateSet[] bucketDates = createBucketDates(buckets);
+		long first = from.toEpochDay();
+		for ( int i = 0; i < values.length; i++ ) {
+			int bucket = buckets.bucketOf(values[i]);
+			if ( bucket >= 0 ) {
+				bucketDates[bucket].add(first + i);
+			}
+		}
+		return setBucketDates(from, values.length, buckets, bucketDates);
+	}
+
+	/**
+	 * Decorate the days by numeric values, ie: by occupancy. The values belong to the consecutive days from the given date,
+	 * every day gets the class of its bucket, and the classes of the buckets are replaced in this period.
+	 *
+	 * @param from    {@link LocalDate} the day of the first value, ie: the first day of the year
+	 * @param values  {@link double[]} the values of the consecutive days, NaN means no value
+	 * @param buckets {@link HeatmapBuckets} the thresholds and the classes
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch setHeatmap(LocalDate from, double[] values, HeatmapBuckets buckets) {
+		DateSet[] bucketDates = createBucketDates(buckets);
+		long first = from.toEpochDay();
+		for ( int i = 0; i < values.length; i++ ) {
+			int bucket = buckets.bucketOf(values[i]);
+			if ( bucket >= 0 ) {
+				bucketDates[bucket].add(first + i);
+			}
+		}
+		return setBucketDates(from, values.length, buckets, bucketDates);
+	}
+
+	private static DateSet[] createBucketDates(HeatmapBuckets buckets) {
+		DateSet[] bucketDates = new DateSet[buckets.size()];
+		for ( int i = 0; i < bucketDates.length; i++ ) {
+			bucketDates[i] = new DateSet();
+		}
+		return bucketDates;
+	}
+
+	private DecorationBatch setBucketDates(LocalDate from, int days, HeatmapBuckets buckets, DateSet[] bucketDates) {
+		if ( days == 0 ) {
+			return this;
+		}
+		LocalDate to = from.plusDays(days - 1L);
+		for ( int i = 0; i < bucketDates.length; i++ ) {
+			DateSet classDates = model.edit(buckets.getClassName(i));
+			classDates.removeAll(classDates.subSet(from, to));
+			classDates.addAll(bucketDates[i]);
+		}
+		return this;
+	}
+
+	/**
+	 * Remove the given className style class from the days TD cells of the given dates.
+	 * It doesn't affect the dates which come from rules.
+	 *
+	 * @param dates     {@link Collection<LocalDate>} which cells have to me modified
+	 * @param className {@link String} the CSS style class which have to be removed from the cell
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch removeClassFromCellByLocalDates(Collection<LocalDate> dates, String className) {
+		if ( dates != null ) {
+			model.remove(className, dates);
+		}
+		return this;
+	}
+
+	/**
+	 * Remove the given className style class from all the days TD cells, together with its rules.
+	 *
+	 * @param className {@link String} the CSS style class which have to be removed
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch removeClass(String className) {
+		model.clear(className);
+		return this;
+	}
+
+	/**
+	 * Remove style class from the TD cells which have the given cellType.
+	 * The days of the cell type are left out of the class, including the dates of its rules and of the data provider,
+	 * until the class is changed again, ie: by adding dates or a rule to it. The rules themselves are kept.
+	 *
+	 * @param cellType  {@link String} the cellType: "weekday" or "weekend"
+	 * @param className {@link String} the CSS style class name which have to be removed
+	 * @return this {@link DecorationBatch}
+	 */
+	public DecorationBatch removeClassFromCellByType(String cellType, String className) {
+		model.removeByType(cellType, className);
+		return this;
+	}
+}
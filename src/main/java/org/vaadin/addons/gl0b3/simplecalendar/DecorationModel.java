@@ -0,0 +1,509 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * The server side model of the cell decorations: which CSS classes belong to which dates, given explicitly, by
+ * {@link DecorationRule}s or by a {@link CalendarDataProvider}. The rules and the provider are evaluated only for the
+ * visible period of the calendar.
+ * It also remembers what the client already has in the visible period, so only the difference has to be sent.
+ * <p>
+ * The model is serialized compactly for the session replication: every class name is written once and interned when
+ * it is read, the date sets are written in their own compact form.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+class DecorationModel implements Serializable {
+
+	/**
+	 * the cell type of the working days
+	 */
+	static final String WEEKDAY = "weekday";
+
+	/**
+	 * the cell type of the weekend days
+	 */
+	static final String WEEKEND = "weekend";
+
+	/**
+	 * the wanted dates by CSS class names
+	 */
+	private transient Map<String, DateSet> classDates = new LinkedHashMap<>();
+
+	/**
+	 * the decoration rules by CSS class names
+	 */
+	private transient Map<String, List<DecorationRule>> classRules = new LinkedHashMap<>();
+
+	/**
+	 * the dates by CSS class names which are already decorated on the client
+	 */
+	private transient Map<String, DateSet> clientClassDates = new LinkedHashMap<>();
+
+	/**
+	 * the CSS class names whose dates have been changed since the last sync
+	 */
+	private transient Set<String> changedClasses = new LinkedHashSet<>();
+
+	/**
+	 * the pending "remove class by cell type" operations, [cellType, className] pairs
+	 */
+	private transient List<String[]> typeRemovals = new ArrayList<>();
+
+	/**
+	 * the cell types by CSS class names whose days are left out of the class, ie: the rule dates, until the class is changed again
+	 */
+	private transient Map<String, Set<String>> excludedTypes = new LinkedHashMap<>();
+
+	/**
+	 * the cached data provider, <code>null</code> if there is no provider
+	 */
+	private DataProviderCache dataProvider;
+
+	/**
+	 * the CSS class names which came from the data provider at the last sync
+	 */
+	private transient Set<String> providedClasses = new LinkedHashSet<>();
+
+	/**
+	 * <code>true</code> if the client had decorations when it has been reset, so the next sync has to tell it to forget them
+	 */
+	private boolean clientCleared = false;
+
+	/**
+	 * the maximum number of dates sent by one sync, the rest is sent by the next ones
+	 */
+	private int maxDatesPerSync = 10000;
+
+	/**
+	 * the number of the dates encoded by the last sync
+	 */
+	private long syncedDates = 0;
+
+	/**
+	 * the first date of the visible period at the last sync
+	 */
+	private LocalDate syncedFrom;
+
+	/**
+	 * the last date of the visible period at the last sync
+	 */
+	private LocalDate syncedTo;
+
+	void add(String className, Iterable<LocalDate> dates) {
+		edit(className).addAll(dates);
+	}
+
+	/**
+	 * Gives back the explicit dates of the class for modification and marks the class changed
+	 *
+	 * @param className {@link String} the CSS class name
+	 * @return the modifiable {@link DateSet} of the class
+	 */
+	DateSet edit(String className) {
+		excludedTypes.remove(className);
+		changedClasses.add(className);
+		return classDates.computeIfAbsent(className, name -> new DateSet());
+	}
+
+	void remove(String className, Iterable<LocalDate> dates) {
+		DateSet current = classDates.get(className);
+		if ( current != null ) {
+			for ( LocalDate date : dates ) {
+				current.remove(date);
+			}
+			changedClasses.add(className);
+		}
+	}
+
+	void set(String className, DateSet dates) {
+		excludedTypes.remove(className);
+		classDates.put(className, dates.copy());
+		changedClasses.add(className);
+	}
+
+	void addRule(String className, DecorationRule rule) {
+		excludedTypes.remove(className);
+		classRules.computeIfAbsent(className, name -> new ArrayList<>()).add(rule);
+		changedClasses.add(className);
+	}
+
+	/**
+	 * Marks the classes which have rules changed, so the rules are evaluated again at the next sync
+	 */
+	void refreshRules() {
+		changedClasses.addAll(classRules.keySet());
+	}
+
+	void setMaxDatesPerSync(int maxDatesPerSync) {
+		this.maxDatesPerSync = maxDatesPerSync;
+	}
+
+	/**
+	 * Gives back if a sync has left changes for the next one, because of the maximum number of dates per sync
+	 *
+	 * @return <code>true</code> if there are changes which have not been synced
+	 */
+	boolean hasPendingChanges() {
+		return !changedClasses.isEmpty() || !typeRemovals.isEmpty();
+	}
+
+	/**
+	 * Gives back the number of the dates encoded into the operations by the last sync
+	 *
+	 * @return {@link long} the number of the dates
+	 */
+	long getSyncedDates() {
+		return syncedDates;
+	}
+
+	DataProviderCache getDataProvider() {
+		return dataProvider;
+	}
+
+	void setDataProvider(DataProviderCache dataProvider) {
+		this.dataProvider = dataProvider;
+	}
+
+	void clear(String className) {
+		excludedTypes.remove(className);
+		classDates.remove(className);
+		classRules.remove(className);
+		changedClasses.add(className);
+	}
+
+	/**
+	 * Removes the class from the cells of the given type. The days of the type are left out of the class, including the
+	 * dates of its rules and of the data provider, until the class is changed again.
+	 *
+	 * @param cellType  {@link String} the cell type: "weekday" or "weekend"
+	 * @param className {@link String} the CSS class name
+	 */
+	void removeByType(String cellType, String className) {
+		removeDatesOfType(classDates.get(className), cellType);
+		if ( WEEKDAY.equals(cellType) || WEEKEND.equals(cellType) ) {
+			excludedTypes.computeIfAbsent(className, name -> new LinkedHashSet<>()).add(cellType);
+		}
+		typeRemovals.add(new String[] { cellType, className });
+		changedClasses.add(className);
+	}
+
+	/**
+	 * Forget everything the client had, ie: because it has been re-rendered or re-attached.
+	 * The next sync sends all the decorations again.
+	 */
+	void resetClient() {
+		clientCleared |= !clientClassDates.isEmpty();
+		clientClassDates.clear();
+		typeRemovals.clear();
+		syncedFrom = null;
+		syncedTo = null;
+	}
+
+	/**
+	 * Forget everything the client had and clear all the classes the model has ever sent from its cells in the next sync,
+	 * even if the model thinks the client has none, ie: because the client has applied decorations which the model doesn't
+	 * know. The next sync sends all the decorations again.
+	 */
+	void clearClient() {
+		resetClient();
+		clientCleared = true;
+	}
+
+	/**
+	 * Tell the model what the client has after it has been re-rendered and decorated from its own cache, ie: by the client
+	 * side navigation. The next sync sends only the difference to the given decorations.
+	 *
+	 * @param decorated {@link Map} the dates by CSS class names which the client has
+	 */
+	void assumeClient(Map<String, DateSet> decorated) {
+		clientClassDates.clear();
+		decorated.forEach((className, dates) -> clientClassDates.put(className, dates.copy()));
+		typeRemovals.clear();
+		syncedFrom = null;
+		syncedTo = null;
+	}
+
+	/**
+	 * Creates the operations which bring the visible period of the client to the state of the model and marks the model synced.
+	 * If the visible period has been changed, the client state is limited to the new period and all the classes are
+	 * evaluated again.
+	 * If the client has been reset, the first operation tells it to forget its decorations.
+	 * If the client has dates which are not wanted any more, the class is removed from all the cells and
+	 * the remaining dates are sent again, because the client can remove classes only by cell type.
+	 * At most the given maximum number of dates is sent, the classes which have not been sent completely stay changed.
+	 *
+	 * @param from {@link LocalDate} the first visible date
+	 * @param to   {@link LocalDate} the last visible date
+	 * @return {@link JsonArray} the operations for the client
+	 */
+	JsonArray sync(LocalDate from, LocalDate to) {
+		syncedDates = 0;
+		if ( !from.equals(syncedFrom) || !to.equals(syncedTo) ) {
+			syncedFrom = from;
+			syncedTo = to;
+			clientClassDates.replaceAll((className, dates) -> dates.subSet(from, to));
+			changedClasses.addAll(classDates.keySet());
+			changedClasses.addAll(classRules.keySet());
+			changedClasses.addAll(clientClassDates.keySet());
+		}
+		Map<String, DateSet> provided = dataProvider != null ? dataProvider.get(from, to) : Map.of();
+		changedClasses.addAll(providedClasses);
+		changedClasses.addAll(provided.keySet());
+		providedClasses = new LinkedHashSet<>(provided.keySet());
+
+		JsonArray operations = Json.createArray();
+		if ( clientCleared ) {
+			JsonObject operation = Json.createObject();
+			operation.put("type", DecorationBatch.CLEAR_CLIENT);
+			operations.set(operations.length(), operation);
+			clientCleared = false;
+		}
+		for ( String[] typeRemoval : typeRemovals ) {
+			JsonObject operation = Json.createObject();
+			operation.put("type", DecorationBatch.REMOVE_CLASS_BY_TYPE);
+			operation.put("cellType", typeRemoval[0]);
+			operation.put("className", typeRemoval[1]);
+			operations.set(operations.length(), operation);
+			removeDatesOfType(clientClassDates.get(typeRemoval[1]), typeRemoval[0]);
+		}
+		typeRemovals.clear();
+
+		int budget = maxDatesPerSync;
+		for ( Iterator<String> classes = changedClasses.iterator(); classes.hasNext() && budget > 0; ) {
+			String className = classes.next();
+			DateSet wanted = collectWanted(className, from, to);
+			if ( provided.containsKey(className) ) {
+				wanted.addAll(provided.get(className));
+			}
+			excludeTypes(className, wanted);
+			DateSet client = clientClassDates.getOrDefault(className, new DateSet());
+			boolean complete = true;
+			if ( !client.difference(wanted).isEmpty() ) {
+				DateSet sent = wanted.size() > budget ? wanted.head(budget) : wanted;
+				operations.set(operations.length(), createOperation(DecorationBatch.RESET_CLASS, className, sent));
+				budget -= sent.size();
+				complete = sent == wanted;
+				client = sent.copy();
+			} else {
+				DateSet added = wanted.difference(client);
+				if ( !added.isEmpty() ) {
+					DateSet sent = added.size() > budget ? added.head(budget) : added;
+					operations.set(operations.length(), createOperation(DecorationBatch.ADD_CLASS, className, sent));
+					budget -= sent.size();
+					complete = sent == added;
+					client.addAll(sent);
+				}
+			}
+			if ( client.isEmpty() ) {
+				clientClassDates.remove(className);
+			} else {
+				clientClassDates.put(className, client);
+			}
+			DateSet explicit = classDates.get(className);
+			if ( complete && explicit != null && explicit.isEmpty() ) {
+				classDates.remove(className);
+			}
+			if ( complete ) {
+				classes.remove();
+			}
+		}
+		return operations;
+	}
+
+	/**
+	 * Gives back all the decorated dates of the period by CSS class names, including the rules and the data provider.
+	 * It doesn't change what the model knows about the client.
+	 *
+	 * @param from {@link LocalDate} the first date of the period
+	 * @param to   {@link LocalDate} the last date of the period
+	 * @return {@link Map} the dates by CSS class names
+	 */
+	Map<String, DateSet> getDecorations(LocalDate from, LocalDate to) {
+		Map<String, DateSet> decorations = new LinkedHashMap<>();
+		Set<String> classNames = new LinkedHashSet<>(classDates.keySet());
+		classNames.addAll(classRules.keySet());
+		for ( String className : classNames ) {
+			decorations.put(className, collectWanted(className, from, to));
+		}
+		if ( dataProvider != null ) {
+			dataProvider.get(from, to).forEach((className, dates) -> decorations.computeIfAbsent(className, name -> new DateSet()).addAll(dates));
+		}
+		decorations.forEach(this::excludeTypes);
+		decorations.values().removeIf(DateSet::isEmpty);
+		return decorations;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		Map<String, Integer> names = new LinkedHashMap<>();
+		collectNames(names, classDates.keySet());
+		collectNames(names, classRules.keySet());
+		collectNames(names, clientClassDates.keySet());
+		collectNames(names, providedClasses);
+		for ( String[] removal : typeRemovals ) {
+			collectNames(names, List.of(removal));
+		}
+		collectNames(names, excludedTypes.keySet());
+		collectNames(names, List.of(WEEKDAY, WEEKEND));
+		out.writeInt(names.size());
+		for ( String name : names.keySet() ) {
+			out.writeUTF(name);
+		}
+		writeDates(out, names, classDates);
+		out.writeInt(classRules.size());
+		for ( Map.Entry<String, List<DecorationRule>> entry : classRules.entrySet() ) {
+			out.writeInt(names.get(entry.getKey()));
+			out.writeInt(entry.getValue().size());
+			for ( DecorationRule rule : entry.getValue() ) {
+				out.writeObject(rule);
+			}
+		}
+		writeDates(out, names, clientClassDates);
+		writeNames(out, names, changedClasses);
+		writeNames(out, names, providedClasses);
+		out.writeInt(typeRemovals.size());
+		for ( String[] removal : typeRemovals ) {
+			out.writeInt(names.get(removal[0]));
+			out.writeInt(names.get(removal[1]));
+		}
+		out.writeInt(excludedTypes.size());
+		for ( Map.Entry<String, Set<String>> entry : excludedTypes.entrySet() ) {
+			out.writeInt(names.get(entry.getKey()));
+			writeNames(out, names, entry.getValue());
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		String[] names = new String[in.readInt()];
+		for ( int i = 0; i < names.length; i++ ) {
+			names[i] = in.readUTF().intern();
+		}
+		classDates = readDates(in, names);
+		classRules = new LinkedHashMap<>();
+		for ( int count = in.readInt(); count > 0; count-- ) {
+			String className = readName(in, names);
+			List<DecorationRule> rules = new ArrayList<>();
+			for ( int ruleCount = in.readInt(); ruleCount > 0; ruleCount-- ) {
+				rules.add((DecorationRule) in.readObject());
+			}
+			classRules.put(className, rules);
+		}
+		clientClassDates = readDates(in, names);
+		changedClasses = readNames(in, names);
+		providedClasses = readNames(in, names);
+		typeRemovals = new ArrayList<>();
+		for ( int count = in.readInt(); count > 0; count-- ) {
+			typeRemovals.add(new String[] { readName(in, names), readName(in, names) });
+		}
+		excludedTypes = new LinkedHashMap<>();
+		for ( int count = in.readInt(); count > 0; count-- ) {
+			String className = readName(in, names);
+			excludedTypes.put(className, readNames(in, names));
+		}
+	}
+
+	private static void collectNames(Map<String, Integer> names, Iterable<String> values) {
+		for ( String value : values ) {
+			names.putIfAbsent(value, names.size());
+		}
+	}
+
+	private static void writeNames(ObjectOutputStream out, Map<String, Integer> names, Set<String> values) throws IOException {
+		out.writeInt(values.size());
+		for ( String value : values ) {
+			out.writeInt(names.get(value));
+		}
+	}
+
+	private static Set<String> readNames(ObjectInputStream in, String[] names) throws IOException {
+		Set<String> values = new LinkedHashSet<>();
+		for ( int count = in.readInt(); count > 0; count-- ) {
+			values.add(readName(in, names));
+		}
+		return values;
+	}
+
+	private static String readName(ObjectInputStream in, String[] names) throws IOException {
+		int index = in.readInt();
+		if ( index < 0 || index >= names.length ) {
+			throw new IOException("Invalid class name index: " + index);
+		}
+		return names[index];
+	}
+
+	private static void writeDates(ObjectOutputStream out, Map<String, Integer> names, Map<String, DateSet> dates) throws IOException {
+		out.writeInt(dates.size());
+		for ( Map.Entry<String, DateSet> entry : dates.entrySet() ) {
+			out.writeInt(names.get(entry.getKey()));
+			entry.getValue().writeDates(out);
+		}
+	}
+
+	private static Map<String, DateSet> readDates(ObjectInputStream in, String[] names) throws IOException {
+		Map<String, DateSet> dates = new LinkedHashMap<>();
+		for ( int count = in.readInt(); count > 0; count-- ) {
+			String className = readName(in, names);
+			dates.put(className, DateSet.readDates(in));
+		}
+		return dates;
+	}
+
+	private DateSet collectWanted(String className, LocalDate from, LocalDate to) {
+		DateSet wanted = new DateSet();
+		DateSet explicit = classDates.get(className);
+		if ( explicit != null ) {
+			explicit.collectDates(from, to, wanted);
+		}
+		for ( DecorationRule rule : classRules.getOrDefault(className, List.of()) ) {
+			rule.collectDates(from, to, wanted);
+		}
+		return wanted;
+	}
+
+	private void excludeTypes(String className, DateSet dates) {
+		for ( String cellType : excludedTypes.getOrDefault(className, Set.of()) ) {
+			removeDatesOfType(dates, cellType);
+		}
+	}
+
+	private JsonObject createOperation(String type, String className, DateSet dates) {
+		syncedDates += dates.size();
+		JsonObject operation = Json.createObject();
+		operation.put("type", type);
+		operation.put("dates", CalendarUtils.encodeDates(dates));
+		operation.put("className", className);
+		return operation;
+	}
+
+	private static void removeDatesOfType(DateSet dates, String cellType) {
+		if ( dates == null || !(WEEKDAY.equals(cellType) || WEEKEND.equals(cellType)) ) {
+			return;
+		}
+		DateSet ofType = new DateSet();
+		boolean weekend = WEEKEND.equals(cellType);
+		dates.forEachEpochDay(epochDay -> {
+			// 1970-01-01 was a Thursday, so Monday is 0 and the weekend is 5 and 6
+			if ( (Math.floorMod(epochDay + 3, 7) >= 5) == weekend ) {
+				ofType.add(epochDay);
+			}
+		});
+		dates.removeAll(ofType);
+	}
+}
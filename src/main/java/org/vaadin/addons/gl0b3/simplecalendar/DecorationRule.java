@@ -0,0 +1,23 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A rule which tells the decorated dates of a CSS class. The rule is evaluated lazily, only for the dates the calendar
+ * is currently showing, so the memory and the payload are proportional to the number of rules, not to the number of days.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+@FunctionalInterface
+public interface DecorationRule extends Serializable {
+
+	/**
+	 * Add the dates which match the rule between from and to (both inclusive) to the given set
+	 *
+	 * @param from  {@link LocalDate} the first date of the evaluated period
+	 * @param to    {@link LocalDate} the last date of the evaluated period
+	 * @param dates {@link DateSet} the set which collects the matching dates
+	 */
+	void collectDates(LocalDate from, LocalDate to, DateSet dates);
+}
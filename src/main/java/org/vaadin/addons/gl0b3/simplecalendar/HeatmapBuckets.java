@@ -0,0 +1,96 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The buckets of a heatmap: ascending thresholds and the CSS classes of the values which reach them.
+ * A value gets the class of the highest threshold which is not greater than the value; the values below the first
+ * threshold and the NaN values get no class.
+ * <p>
+ * Usage: <code>HeatmapBuckets.of().from(1, "low").from(5, "medium").from(10, "full")</code>
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public class HeatmapBuckets implements Serializable {
+
+	/**
+	 * the ascending thresholds
+	 */
+	private double[] thresholds = new double[0];
+
+	/**
+	 * the CSS class names of the thresholds
+	 */
+	private String[] classNames = new String[0];
+
+	private HeatmapBuckets() {
+	}
+
+	/**
+	 * Creates buckets without thresholds, add them with {@link #from(double, String)}
+	 *
+	 * @return the new {@link HeatmapBuckets}
+	 */
+	public static HeatmapBuckets of() {
+		return new HeatmapBuckets();
+	}
+
+	/**
+	 * Add a bucket which starts at the given threshold. The thresholds have to be added in ascending order.
+	 *
+	 * @param threshold {@link double} the smallest value of the bucket
+	 * @param className {@link String} the CSS style class of the bucket
+	 * @return this {@link HeatmapBuckets}
+	 * @throws IllegalArgumentException if the threshold is NaN or not greater than the previous one
+	 */
+	public HeatmapBuckets from(double threshold, String className) {
+		if ( Double.isNaN(threshold) ) {
+			throw new IllegalArgumentException("The threshold can't be NaN");
+		}
+		// -0.0 is stored as 0.0, the binary search would order them
+		threshold += 0.0;
+		int count = thresholds.length;
+		if ( count > 0 && !(threshold > thresholds[count - 1]) ) {
+			throw new IllegalArgumentException("The thresholds have to be ascending: " + threshold + " after " + thresholds[count - 1]);
+		}
+		thresholds = Arrays.copyOf(thresholds, count + 1);
+		classNames = Arrays.copyOf(classNames, count + 1);
+		thresholds[count] = threshold;
+		classNames[count] = className;
+		return this;
+	}
+
+	/**
+	 * Gives back the number of the buckets
+	 *
+	 * @return {@link int} the number of the buckets
+	 */
+	public int size() {
+		return thresholds.length;
+	}
+
+	/**
+	 * Gives back the CSS class of the given bucket
+	 *
+	 * @param bucket {@link int} the index of the bucket
+	 * @return {@link String} the CSS class name
+	 */
+	public String getClassName(int bucket) {
+		return classNames[bucket];
+	}
+
+	/**
+	 * Gives back the bucket of the given value
+	 *
+	 * @param value {@link double} the value of a day
+	 * @return {@link int} the index of the bucket, -1 if the value is below the first threshold or NaN
+	 */
+	public int bucketOf(double value) {
+		if ( Double.isNaN(value) ) {
+			return -1;
+		}
+		int index = Arrays.binarySearch(thresholds, value + 0.0);
+		return index >= 0 ? index : -index - 2;
+	}
+}
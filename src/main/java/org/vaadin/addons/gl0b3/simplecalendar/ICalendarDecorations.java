@@ -0,0 +1,129 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The decorations imported from an iCalendar feed by the {@link ICalendarReader}. The single events are kept as compact
+ * {@link DateSet}s, the recurring events as lazily evaluated {@link DecorationRule}s.
+ * <p>
+ * It applies the imported decorations to a calendar: <code>calendar.decorate(decorations)</code>.
+ * Importing the same feed again adds the rules again, so remove the classes of the previous import first.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public class ICalendarDecorations implements Consumer<DecorationBatch>, Serializable {
+
+	/**
+	 * the dates of the single events by CSS class names
+	 */
+	private final Map<String, DateSet> classDates = new LinkedHashMap<>();
+
+	/**
+	 * the rules of the recurring events by CSS class names
+	 */
+	private final Map<String, List<DecorationRule>> classRules = new LinkedHashMap<>();
+
+	/**
+	 * the number of the imported events
+	 */
+	private int eventCount = 0;
+
+	/**
+	 * the number of the events which could not be imported, ie: because of an unsupported recurrence rule
+	 */
+	private int skippedEventCount = 0;
+
+	ICalendarDecorations() {
+	}
+
+	/**
+	 * Gives back the CSS class names of the imported decorations
+	 *
+	 * @return {@link Set<String>} the class names
+	 */
+	public Set<String> getClassNames() {
+		Set<String> classNames = new LinkedHashSet<>(classDates.keySet());
+		classNames.addAll(classRules.keySet());
+		return classNames;
+	}
+
+	/**
+	 * Gives back the dates of the single events of the class
+	 *
+	 * @param className {@link String} the CSS class name
+	 * @return the {@link DateSet}, empty if the class has no single events
+	 */
+	public DateSet getDates(String className) {
+		DateSet dates = classDates.get(className);
+		return dates != null ? dates.toImmutable() : new DateSet().toImmutable();
+	}
+
+	/**
+	 * Gives back the rules of the recurring events of the class
+	 *
+	 * @param className {@link String} the CSS class name
+	 * @return {@link List<DecorationRule>} the rules, empty if the class has no recurring events
+	 */
+	public List<DecorationRule> getRules(String className) {
+		return List.copyOf(classRules.getOrDefault(className, List.of()));
+	}
+
+	/**
+	 * Gives back the number of the imported events
+	 *
+	 * @return {@link int} the number of the events
+	 */
+	public int getEventCount() {
+		return eventCount;
+	}
+
+	/**
+	 * Gives back the number of the events which could not be imported, ie: because of an invalid date or an unsupported
+	 * recurrence rule
+	 *
+	 * @return {@link int} the number of the skipped events
+	 */
+	public int getSkippedEventCount() {
+		return skippedEventCount;
+	}
+
+	/**
+	 * Add the imported decorations to the batch
+	 *
+	 * @param batch {@link DecorationBatch} the batch of the decorated calendar
+	 */
+	@Override
+	public void accept(DecorationBatch batch) {
+		for ( Map.Entry<String, DateSet> entry : classDates.entrySet() ) {
+			batch.addClassToCellByDateSet(entry.getValue(), entry.getKey());
+		}
+		for ( Map.Entry<String, List<DecorationRule>> entry : classRules.entrySet() ) {
+			for ( DecorationRule rule : entry.getValue() ) {
+				batch.addClassByRule(rule, entry.getKey());
+			}
+		}
+	}
+
+	DateSet editDates(String className) {
+		return classDates.computeIfAbsent(className, name -> new DateSet());
+	}
+
+	void addRule(String className, DecorationRule rule) {
+		classRules.computeIfAbsent(className, name -> new ArrayList<>()).add(rule);
+	}
+
+	void countEvent() {
+		eventCount++;
+	}
+
+	void countSkippedEvent() {
+		skippedEventCount++;
+	}
+}
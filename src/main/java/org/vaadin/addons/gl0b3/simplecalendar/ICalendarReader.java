@@ -0,0 +1,495 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Streaming reader of iCalendar (RFC 5545) feeds, ie: holiday or absence feeds, into cell decorations.
+ * The feed is read in one pass through NIO buffers, a local file is memory-mapped, and only the properties of the VEVENT
+ * components which are needed for the decorations are decoded; the long texts, like the descriptions, are skipped.
+ * <p>
+ * Every event gets the CSS class given by the classifier, the events without a class are skipped. The single events are
+ * collected into {@link DateSet}s, the recurring events (RRULE) become {@link Recurrence} rules which are expanded lazily,
+ * only for the period the calendar is showing.
+ * <pre>
+ * ICalendarReader reader = new ICalendarReader(event -&gt; event.categories().contains("HOLIDAY") ? "holiday" : "absence");
+ * yearCalendar.decorate(reader.read(Path.of("feed.ics")));
+ * </pre>
+ * The dates are taken as they are written in the feed, the date-times are not converted between time zones. An event
+ * covers the days from its start to its end, the end itself is excluded if it is midnight. The events with an invalid
+ * date or an unsupported recurrence rule are skipped and counted, see {@link ICalendarDecorations#getSkippedEventCount()}.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public class ICalendarReader {
+
+	/**
+	 * An event of the feed, as it is given to the classifier
+	 *
+	 * @param uid            the UID of the event, can be <code>null</code>
+	 * @param summary        the SUMMARY of the event, can be <code>null</code>
+	 * @param categories     the CATEGORIES of the event
+	 * @param status         the STATUS of the event, ie: "CANCELLED", can be <code>null</code>
+	 * @param start          the first day of the (first occurrence of the) event
+	 * @param end            the last day of the (first occurrence of the) event
+	 * @param recurrenceRule the RRULE of the event, <code>null</code> if it is a single event
+	 */
+	public record Event(String uid, String summary, List<String> categories, String status, LocalDate start, LocalDate end,
+			String recurrenceRule) {
+	}
+
+	/**
+	 * the size of the memory-mapped windows of a file
+	 */
+	private static final int MAP_WINDOW = 64 * 1024 * 1024;
+
+	/**
+	 * the size of the buffer of a stream
+	 */
+	private static final int STREAM_BUFFER = 64 * 1024;
+
+	/**
+	 * the longest content line which is kept, the longer ones are skipped
+	 */
+	private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+	/**
+	 * the properties of the events which are decoded
+	 */
+	private static final Set<String> EVENT_PROPERTIES = Set.of("BEGIN", "END", "UID", "SUMMARY", "CATEGORIES", "STATUS",
+			"DTSTART", "DTEND", "DURATION", "RRULE", "RDATE", "EXDATE");
+
+	/**
+	 * the properties which are decoded outside of the events
+	 */
+	private static final Set<String> COMPONENT_PROPERTIES = Set.of("BEGIN", "END");
+
+	/**
+	 * gives the CSS class of an event, <code>null</code> to skip the event
+	 */
+	private final Function<Event, String> classifier;
+
+	/**
+	 * the first imported date, <code>null</code> means unbounded
+	 */
+	private LocalDate rangeFrom;
+
+	/**
+	 * the last imported date, <code>null</code> means unbounded
+	 */
+	private LocalDate rangeTo;
+
+	/**
+	 * Creates a reader which decorates all the events with the same class
+	 *
+	 * @param className {@link String} the CSS class of the events
+	 */
+	public ICalendarReader(String className) {
+		this(event -> className);
+	}
+
+	/**
+	 * Creates a reader which decorates the events with the class given by the classifier
+	 *
+	 * @param classifier {@link Function} which gives the CSS class of an {@link Event}, <code>null</code> to skip the event
+	 */
+	public ICalendarReader(Function<Event, String> classifier) {
+		this.classifier = Objects.requireNonNull(classifier);
+	}
+
+	/**
+	 * Import only the dates between from and to (both inclusive). The single events outside of the range are dropped,
+	 * so a feed of many years costs only the memory of the range.
+	 *
+	 * @param from {@link LocalDate} the first date, <code>null</code> means unbounded
+	 * @param to   {@link LocalDate} the last date, <code>null</code> means unbounded
+	 * @return this {@link ICalendarReader}
+	 */
+	public ICalendarReader setRange(LocalDate from, LocalDate to) {
+		this.rangeFrom = from;
+		this.rangeTo = to;
+		return this;
+	}
+
+	/**
+	 * Read the feed from a file, which is memory-mapped in windows of {@value #MAP_WINDOW} bytes
+	 *
+	 * @param file {@link Path} the .ics file
+	 * @return the imported {@link ICalendarDecorations}
+	 * @throws IOException if the file can't be read
+	 */
+	public ICalendarDecorations read(Path file) throws IOException {
+		Parser parser = new Parser();
+		try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ) ) {
+			long size = channel.size();
+			for ( long position = 0; position < size; position += MAP_WINDOW ) {
+				parser.accept(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position)));
+			}
+		}
+		return parser.finish();
+	}
+
+	/**
+	 * Read the feed from a stream, ie: from an HTTP response. The stream is read to its end but not closed.
+	 *
+	 * @param in {@link InputStream} the stream of the feed
+	 * @return the imported {@link ICalendarDecorations}
+	 * @throws IOException if the stream can't be read
+	 */
+	public ICalendarDecorations read(InputStream in) throws IOException {
+		Parser parser = new Parser();
+		ReadableByteChannel channel = Channels.newChannel(in);
+		ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER);
+		while ( channel.read(buffer) >= 0 ) {
+			buffer.flip();
+			parser.accept(buffer);
+			buffer.clear();
+		}
+		return parser.finish();
+	}
+
+	/**
+	 * Unfolds the content lines of the feed byte by byte and collects the properties of the events
+	 */
+	private final class Parser {
+
+		private final ICalendarDecorations decorations = new ICalendarDecorations();
+
+		private final byte[] chunk = new byte[8192];
+
+		private byte[] line = new byte[256];
+
+		private int length = 0;
+
+		private int nameEnd = -1;
+
+		private boolean skipping = false;
+
+		private boolean lineEnded = false;
+
+		/**
+		 * <code>true</code> inside a VEVENT
+		 */
+		private boolean inEvent = false;
+
+		/**
+		 * the depth of the components inside the VEVENT, ie: VALARM
+		 */
+		private int nestedDepth = 0;
+
+		private String uid;
+
+		private String summary;
+
+		private List<String> categories = new ArrayList<>();
+
+		private String status;
+
+		private String dtStart;
+
+		private String dtEnd;
+
+		private String duration;
+
+		private String rrule;
+
+		private final List<String> rdates = new ArrayList<>();
+
+		private final List<String> exdates = new ArrayList<>();
+
+		void accept(ByteBuffer buffer) {
+			while ( buffer.hasRemaining() ) {
+				int count = Math.min(chunk.length, buffer.remaining());
+				buffer.get(chunk, 0, count);
+				for ( int i = 0; i < count; i++ ) {
+					accept(chunk[i]);
+				}
+			}
+		}
+
+		ICalendarDecorations finish() {
+			completeLine();
+			return decorations;
+		}
+
+		private void accept(byte b) {
+			if ( lineEnded ) {
+				lineEnded = false;
+				if ( b == ' ' || b == '\t' ) {
+					// a folded line goes on
+					return;
+				}
+				completeLine();
+			}
+			if ( b == '\n' ) {
+				lineEnded = true;
+				return;
+			}
+			if ( b == '\r' || skipping ) {
+				return;
+			}
+			if ( length == MAX_LINE_LENGTH ) {
+				skipping = true;
+				return;
+			}
+			if ( length == line.length ) {
+				line = Arrays.copyOf(line, Math.min(line.length * 2, MAX_LINE_LENGTH));
+			}
+			line[length++] = b;
+			if ( nameEnd < 0 && (b == ';' || b == ':') ) {
+				nameEnd = length - 1;
+				Set<String> properties = inEvent && nestedDepth == 0 ? EVENT_PROPERTIES : COMPONENT_PROPERTIES;
+				skipping = !properties.contains(new String(line, 0, nameEnd, StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT));
+			}
+		}
+
+		private void completeLine() {
+			if ( !skipping && nameEnd > 0 ) {
+				String content = new String(line, 0, length, StandardCharsets.UTF_8);
+				int separator = valueSeparator(content);
+				if ( separator > 0 ) {
+					onProperty(content.substring(0, nameEnd).toUpperCase(Locale.ROOT), content.substring(separator + 1));
+				}
+			}
+			length = 0;
+			nameEnd = -1;
+			skipping = false;
+		}
+
+		private void onProperty(String name, String value) {
+			if ( name.equals("BEGIN") ) {
+				if ( inEvent ) {
+					nestedDepth++;
+				} else if ( value.equalsIgnoreCase("VEVENT") ) {
+					inEvent = true;
+				}
+			} else if ( name.equals("END") ) {
+				if ( nestedDepth > 0 ) {
+					nestedDepth--;
+				} else if ( inEvent && value.equalsIgnoreCase("VEVENT") ) {
+					completeEvent();
+				}
+			} else {
+				switch ( name ) {
+					case "UID" -> uid = value;
+					case "SUMMARY" -> summary = unescape(value);
+					case "CATEGORIES" -> categories.addAll(splitText(value));
+					case "STATUS" -> status = value.toUpperCase(Locale.ROOT);
+					case "DTSTART" -> dtStart = value;
+					case "DTEND" -> dtEnd = value;
+					case "DURATION" -> duration = value;
+					case "RRULE" -> rrule = value;
+					case "RDATE" -> rdates.addAll(List.of(value.split(",")));
+					case "EXDATE" -> exdates.addAll(List.of(value.split(",")));
+					default -> {
+						// not needed for the decorations
+					}
+				}
+			}
+		}
+
+		private void completeEvent() {
+			try {
+				addEvent();
+			} catch ( DateTimeException | IllegalArgumentException | IndexOutOfBoundsException e ) {
+				decorations.countSkippedEvent();
+			}
+			inEvent = false;
+			uid = null;
+			summary = null;
+			categories = new ArrayList<>();
+			status = null;
+			dtStart = null;
+			dtEnd = null;
+			duration = null;
+			rrule = null;
+			rdates.clear();
+			exdates.clear();
+		}
+
+		private void addEvent() {
+			if ( dtStart == null ) {
+				throw new IllegalArgumentException("Missing DTSTART");
+			}
+			LocalDateTime start = parseDateTime(dtStart);
+			boolean allDay = isDate(dtStart);
+			LocalDateTime end;
+			if ( dtEnd != null ) {
+				end = parseDateTime(dtEnd);
+			} else if ( duration != null ) {
+				end = start.plus(parseDuration(duration));
+			} else {
+				end = allDay ? start.plusDays(1) : start;
+			}
+			LocalDate first = start.toLocalDate();
+			LocalDate last = end.isAfter(start) ? end.minusNanos(1).toLocalDate() : first;
+			String className = classifier.apply(new Event(uid, summary, List.copyOf(categories), status, first, last, rrule));
+			if ( className == null ) {
+				return;
+			}
+			int days = (int) (last.toEpochDay() - first.toEpochDay() + 1);
+			if ( rrule != null ) {
+				Recurrence recurrence = Recurrence.parse(rrule, first);
+				if ( rangeTo == null || !first.isAfter(rangeTo) ) {
+					DateSet excluded = new DateSet();
+					for ( String exdate : exdates ) {
+						excluded.add(parseDateTime(exdate).toLocalDate());
+					}
+					decorations.addRule(className, days == 1 && excluded.isEmpty() ? recurrence
+							: new EventRule(recurrence, days, excluded.toImmutable()));
+				}
+			} else {
+				addDays(decorations.editDates(className), first, days);
+			}
+			for ( String rdate : rdates ) {
+				addDays(decorations.editDates(className), parseDateTime(rdate).toLocalDate(), days);
+			}
+			decorations.countEvent();
+		}
+
+		private void addDays(DateSet dates, LocalDate first, int days) {
+			long from = first.toEpochDay();
+			long to = from + days - 1;
+			if ( rangeFrom != null ) {
+				from = Math.max(from, rangeFrom.toEpochDay());
+			}
+			if ( rangeTo != null ) {
+				to = Math.min(to, rangeTo.toEpochDay());
+			}
+			for ( long day = from; day <= to; day++ ) {
+				dates.add(day);
+			}
+		}
+	}
+
+	/**
+	 * Gives back the position of the colon which separates the value, the colons inside quoted parameter values are skipped
+	 */
+	private static int valueSeparator(String content) {
+		boolean quoted = false;
+		for ( int i = 0; i < content.length(); i++ ) {
+			char c = content.charAt(i);
+			if ( c == '"' ) {
+				quoted = !quoted;
+			} else if ( c == ':' && !quoted ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isDate(String value) {
+		return value.trim().length() == 8;
+	}
+
+	/**
+	 * Parses a DATE (<code>20240101</code>) or DATE-TIME (<code>20240101T090000</code>, optionally with a Z suffix) value
+	 */
+	private static LocalDateTime parseDateTime(String value) {
+		String trimmed = value.trim();
+		LocalDate date = LocalDate.parse(trimmed.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+		if ( trimmed.length() < 15 || trimmed.charAt(8) != 'T' ) {
+			return date.atStartOfDay();
+		}
+		return date.atTime(LocalTime.of(Integer.parseInt(trimmed.substring(9, 11)), Integer.parseInt(trimmed.substring(11, 13)),
+				Integer.parseInt(trimmed.substring(13, 15))));
+	}
+
+	/**
+	 * Parses a DURATION value, ie: <code>P1D</code>, <code>PT2H</code> or <code>P2W</code>
+	 */
+	private static Duration parseDuration(String value) {
+		String trimmed = value.trim().toUpperCase(Locale.ROOT);
+		Duration duration;
+		if ( trimmed.endsWith("W") ) {
+			int sign = trimmed.startsWith("-") ? -1 : 1;
+			duration = Duration.ofDays(7L * sign * Integer.parseInt(trimmed.substring(trimmed.indexOf('P') + 1, trimmed.length() - 1)));
+		} else {
+			duration = Duration.parse(trimmed);
+		}
+		if ( duration.isNegative() ) {
+			throw new IllegalArgumentException("Negative duration: " + value);
+		}
+		return duration;
+	}
+
+	/**
+	 * Splits a TEXT list value at the not escaped commas and unescapes the parts
+	 */
+	private static List<String> splitText(String value) {
+		List<String> parts = new ArrayList<>();
+		int start = 0;
+		for ( int i = 0; i < value.length(); i++ ) {
+			char c = value.charAt(i);
+			if ( c == '\\' ) {
+				i++;
+			} else if ( c == ',' ) {
+				parts.add(unescape(value.substring(start, i)));
+				start = i + 1;
+			}
+		}
+		parts.add(unescape(value.substring(start)));
+		return parts;
+	}
+
+	private static String unescape(String value) {
+		if ( value.indexOf('\\') < 0 ) {
+			return value;
+		}
+		StringBuilder text = new StringBuilder(value.length());
+		for ( int i = 0; i < value.length(); i++ ) {
+			char c = value.charAt(i);
+			if ( c == '\\' && i + 1 < value.length() ) {
+				char escaped = value.charAt(++i);
+				text.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+			} else {
+				text.append(c);
+			}
+		}
+		return text.toString();
+	}
+
+	/**
+	 * The days of the occurrences of a recurring event which lasts more days or has excluded occurrences
+	 *
+	 * @param occurrences the rule of the first days of the occurrences
+	 * @param days        the number of the days of an occurrence
+	 * @param excluded    the first days of the excluded occurrences (EXDATE)
+	 */
+	private record EventRule(DecorationRule occurrences, int days, DateSet excluded) implements DecorationRule {
+
+		@Override
+		public void collectDates(LocalDate from, LocalDate to, DateSet dates) {
+			DateSet starts = new DateSet();
+			occurrences.collectDates(from.minusDays(days - 1L), to, starts);
+			starts.removeAll(excluded);
+			long first = from.toEpochDay();
+			long last = to.toEpochDay();
+			starts.forEachEpochDay(start -> {
+				for ( long day = Math.max(start, first); day < start + days && day <= last; day++ ) {
+					dates.add(day);
+				}
+			});
+		}
+	}
+}
@@ -1,10 +1,7 @@
 package org.vaadin.addons.gl0b3.simplecalendar;
 
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.time.ZoneId;
-import java.util.Date;
 import java.util.List;
 
 import com.vaadin.flow.component.Tag;
@@ -35,7 +32,7 @@ public class MonthCalendar extends AbstractSimpleCalendar {
 	}
 
 	/**
-	 * Constructor with the frequently used parameters. The values are sent to the client immediately.
+	 * Constructor with the frequently used parameters. The values are sent to the client with the next response.
 	 *
 	 * @param year        {@link int}
 	 * @param month       {@link int}
@@ -43,10 +40,14 @@ public class MonthCalendar extends AbstractSimpleCalendar {
 	 * @param yearIsFirst {@link boolean}
 	 */
 	public MonthCalendar(int year, int month, String locale, boolean yearIsFirst) {
-		getElement().setAttribute("year", String.valueOf(year));
-		getElement().setAttribute("month", String.valueOf(month));
-		getElement().setAttribute("locale", locale);
-		getElement().setAttribute("year-is-first", yearIsFirst);
+		this.year = year;
+		this.month = month;
+		this.locale = locale;
+		this.yearIsFirst = yearIsFirst;
+		updateAttribute("year", String.valueOf(year));
+		updateAttribute("month", String.valueOf(month));
+		updateAttribute("locale", locale);
+		updateAttribute("year-is-first", yearIsFirst);
 	}
 
 	/**
@@ -130,7 +131,7 @@ public class MonthCalendar extends AbstractSimpleCalendar {
 	 */
 	public void refreshMonth(int month) {
 		this.month = month;
-		getElement().callJsFunction("setMonth", month);
+		updateAttribute("month", String.valueOf(month));
 	}
 
 	/**
@@ -138,29 +139,31 @@ public class MonthCalendar extends AbstractSimpleCalendar {
 	 * Otherwise, call the another refresh method with parameters
 	 */
 	public void refresh() {
-		getElement().setAttribute("year", String.valueOf(this.year));
-		getElement().setAttribute("month", String.valueOf(this.month));
-		getElement().setAttribute("locale", this.locale);
-		getElement().setAttribute("year-is-first", this.yearIsFirst);
-		getElement().setAttribute("show-other-month-days", this.showOtherMonthDays);
+		updateAttribute("year", String.valueOf(this.year));
+		updateAttribute("month", String.valueOf(this.month));
+		updateAttribute("locale", this.locale);
+		updateAttribute("year-is-first", this.yearIsFirst);
+		updateAttribute("show-other-month-days", this.showOtherMonthDays);
 		if ( this.dayNameFormat != null ) {
-			getElement().setAttribute("weekday-type", this.dayNameFormat.getValue());
+			updateAttribute("weekday-type", this.dayNameFormat.getValue());
 		}
 	}
 
 	/**
-	 * Immediately send the given year and month parameter to client and refreshes its state
+	 * Send the given year and month parameter to client and refreshes its state
 	 *
 	 * @param year  {@link int} the year we want to refresh
 	 * @param month {@link int}  the month we want to refresh
 	 */
 	public void refresh(int year, int month) {
-		getElement().setAttribute("year", String.valueOf(year));
-		getElement().setAttribute("month", String.valueOf(month));
+		this.year = year;
+		this.month = month;
+		updateAttribute("year", String.valueOf(year));
+		updateAttribute("month", String.valueOf(month));
 	}
 
 	/**
-	 * Immediately send the given parameters to client and refreshes its state
+	 * Send the given parameters to client and refreshes its state
 	 *
 	 * @param year        {@link int} the year we want to refresh
 	 * @param month       {@link int}  the month we want to refresh
@@ -169,46 +172,46 @@ public class MonthCalendar extends AbstractSimpleCalendar {
 	 *                    means the opposite
 	 */
 	public void refresh(int year, int month, String locale, boolean yearIsFirst) {
-		getElement().setAttribute("year", String.valueOf(year));
-		getElement().setAttribute("month", String.valueOf(month));
-		getElement().setAttribute("locale", locale);
-		getElement().setAttribute("year-is-first", yearIsFirst);
+		this.year = year;
+		this.month = month;
+		this.locale = locale;
+		this.yearIsFirst = yearIsFirst;
+		updateAttribute("year", String.valueOf(year));
+		updateAttribute("month", String.valueOf(month));
+		updateAttribute("locale", locale);
+		updateAttribute("year-is-first", yearIsFirst);
 	}
 
-	/**
-	 * Remove style class from the TD cells which have the given cellType
-	 *
-	 * @param cellType  {@link String} the cellType: "weekday" or "weekend"
-	 * @param className {@link String} the CSS style class name which have to be removed
-	 */
-	public void removeClassFromCellByType(String cellType, String className) {
-		getElement().executeJs("setTimeout(() => { this.removeClassFromCellByType($0, $1); })", cellType, className);
+	@Override
+	protected List<YearMonth> getDisplayedMonths() {
+		return List.of(YearMonth.of(this.year, this.month));
 	}
 
-	/**
-	 * Add the given className style class to all the days TD cells in the year.
-	 *
-	 * @param dates     {@link List<Date>} which cells have to me modified
-	 * @param className {@link String} the CSS style class which have to be added to the cell
-	 */
-	public void addClassToCellByDates(List<Date> dates, String className) {
-		if ( dates != null ) {
-			List<String> convertedDates = dates.stream().map(date -> date.toInstant().atZone(ZoneId.systemDefault()).toString()).toList();
-			getElement().executeJs("setTimeout(() => { this.addClassToCellByDates($0, $1); })", CalendarUtils.convertToJsonArray(convertedDates), className);
-		}
+	@Override
+	public void shiftMonths(int months) {
+		YearMonth shifted = YearMonth.of(this.year, this.month).plusMonths(months);
+		refresh(shifted.getYear(), shifted.getMonthValue());
 	}
 
-	/**
-	 * Add the given className style class to all the days TD cells in the year.
-	 *
-	 * @param dates     {@link List< LocalDate >} which cells have to me modified
-	 * @param className {@link String} the CSS style class which have to be added to the cell
-	 */
-	public void addClassToCellByLocalDates(List<LocalDate> dates, String className) {
-		if ( dates != null ) {
-			SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-			List<String> convertedDates = dates.stream().map(sdf::format).toList();
-			getElement().executeJs("setTimeout(() => { this.addClassToCellByDates($0, $1); })", CalendarUtils.convertToJsonArray(convertedDates), className);
-		}
+	@Override
+	protected int getNavigationStep() {
+		return 1;
+	}
+
+	@Override
+	protected YearMonth getPeriodStart() {
+		return YearMonth.of(this.year, this.month);
+	}
+
+	@Override
+	protected LocalDate getFirstVisibleDate() {
+		LocalDate first = LocalDate.of(this.year, this.month, 1);
+		return this.showOtherMonthDays ? first.minusDays(first.getDayOfWeek().getValue() - 1L) : first;
+	}
+
+	@Override
+	protected LocalDate getLastVisibleDate() {
+		LocalDate last = YearMonth.of(this.year, this.month).atEndOfMonth();
+		return this.showOtherMonthDays ? last.plusDays(7L - last.getDayOfWeek().getValue()) : last;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+import com.vaadin.flow.component.ComponentEvent;
+
+/**
+ * Fired when the displayed period of the calendar has been changed, ie: by {@link AbstractSimpleCalendar#refreshYear(int)},
+ * {@link MonthCalendar#refreshMonth(int)} or by the client side navigation, see {@link #isFromClient()}.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public class PeriodChangeEvent extends ComponentEvent<AbstractSimpleCalendar> {
+
+	/**
+	 * the first month of the previous period
+	 */
+	private final YearMonth oldPeriodStart;
+
+	/**
+	 * the first month of the new period
+	 */
+	private final YearMonth periodStart;
+
+	/**
+	 * Creates the event
+	 *
+	 * @param source         {@link AbstractSimpleCalendar} the calendar
+	 * @param oldPeriodStart {@link YearMonth} the first month of the previous period
+	 * @param periodStart    {@link YearMonth} the first month of the new period
+	 */
+	public PeriodChangeEvent(AbstractSimpleCalendar source, YearMonth oldPeriodStart, YearMonth periodStart) {
+		this(source, false, oldPeriodStart, periodStart);
+	}
+
+	/**
+	 * Creates the event
+	 *
+	 * @param source         {@link AbstractSimpleCalendar} the calendar
+	 * @param fromClient     {@link boolean} <code>true</code> if the period has been changed by the client side navigation
+	 * @param oldPeriodStart {@link YearMonth} the first month of the previous period
+	 * @param periodStart    {@link YearMonth} the first month of the new period
+	 */
+	public PeriodChangeEvent(AbstractSimpleCalendar source, boolean fromClient, YearMonth oldPeriodStart, YearMonth periodStart) {
+		super(source, fromClient);
+		this.oldPeriodStart = oldPeriodStart;
+		this.periodStart = periodStart;
+	}
+
+	/**
+	 * Gives back the first month of the previous period
+	 *
+	 * @return the {@link YearMonth}
+	 */
+	public YearMonth getOldPeriodStart() {
+		return oldPeriodStart;
+	}
+
+	/**
+	 * Gives back the first month of the new period
+	 *
+	 * @return the {@link YearMonth}
+	 */
+	public YearMonth getPeriodStart() {
+		return periodStart;
+	}
+
+	/**
+	 * Gives back how many months the period has been moved by, negative if it has been moved backwards
+	 *
+	 * @return {@link int} the number of months
+	 */
+	public int getMonthsShifted() {
+		return (int) oldPeriodStart.until(periodStart, ChronoUnit.MONTHS);
+	}
+}
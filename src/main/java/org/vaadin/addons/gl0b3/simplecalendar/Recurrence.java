@@ -0,0 +1,497 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * A recurrence rule for cell decorations, modeled on the iCalendar RRULE (RFC 5545).
+ * Supported parts: FREQ, INTERVAL, COUNT, UNTIL, BYDAY (with optional ordinal, counted within the month), BYMONTHDAY and BYMONTH.
+ * As in RFC 5545, a missing BY part is taken from the start date; without a start date a missing part matches every value.
+ * <p>
+ * Usage: <code>Recurrence.weekly(DayOfWeek.SATURDAY).from(start).until(end)</code>,
+ * <code>Recurrence.monthly().byMonthDays(1, 15)</code> or <code>Recurrence.parse("FREQ=MONTHLY;BYDAY=-1FR", start)</code>.
+ * The calendars keep a copy of the rule, so changing it after it has been added has no effect on them.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+public class Recurrence implements DecorationRule {
+
+	/**
+	 * The frequency of the recurrence
+	 */
+	public enum Frequency {
+		/**
+		 * every day
+		 */
+		DAILY,
+		/**
+		 * every week
+		 */
+		WEEKLY,
+		/**
+		 * every month
+		 */
+		MONTHLY,
+		/**
+		 * every year
+		 */
+		YEARLY
+	}
+
+	/**
+	 * the frequency of the recurrence
+	 */
+	private final Frequency frequency;
+
+	/**
+	 * every how many periods the recurrence occurs
+	 */
+	private int interval = 1;
+
+	/**
+	 * the first possible date, <code>null</code> means unbounded
+	 */
+	private LocalDate start;
+
+	/**
+	 * the last possible date, <code>null</code> means unbounded
+	 */
+	private LocalDate until;
+
+	/**
+	 * the maximum number of occurrences from the start, 0 means unlimited
+	 */
+	private int count = 0;
+
+	/**
+	 * the days of week (1 = Monday ... 7 = Sunday) of BYDAY
+	 */
+	private int[] byDayOfWeek;
+
+	/**
+	 * the ordinals of BYDAY within the month, 0 means every such day
+	 */
+	private int[] byDayOrdinal;
+
+	/**
+	 * the days of month of BYMONTHDAY, negative values count from the end of the month
+	 */
+	private int[] byMonthDay;
+
+	/**
+	 * the months (1-12) of BYMONTH
+	 */
+	private int[] byMonth;
+
+	/**
+	 * the date of the last occurrence if the recurrence is limited by count, computed on first use
+	 */
+	private transient LocalDate lastOccurrence;
+
+	/**
+	 * Creates a recurrence with the given frequency
+	 *
+	 * @param frequency {@link Frequency} the frequency of the recurrence
+	 */
+	public Recurrence(Frequency frequency) {
+		this.frequency = frequency;
+	}
+
+	/**
+	 * Every day
+	 *
+	 * @return the new {@link Recurrence}
+	 */
+	public static Recurrence daily() {
+		return new Recurrence(Frequency.DAILY);
+	}
+
+	/**
+	 * Every day between from and to, both inclusive
+	 *
+	 * @param from {@link LocalDate} the first date
+	 * @param to   {@link LocalDate} the last date
+	 * @return the new {@link Recurrence}
+	 */
+	public static Recurrence range(LocalDate from, LocalDate to) {
+		return daily().from(from).until(to);
+	}
+
+	/**
+	 * Every week on the given days
+	 *
+	 * @param daysOfWeek {@link DayOfWeek} the days of the week
+	 * @return the new {@link Recurrence}
+	 */
+	public static Recurrence weekly(DayOfWeek... daysOfWeek) {
+		return new Recurrence(Frequency.WEEKLY).byDay(daysOfWeek);
+	}
+
+	/**
+	 * Every month
+	 *
+	 * @return the new {@link Recurrence}
+	 */
+	public static Recurrence monthly() {
+		return new Recurrence(Frequency.MONTHLY);
+	}
+
+	/**
+	 * Every year
+	 *
+	 * @return the new {@link Recurrence}
+	 */
+	public static Recurrence yearly() {
+		return new Recurrence(Frequency.YEARLY);
+	}
+
+	/**
+	 * Parses an iCalendar RRULE value, ie: <code>FREQ=WEEKLY;INTERVAL=2;BYDAY=SA,SU</code>. The "RRULE:" prefix is optional.
+	 *
+	 * @param rule  {@link String} the RRULE value
+	 * @param start {@link LocalDate} the start date (DTSTART) of the recurrence, can be <code>null</code>
+	 * @return the parsed {@link Recurrence}
+	 * @throws IllegalArgumentException if the rule is invalid or uses an unsupported part
+	 */
+	public static Recurrence parse(String rule, LocalDate start) {
+		String value = rule.trim();
+		if ( value.regionMatches(true, 0, "RRULE:", 0, 6) ) {
+			value = value.substring(6);
+		}
+		Frequency frequency = null;
+		String[] parts = value.split(";");
+		for ( String part : parts ) {
+			if ( part.toUpperCase(Locale.ROOT).startsWith("FREQ=") ) {
+				frequency = Frequency.valueOf(part.substring(5).toUpperCase(Locale.ROOT));
+			}
+		}
+		if ( frequency == null ) {
+			throw new IllegalArgumentException("Missing FREQ in recurrence rule: " + rule);
+		}
+		Recurrence recurrence = new Recurrence(frequency).from(start);
+		for ( String part : parts ) {
+			int separator = part.indexOf('=');
+			if ( separator < 0 ) {
+				continue;
+			}
+			String name = part.substring(0, separator).toUpperCase(Locale.ROOT);
+			String[] values = part.substring(separator + 1).split(",");
+			switch ( name ) {
+				case "FREQ", "WKST", "BYHOUR", "BYMINUTE", "BYSECOND" -> {
+					// no effect on whole days
+				}
+				case "INTERVAL" -> recurrence.interval(Integer.parseInt(values[0]));
+				case "COUNT" -> recurrence.count(Integer.parseInt(values[0]));
+				case "UNTIL" -> recurrence.until(LocalDate.parse(values[0].substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE));
+				case "BYMONTHDAY" -> recurrence.byMonthDay(Arrays.stream(values).mapToInt(Integer::parseInt).toArray());
+				case "BYMONTH" -> recurrence.byMonth(Arrays.stream(values).mapToInt(Integer::parseInt).toArray());
+				case "BYDAY" -> {
+					for ( String day : values ) {
+						int ordinal = day.length() > 2 ? Integer.parseInt(day.substring(0, day.length() - 2).replace("+", "")) : 0;
+						recurrence.byDay(ordinal, parseDayOfWeek(day.substring(day.length() - 2)));
+					}
+				}
+				default -> throw new IllegalArgumentException("Unsupported part " + name + " in recurrence rule: " + rule);
+			}
+		}
+		return recurrence;
+	}
+
+	/**
+	 * The first possible date of the recurrence, also the base of the interval and of the missing BY parts
+	 *
+	 * @param start {@link LocalDate} the start date, <code>null</code> means unbounded
+	 * @return this {@link Recurrence}
+	 */
+	public Recurrence from(LocalDate start) {
+		this.start = start;
+		this.lastOccurrence = null;
+		return this;
+	}
+
+	/**
+	 * The last possible date of the recurrence
+	 *
+	 * @param until {@link LocalDate} the last date (inclusive), <code>null</code> means unbounded
+	 * @return this {@link Recurrence}
+	 */
+	public Recurrence until(LocalDate until) {
+		this.until = until;
+		this.lastOccurrence = null;
+		return this;
+	}
+
+	/**
+	 * The recurrence occurs in every interval-th period, ie: 2 with {@link Frequency#WEEKLY} means every second week.
+	 * Bigger intervals than 1 need a start date.
+	 *
+	 * @param interval {@link int} the interval, at least 1
+	 * @return this {@link Recurrence}
+	 */
+	public Recurrence interval(int interval) {
+		if ( interval < 1 ) {
+			throw new IllegalArgumentException("The interval must be at least 1: " + interval);
+		}
+		this.interval = interval;
+		this.lastOccurrence = null;
+		return this;
+	}
+
+	/**
+	 * Limits the number of the occurrences from the start date. It needs a start date.
+	 *
+	 * @param count {@link int} the maximum number of the occurrences
+	 * @return this {@link Recurrence}
+	 */
+	public Recurrence count(int count) {
+		this.count = count;
+		this.lastOccurrence = null;
+		return this;
+	}
+
+	/**
+	 * Add days of the week to the recurrence (BYDAY)
+	 *
+	 * @param daysOfWeek {@link DayOfWeek} the days of the week
+	 * @return this {@link Recurrence}
+	 */
+	public Recurrence byDay(DayOfWeek... daysOfWeek) {
+		for ( DayOfWeek dayOfWeek : daysOfWeek ) {
+			byDay(0, dayOfWeek);
+		}
+		return this;
+	}
+
+	/**
+	 * Add the ordinal-th day of the week within the month to the recurrence (BYDAY), ie: 2 and MONDAY means the second
+	 * Monday of the month, -1 and FRIDAY the last Friday of the month
+	 *
+	 * @param ordinal   {@link int} the ordinal within the month, 0 means every such day
+	 * @param dayOfWeek {@link DayOfWeek} the day of the week
+	 * @return this {@link Recurrence}
+	 */
+	public Recurrence byDay(int ordinal, DayOfWeek dayOfWeek) {
+		byDayOfWeek = append(byDayOfWeek, dayOfWeek.getValue());
+		byDayOrdinal = append(byDayOrdinal, ordinal);
+		this.lastOccurrence = null;
+		return this;
+	}
+
+	/**
+	 * Add days of the month to the recurrence (BYMONTHDAY), negative values count from the end of the month
+	 *
+	 * @param daysOfMonth {@link int} the days of the month, 1 to 31 or -1 to -31
+	 * @return this {@link Recurrence}
+	 */
+	public Recurrence byMonthDay(int... daysOfMonth) {
+		for ( int dayOfMonth : daysOfMonth ) {
+			byMonthDay = append(byMonthDay, dayOfMonth);
+		}
+		this.lastOccurrence = null;
+		return this;
+	}
+
+	/**
+	 * Add a range of days of the month to the recurrence, ie: 1 and 15 for the first half of the month
+	 *
+	 * @param from {@link int} the first day of the month
+	 * @param to   {@link int} the last day of the month (inclusive)
+	 * @return this {@link Recurrence}
+	 */
+	public Recurrence byMonthDays(int from, int to) {
+		return byMonthDay(IntStream.rangeClosed(from, to).toArray());
+	}
+
+	/**
+	 * Add months to the recurrence (BYMONTH)
+	 *
+	 * @param months {@link int} the months, 1 (January) to 12 (December)
+	 * @return this {@link Recurrence}
+	 */
+	public Recurrence byMonth(int... months) {
+		for ( int month : months ) {
+			byMonth = append(byMonth, month);
+		}
+		this.lastOccurrence = null;
+		return this;
+	}
+
+	/**
+	 * Gives back a copy of this recurrence, which is not changed by the later changes of this one
+	 *
+	 * @return the new {@link Recurrence}
+	 */
+	public Recurrence copy() {
+		Recurrence copy = new Recurrence(frequency);
+		copy.interval = interval;
+		copy.start = start;
+		copy.until = until;
+		copy.count = count;
+		// the BY arrays are replaced, never modified, when a value is added
+		copy.byDayOfWeek = byDayOfWeek;
+		copy.byDayOrdinal = byDayOrdinal;
+		copy.byMonthDay = byMonthDay;
+		copy.byMonth = byMonth;
+		copy.lastOccurrence = lastOccurrence;
+		return copy;
+	}
+
+	@Override
+	public void collectDates(LocalDate from, LocalDate to, DateSet dates) {
+		LocalDate first = start != null && start.isAfter(from) ? start : from;
+		LocalDate last = to;
+		if ( until != null && until.isBefore(last) ) {
+			last = until;
+		}
+		LocalDate countLast = getLastOccurrence();
+		if ( countLast != null && countLast.isBefore(last) ) {
+			last = countLast;
+		}
+		int[][] parts = effectiveParts();
+		for ( LocalDate date = first; !date.isAfter(last); date = date.plusDays(1) ) {
+			if ( matches(date, parts) ) {
+				dates.add(date);
+			}
+		}
+	}
+
+	/**
+	 * Gives back the BY parts completed from the start date: months, days of month, days of week and their ordinals
+	 *
+	 * @return the parts, <code>null</code> elements mean the part matches every value
+	 */
+	private int[][] effectiveParts() {
+		int[] months = byMonth;
+		int[] monthDays = byMonthDay;
+		int[] weekDays = byDayOfWeek;
+		int[] ordinals = byDayOrdinal;
+		if ( start != null ) {
+			if ( months == null && monthDays == null && weekDays == null && frequency == Frequency.YEARLY ) {
+				months = new int[] { start.getMonthValue() };
+			}
+			if ( monthDays == null && weekDays == null && (frequency == Frequency.MONTHLY || frequency == Frequency.YEARLY) ) {
+				monthDays = new int[] { start.getDayOfMonth() };
+			}
+			if ( weekDays == null && frequency == Frequency.WEEKLY ) {
+				weekDays = new int[] { start.getDayOfWeek().getValue() };
+				ordinals = new int[] { 0 };
+			}
+		}
+		return new int[][] { months, monthDays, weekDays, ordinals };
+	}
+
+	/**
+	 * Gives back if the given date matches the recurrence without the COUNT and UNTIL limits
+	 *
+	 * @param date  {@link LocalDate} the date to check
+	 * @param parts {@link int[][]} the parts of {@link #effectiveParts()}
+	 * @return <code>true</code> if the date is an occurrence
+	 */
+	private boolean matches(LocalDate date, int[][] parts) {
+		if ( start != null && date.isBefore(start) ) {
+			return false;
+		}
+		if ( parts[0] != null && !contains(parts[0], date.getMonthValue()) ) {
+			return false;
+		}
+		if ( parts[1] != null && !matchesMonthDay(parts[1], date) ) {
+			return false;
+		}
+		if ( parts[2] != null && !matchesDayOfWeek(parts[2], parts[3], date) ) {
+			return false;
+		}
+		return interval == 1 || start == null || periodsBetween(start, date) % interval == 0;
+	}
+
+	private LocalDate getLastOccurrence() {
+		if ( count <= 0 || start == null ) {
+			return null;
+		}
+		if ( lastOccurrence == null ) {
+			int[][] parts = effectiveParts();
+			int found = 0;
+			LocalDate date = start;
+			// a recurrence which never matches stops after 400 years
+			LocalDate limit = until != null ? until : start.plusYears(400);
+			while ( !date.isAfter(limit) ) {
+				if ( matches(date, parts) && ++found == count ) {
+					break;
+				}
+				date = date.plusDays(1);
+			}
+			lastOccurrence = date;
+		}
+		return lastOccurrence;
+	}
+
+	private long periodsBetween(LocalDate from, LocalDate to) {
+		return switch ( frequency ) {
+			case DAILY -> ChronoUnit.DAYS.between(from, to);
+			case WEEKLY -> ChronoUnit.WEEKS.between(from.minusDays(from.getDayOfWeek().getValue() - 1L), to);
+			case MONTHLY -> ChronoUnit.MONTHS.between(from.withDayOfMonth(1), to.withDayOfMonth(1));
+			case YEARLY -> to.getYear() - from.getYear();
+		};
+	}
+
+	private static boolean matchesMonthDay(int[] monthDays, LocalDate date) {
+		int length = date.lengthOfMonth();
+		for ( int monthDay : monthDays ) {
+			if ( monthDay == date.getDayOfMonth() || (monthDay < 0 && length + monthDay + 1 == date.getDayOfMonth()) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean matchesDayOfWeek(int[] weekDays, int[] ordinals, LocalDate date) {
+		int dayOfWeek = date.getDayOfWeek().getValue();
+		for ( int i = 0; i < weekDays.length; i++ ) {
+			if ( weekDays[i] != dayOfWeek ) {
+				continue;
+			}
+			int ordinal = ordinals[i];
+			if ( ordinal == 0
+					|| (ordinal > 0 && (date.getDayOfMonth() - 1) / 7 + 1 == ordinal)
+					|| (ordinal < 0 && (date.lengthOfMonth() - date.getDayOfMonth()) / 7 + 1 == -ordinal) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static DayOfWeek parseDayOfWeek(String day) {
+		return switch ( day.toUpperCase(Locale.ROOT) ) {
+			case "MO" -> DayOfWeek.MONDAY;
+			case "TU" -> DayOfWeek.TUESDAY;
+			case "WE" -> DayOfWeek.WEDNESDAY;
+			case "TH" -> DayOfWeek.THURSDAY;
+			case "FR" -> DayOfWeek.FRIDAY;
+			case "SA" -> DayOfWeek.SATURDAY;
+			case "SU" -> DayOfWeek.SUNDAY;
+			default -> throw new IllegalArgumentException("Invalid day of week: " + day);
+		};
+	}
+
+	private static boolean contains(int[] values, int value) {
+		for ( int current : values ) {
+			if ( current == value ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int[] append(int[] values, int value) {
+		if ( values == null ) {
+			return new int[] { value };
+		}
+		int[] appended = Arrays.copyOf(values, values.length + 1);
+		appended[values.length] = value;
+		return appended;
+	}
+}
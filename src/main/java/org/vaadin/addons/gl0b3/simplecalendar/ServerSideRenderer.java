@@ -0,0 +1,148 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import com.vaadin.flow.dom.Element;
+
+/**
+ * Builds the month grids of the calendars with the Element API, for the server side rendering.
+ * The grid is a table of the weeks from Monday to Sunday; the day cells have the "weekday" or "weekend" cell type class
+ * and the decoration classes of their dates, like the cells of the client component. The grids are styled with the CSS
+ * variables of the year-calendar and month-calendar components, with the same defaults, so they take the same space
+ * and look like the calendar which replaces them.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+final class ServerSideRenderer {
+
+	/**
+	 * the class of the root element of the rendered grids
+	 */
+	static final String ROOT_CLASS = "simple-calendar-ssr";
+
+	/**
+	 * the class of the day cells of the previous and next months
+	 */
+	static final String OTHER_MONTH = "othermonth";
+
+	/**
+	 * the style sheet of the rendered grids, scoped to the root element
+	 */
+	private static final String STYLE = "." + ROOT_CLASS + ".year{display:flex;flex-wrap:wrap}"
+			+ "." + ROOT_CLASS + ".year>.month{margin:var(--year-month-gap-top,0) var(--year-month-gap-right,20px) var(--year-month-gap-bottom,20px) var(--year-month-gap-left,0)}"
+			+ "." + ROOT_CLASS + " .month{display:inline-block;font-family:var(--month-font-family,Arial);font-size:var(--month-font-size,12px)}"
+			+ "." + ROOT_CLASS + " .header{padding:var(--month-header-padding-top,1px) var(--month-header-padding-right,4px) var(--month-header-padding-bottom,1px) var(--month-header-padding-left,4px);"
+			+ "color:var(--month-header-color,#ffffff);background-color:var(--month-header-background-color,var(--month-primary-color,#006E51));"
+			+ "border-top-left-radius:var(--month-header-border-top-left-radius,6px);border-top-right-radius:var(--month-header-border-top-right-radius,6px)}"
+			+ "." + ROOT_CLASS + " table{border:var(--month-table-border,1px solid var(--month-primary-color,#006E51));border-spacing:0}"
+			+ "." + ROOT_CLASS + " th{border-bottom:var(--month-weekdays-border-bottom,1px solid var(--month-primary-color,#006E51));background-color:var(--month-weekdays-background-color,#FFFFFF)}"
+			+ "." + ROOT_CLASS + " th.weekend{background-color:var(--month-weekdays-weekend-background-color,var(--month-secondary-color,#FFA500))}"
+			+ "." + ROOT_CLASS + " td{width:var(--month-day-cell-width,1.8em);height:var(--month-day-cell-height,24px);padding:0;text-align:center;"
+			+ "color:var(--month-day-color,#000000);font-weight:var(--month-day-font-weight,normal);background-color:var(--month-day-background-color,#FFFFFF)}"
+			+ "." + ROOT_CLASS + " td.weekend{background-color:var(--month-weeks-weekend-background-color,var(--month-secondary-color,#FFA500))}"
+			+ "." + ROOT_CLASS + " td." + OTHER_MONTH + "{color:var(--month-othermonth-day-color,#838383)}";
+
+	private ServerSideRenderer() {
+	}
+
+	/**
+	 * Builds the grids of the given months under one root element, with the style sheet of the grids
+	 *
+	 * @param months             {@link List<YearMonth>} the months in display order; more than one is laid out like a year-calendar
+	 * @param locale             {@link String} the language locale of the names
+	 * @param yearIsFirst        {@link boolean} the order of the year and month in the header
+	 * @param showOtherMonthDays {@link boolean} show the days of the previous and next months in the first and last week
+	 * @param dayNameFormat      {@link DayNameFormat} the format of the day names
+	 * @param decorations        {@link Map} the decorated dates by CSS class names
+	 * @return the root {@link Element}
+	 */
+	static Element render(List<YearMonth> months, String locale, boolean yearIsFirst, boolean showOtherMonthDays,
+			DayNameFormat dayNameFormat, Map<String, DateSet> decorations) {
+		Element root = new Element("div");
+		root.getClassList().add(ROOT_CLASS);
+		if ( months.size() > 1 ) {
+			root.getClassList().add("year");
+		}
+		Element style = new Element("style");
+		style.setText(STYLE);
+		root.appendChild(style);
+		for ( YearMonth month : months ) {
+			root.appendChild(renderMonth(month, locale, yearIsFirst, showOtherMonthDays, dayNameFormat, decorations));
+		}
+		return root;
+	}
+
+	/**
+	 * Builds the grid of a month
+	 *
+	 * @param month              {@link YearMonth} the month
+	 * @param locale             {@link String} the language locale of the names
+	 * @param yearIsFirst        {@link boolean} the order of the year and month in the header
+	 * @param showOtherMonthDays {@link boolean} show the days of the previous and next months in the first and last week
+	 * @param dayNameFormat      {@link DayNameFormat} the format of the day names
+	 * @param decorations        {@link Map} the decorated dates by CSS class names
+	 * @return the {@link Element} of the month
+	 */
+	static Element renderMonth(YearMonth month, String locale, boolean yearIsFirst, boolean showOtherMonthDays,
+			DayNameFormat dayNameFormat, Map<String, DateSet> decorations) {
+		Element container = new Element("div");
+		container.getClassList().add("month");
+
+		String monthName = CalendarNames.getMonthName(locale, month.getMonthValue());
+		Element header = new Element("div");
+		header.getClassList().add("header");
+		header.setText(yearIsFirst ? month.getYear() + " " + monthName : monthName + " " + month.getYear());
+		container.appendChild(header);
+
+		Element table = new Element("table");
+		Element headRow = new Element("tr");
+		String[] dayNames = CalendarNames.getDayNames(locale, dayNameFormat != null ? dayNameFormat : DayNameFormat.SHORT);
+		for ( int i = 0; i < dayNames.length; i++ ) {
+			Element cell = new Element("th");
+			cell.getClassList().add(i < 5 ? DecorationModel.WEEKDAY : DecorationModel.WEEKEND);
+			cell.setText(dayNames[i]);
+			headRow.appendChild(cell);
+		}
+		Element head = new Element("thead");
+		head.appendChild(headRow);
+		table.appendChild(head);
+
+		Element body = new Element("tbody");
+		LocalDate first = month.atDay(1);
+		LocalDate last = month.atEndOfMonth();
+		LocalDate day = first.minusDays(first.getDayOfWeek().getValue() - 1L);
+		while ( !day.isAfter(last) ) {
+			Element row = new Element("tr");
+			for ( int i = 0; i < 7; i++, day = day.plusDays(1) ) {
+				boolean otherMonth = !month.equals(YearMonth.from(day));
+				row.appendChild(renderDay(day, i, otherMonth, !otherMonth || showOtherMonthDays, decorations));
+			}
+			body.appendChild(row);
+		}
+		table.appendChild(body);
+		container.appendChild(table);
+		return container;
+	}
+
+	private static Element renderDay(LocalDate day, int dayOfWeek, boolean otherMonth, boolean visible, Map<String, DateSet> decorations) {
+		Element cell = new Element("td");
+		if ( !visible ) {
+			return cell;
+		}
+		cell.getClassList().add(dayOfWeek < 5 ? DecorationModel.WEEKDAY : DecorationModel.WEEKEND);
+		if ( otherMonth ) {
+			cell.getClassList().add(OTHER_MONTH);
+		}
+		long epochDay = day.toEpochDay();
+		for ( Map.Entry<String, DateSet> decoration : decorations.entrySet() ) {
+			if ( decoration.getValue().contains(epochDay) ) {
+				cell.getClassList().add(decoration.getKey());
+			}
+		}
+		cell.setText(String.valueOf(day.getDayOfMonth()));
+		return cell;
+	}
+}
@@ -0,0 +1,260 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+import com.vaadin.flow.component.HasSize;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.dependency.JsModule;
+import com.vaadin.flow.component.dependency.NpmPackage;
+import com.vaadin.flow.component.page.PendingJavaScriptResult;
+
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * Timeline Calendar, a continuous, vertically scrollable run of months, ie: for planning views which span several years.
+ * <p>
+ * Only the months which are in the viewport (and one more on both sides) exist in the DOM. The client reports the
+ * rendered months to the server, and the decorations are evaluated and sent only for them, so the memory and the render
+ * time do not depend on the length of the timeline. The months are laid out with a fixed height, see {@link #setMonthHeight(int)}.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+@Tag("simple-calendar-timeline")
+@JsModule("@gl0b3/simple-calendar")
+@NpmPackage(value = "@gl0b3/simple-calendar", version = "1.0.2")
+public class TimelineCalendar extends AbstractSimpleCalendar implements HasSize {
+
+	/**
+	 * the name of the client event which reports the rendered months
+	 */
+	static final String VISIBLE_RANGE_EVENT = "simple-calendar-timeline-range";
+
+	/**
+	 * the time in milliseconds the client waits after the last scroll before it reports the rendered months
+	 */
+	static final int VISIBLE_RANGE_DELAY = 100;
+
+	/**
+	 * the first month of the timeline
+	 */
+	private YearMonth start = YearMonth.now();
+
+	/**
+	 * the number of the months in the timeline
+	 */
+	private int months = 36;
+
+	/**
+	 * the height of a month in pixels
+	 */
+	private int monthHeight = 300;
+
+	/**
+	 * the first month which is rendered on the client
+	 */
+	private YearMonth firstRenderedMonth = start;
+
+	/**
+	 * the last month which is rendered on the client
+	 */
+	private YearMonth lastRenderedMonth = start.plusMonths(2);
+
+	/**
+	 * Constructor for a timeline of 36 months from the current month with the default locale
+	 */
+	public TimelineCalendar() {
+		this(YearMonth.now(), 36, Locale.getDefault().getLanguage());
+	}
+
+	/**
+	 * Constructor with the frequently used parameters. The values are sent to the client with the next response.
+	 *
+	 * @param start  {@link YearMonth} the first month of the timeline
+	 * @param months {@link int} the number of the months in the timeline
+	 * @param locale {@link String}
+	 */
+	public TimelineCalendar(YearMonth start, int months, String locale) {
+		this.start = start;
+		this.months = months;
+		this.locale = locale;
+		this.firstRenderedMonth = start;
+		this.lastRenderedMonth = start.plusMonths(Math.max(0, Math.min(months, 3) - 1));
+		getElement().getStyle().set("display", "block");
+		getElement().getStyle().set("overflow-y", "auto");
+		setHeight("600px");
+		getElement().addEventListener(VISIBLE_RANGE_EVENT, event -> {
+			JsonObject data = event.getEventData();
+			setRenderedMonths((int) data.getNumber("event.detail.from"), (int) data.getNumber("event.detail.to"));
+		}).addEventData("event.detail.from").addEventData("event.detail.to");
+		addAttachListener(event -> {
+			recordJsCall();
+			getElement().executeJs(CONNECTOR + ".initTimeline(this, $0, $1)", VISIBLE_RANGE_EVENT, VISIBLE_RANGE_DELAY);
+		});
+		refresh();
+	}
+
+	/**
+	 * The first month of the timeline
+	 *
+	 * @param start {@link YearMonth}, ie: YearMonth.of(2024, 1)
+	 * @return {@link TimelineCalendar} this object
+	 */
+	public TimelineCalendar setStart(YearMonth start) {
+		this.start = start;
+		return this;
+	}
+
+	/**
+	 * The number of the months in the timeline
+	 *
+	 * @param months {@link int}, ie: 60 for five years
+	 * @return {@link TimelineCalendar} this object
+	 */
+	public TimelineCalendar setMonths(int months) {
+		this.months = months;
+		return this;
+	}
+
+	/**
+	 * The height of a month in pixels. The months are laid out with this fixed height, so the client knows which months
+	 * are in the viewport without rendering the others.
+	 *
+	 * @param monthHeight {@link int} the height in pixels, default is 300
+	 * @return {@link TimelineCalendar} this object
+	 */
+	public TimelineCalendar setMonthHeight(int monthHeight) {
+		this.monthHeight = monthHeight;
+		return this;
+	}
+
+	/**
+	 * The locale of the months. It's important for the naming and formatting convetions.
+	 *
+	 * @param locale {@link String} the desired language locale, ie: "en", "de", "hu", etc.
+	 * @return {@link TimelineCalendar} this object
+	 */
+	public TimelineCalendar setLocale(String locale) {
+		this.locale = locale;
+		return this;
+	}
+
+	/**
+	 * The order of the year and month display in the month headers.
+	 *
+	 * @param yearIsFirst {@link boolean} year-month or month-year order
+	 * @return {@link TimelineCalendar} this object
+	 */
+	public TimelineCalendar setYearIsFirst(boolean yearIsFirst) {
+		this.yearIsFirst = yearIsFirst;
+		return this;
+	}
+
+	/**
+	 * Set the days and month naming format. For formats see: {@link DayNameFormat}.
+	 *
+	 * @param dayNameFormat {@link DayNameFormat}
+	 * @return this {@link TimelineCalendar}
+	 */
+	public TimelineCalendar setDayNameFormat(DayNameFormat dayNameFormat) {
+		this.dayNameFormat = dayNameFormat;
+		return this;
+	}
+
+	/**
+	 * Send the given first month to the client, the timeline is rendered again from the current scroll position
+	 *
+	 * @param start {@link YearMonth} the first month of the timeline
+	 */
+	public void refreshStart(YearMonth start) {
+		this.start = start;
+		updateAttribute("start", start.toString());
+	}
+
+	/**
+	 * Send the given number of the months to the client
+	 *
+	 * @param months {@link int} the number of the months in the timeline
+	 */
+	public void refreshMonths(int months) {
+		this.months = months;
+		updateAttribute("months", String.valueOf(months));
+	}
+
+	/**
+	 * Send the given month height to the client
+	 *
+	 * @param monthHeight {@link int} the height of a month in pixels
+	 */
+	public void refreshMonthHeight(int monthHeight) {
+		this.monthHeight = monthHeight;
+		updateAttribute("month-height", String.valueOf(monthHeight));
+	}
+
+	/**
+	 * Scroll the timeline to the given month
+	 *
+	 * @param month {@link YearMonth} the month which has to be at the top of the viewport
+	 */
+	public void scrollToMonth(YearMonth month) {
+		long index = start.until(month, ChronoUnit.MONTHS);
+		recordJsCall();
+		getElement().executeJs("this.scrollTop = $0", (double) (index * monthHeight));
+	}
+
+	/**
+	 * Call this method if you want to refresh all the previously set fields on the client.
+	 */
+	@Override
+	public void refresh() {
+		updateAttribute("start", this.start.toString());
+		updateAttribute("months", String.valueOf(this.months));
+		updateAttribute("month-height", String.valueOf(this.monthHeight));
+		updateAttribute("locale", this.locale);
+		updateAttribute("year-is-first", this.yearIsFirst);
+		if ( this.dayNameFormat != null ) {
+			updateAttribute("weekday-type", this.dayNameFormat.getValue());
+		}
+	}
+
+	@Override
+	public void shiftMonths(int months) {
+		refreshStart(this.start.plusMonths(months));
+	}
+
+	@Override
+	protected YearMonth getPeriodStart() {
+		return this.start;
+	}
+
+	@Override
+	protected LocalDate getFirstVisibleDate() {
+		return firstRenderedMonth.atDay(1);
+	}
+
+	@Override
+	protected LocalDate getLastVisibleDate() {
+		return lastRenderedMonth.atEndOfMonth();
+	}
+
+	/**
+	 * Applies the operations to the rendered month-calendar children and to the client side cache of the rendered months
+	 */
+	@Override
+	protected PendingJavaScriptResult sendDecorations(JsonArray operations) {
+		return getElement().executeJs(CONNECTOR + ".decorateTimeline(this, $0)", operations);
+	}
+
+	private void setRenderedMonths(int from, int to) {
+		YearMonth first = YearMonth.of(Math.floorDiv(from, 12), Math.floorMod(from, 12) + 1);
+		YearMonth last = YearMonth.of(Math.floorDiv(to, 12), Math.floorMod(to, 12) + 1);
+		if ( !first.equals(firstRenderedMonth) || !last.equals(lastRenderedMonth) ) {
+			firstRenderedMonth = first;
+			lastRenderedMonth = last.isBefore(first) ? first : last;
+			scheduleFlush();
+		}
+	}
+}
@@ -1,9 +1,7 @@
 package org.vaadin.addons.gl0b3.simplecalendar;
 
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.time.ZoneId;
-import java.util.Date;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.vaadin.flow.component.Tag;
@@ -36,9 +34,12 @@ public class YearCalendar extends AbstractSimpleCalendar {
 	 */
 	public YearCalendar(int year, String locale, boolean yearIsFirst) {
 		super();
-		getElement().setAttribute("year", String.valueOf(year));
-		getElement().setAttribute("locale", locale);
-		getElement().setAttribute("year-is-first", yearIsFirst);
+		this.year = year;
+		this.locale = locale;
+		this.yearIsFirst = yearIsFirst;
+		updateAttribute("year", String.valueOf(year));
+		updateAttribute("locale", locale);
+		updateAttribute("year-is-first", yearIsFirst);
 	}
 
 	/**
@@ -121,48 +122,39 @@ public class YearCalendar extends AbstractSimpleCalendar {
 		this.yearIsFirst = yearIsFirst;
 		this.showOtherMonthDays = showOtherMonthDays;
 		this.dayNameFormat = dayNameFormat;
-		getElement().setAttribute("year", String.valueOf(year));
-		getElement().setAttribute("locale", locale);
-		getElement().setAttribute("year-is-first", yearIsFirst);
-		getElement().setAttribute("show-other-month-days", showOtherMonthDays);
+		updateAttribute("year", String.valueOf(year));
+		updateAttribute("locale", locale);
+		updateAttribute("year-is-first", yearIsFirst);
+		updateAttribute("show-other-month-days", showOtherMonthDays);
 		if ( this.dayNameFormat != null ) {
-			getElement().setAttribute("weekday-type", dayNameFormat.getValue());
+			updateAttribute("weekday-type", dayNameFormat.getValue());
 		}
 	}
-	/**
-	 * Remove style class from the TD cells which have the given cellType
-	 *
-	 * @param cellType  {@link String} the cellType: "weekday" or "weekend"
-	 * @param className {@link String} the CSS style class name which have to be removed
-	 */
-	public void removeClassFromCellByType(String cellType, String className) {
-		getElement().executeJs("setTimeout(() => { this.removeClassFromCellByType($0, $1); })", cellType, className);
-	}
 
-	/**
-	 * Add the given className style class to all the days TD cells in the year.
-	 *
-	 * @param dates     {@link List<Date>} which cells have to me modified
-	 * @param className {@link String} the CSS style class which have to be added to the cell
-	 */
-	public void addClassToCellByDates(List<Date> dates, String className) {
-		if ( dates != null ) {
-			List<String> convertedDates = dates.stream().map(date -> date.toInstant().atZone(ZoneId.systemDefault()).toString()).toList();
-			getElement().executeJs("setTimeout(() => { this.addClassToCellByDates($0, $1); })", CalendarUtils.convertToJsonArray(convertedDates), className);
+	@Override
+	protected List<YearMonth> getDisplayedMonths() {
+		List<YearMonth> months = new ArrayList<>(12);
+		for ( int month = 1; month <= 12; month++ ) {
+			months.add(YearMonth.of(this.year, month));
 		}
+		return months;
 	}
 
 	/**
-	 * Add the given className style class to all the days TD cells in the year.
-	 *
-	 * @param dates     {@link List<LocalDate>} which cells have to me modified
-	 * @param className {@link String} the CSS style class which have to be added to the cell
+	 * Follow the period change of another calendar: the year moves only if the other period starts in another year
+	 * than before, ie: a linked {@link MonthCalendar} stepping from January back to December moves to the previous year,
+	 * while stepping from March back to February doesn't move.
 	 */
-	public void addClassToCellByLocalDates(List<LocalDate> dates, String className) {
-		if ( dates != null ) {
-			SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-			List<String> convertedDates = dates.stream().map(sdf::format).toList();
-			getElement().executeJs("setTimeout(() => { this.addClassToCellByDates($0, $1); })", CalendarUtils.convertToJsonArray(convertedDates), className);
+	@Override
+	protected void followPeriodChange(YearMonth oldPeriodStart, YearMonth periodStart) {
+		int years = periodStart.getYear() - oldPeriodStart.getYear();
+		if ( years != 0 ) {
+			refreshYear(this.year + years);
 		}
 	}
-}
\ No newline at end of file
+
+	@Override
+	protected int getNavigationStep() {
+		return 12;
+	}
+}
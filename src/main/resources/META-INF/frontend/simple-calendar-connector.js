@@ -0,0 +1,528 @@
+/*
+ * Client side connector of the Simple Calendar Flow add-on.
+ *
+ * The calendars call it through window.Vaadin.Flow.simpleCalendarConnector. The day cells are changed only through the
+ * public API of the calendar components: addClassToCellByDates(dates, className) and
+ * removeClassFromCellByType(cellType, className). The functions which don't need a browser are exported for the tests.
+ *
+ * @author Károly Kótay-Szabó (gl0b3)
+ */
+
+const DAY_MILLIS = 86400000;
+
+/**
+ * Decodes CalendarUtils.encodeDates: base64 of varint pairs, the first pair is the zigzag encoded first epoch day and
+ * the length of the first run, the others are the gap from the end of the previous run and the length of the run.
+ */
+export function decodeDates(encoded) {
+	const bytes = atob(encoded || '');
+	const days = [];
+	let i = 0;
+	let day = 0;
+	let first = true;
+	const varint = () => {
+		let value = 0;
+		let multiplier = 1;
+		let byte;
+		do {
+			byte = bytes.charCodeAt(i++);
+			value += (byte & 127) * multiplier;
+			multiplier *= 128;
+		} while (byte & 128);
+		return value;
+	};
+	while (i < bytes.length) {
+		const value = varint();
+		day = first ? (value % 2 ? -(value + 1) / 2 : value / 2) : day + value;
+		first = false;
+		const length = varint();
+		for (let k = 0; k < length; k++) {
+			days.push(day + k);
+		}
+		day += length;
+	}
+	return days;
+}
+
+/**
+ * The ISO date (yyyy-MM-dd) of an epoch day, the date format of addClassToCellByDates
+ */
+export function isoDate(epochDay) {
+	return new Date(epochDay * DAY_MILLIS).toISOString().substring(0, 10);
+}
+
+/**
+ * The epoch day of an ISO date
+ */
+export function epochDay(year, month, dayOfMonth) {
+	return Math.round(Date.UTC(year, month - 1, dayOfMonth) / DAY_MILLIS);
+}
+
+/**
+ * Adds the class to the cells of the epoch days with one call of the component
+ */
+export function addDays(calendar, days, className) {
+	if (days.length && calendar.addClassToCellByDates) {
+		calendar.addClassToCellByDates(days.map(isoDate), className);
+	}
+}
+
+/**
+ * Removes the class from the cells of the cell type, or from all the cells without a cell type
+ */
+export function removeDays(calendar, className, cellType) {
+	if (calendar.removeClassFromCellByType) {
+		for (const type of cellType ? [cellType] : ['weekday', 'weekend']) {
+			calendar.removeClassFromCellByType(type, className);
+		}
+	}
+}
+
+/**
+ * Applies the operations of a DecorationBatch to a calendar. The classes which the calendar has received are kept in
+ * the given set, so a "clear" operation removes all of them. The decoded days of the operations can be given, ie: when
+ * the same operations are applied to several calendars.
+ */
+export function applyOperations(calendar, operations, classes, decoded) {
+	operations.forEach((op, i) => {
+		if (op.type === 'clear') {
+			for (const className of classes) {
+				removeDays(calendar, className);
+			}
+			classes.clear();
+			return;
+		}
+		if (op.type === 'removeByType') {
+			removeDays(calendar, op.className, op.cellType);
+			return;
+		}
+		if (op.type === 'reset') {
+			removeDays(calendar, op.className);
+		}
+		classes.add(op.className);
+		addDays(calendar, decoded ? decoded[i] : decodeDates(op.dates), op.className);
+	});
+}
+
+/**
+ * The period after the given number of steps of the client side navigation, a step is the given number of months
+ */
+export function navigationTarget(year, month, step, steps) {
+	const index = year * 12 + (step % 12 === 0 ? 0 : month - 1) + steps * step;
+	const targetYear = Math.floor(index / 12);
+	return { year: targetYear, month: index - targetYear * 12 + 1 };
+}
+
+/**
+ * The selected range of a drag from the start day to the end day, in both directions
+ */
+export function selectedRange(start, end) {
+	return { start: Math.min(start, end), end: Math.max(start, end) };
+}
+
+const classesOf = (calendar) => calendar.__simpleCalendarClasses || (calendar.__simpleCalendarClasses = new Set());
+
+const later = (callback) => setTimeout(callback);
+
+const PROBE_CLASS = 'simple-calendar-probe';
+
+/**
+ * Gives back the epoch day of the day cell in the composed path of a pointer event. The cell is recognized by marking
+ * the candidate days of its month-calendar with a probe class through addClassToCellByDates, the day number of the
+ * cell is tried first. The result is kept for the cell until the month-calendar shows another period.
+ */
+const cellDays = new WeakMap();
+
+function dayOfPath(path) {
+	const index = path.findIndex(node => node.localName === 'month-calendar');
+	if (index <= 0) {
+		return null;
+	}
+	const calendar = path[index];
+	const cells = path.slice(0, index).filter(node => node.classList);
+	if (!cells.length || !calendar.addClassToCellByDates) {
+		return null;
+	}
+	const year = Number(calendar.getAttribute('year'));
+	const month = Number(calendar.getAttribute('month'));
+	const key = year + '-' + month + '|' + calendar.getAttribute('locale') + '|' + calendar.hasAttribute('show-other-month-days');
+	const cached = cellDays.get(cells[0]);
+	if (cached && cached.key === key) {
+		return cached.day;
+	}
+	const candidates = [];
+	const number = parseInt(cells[0].textContent, 10);
+	if (number >= 1 && number <= 31) {
+		candidates.push(epochDay(year, month, number), epochDay(year, month - 1, number), epochDay(year, month + 1, number));
+	}
+	for (let d = epochDay(year, month, 1) - 7; d <= epochDay(year, month + 1, 0) + 14; d++) {
+		candidates.push(d);
+	}
+	let day = null;
+	for (const candidate of candidates) {
+		calendar.addClassToCellByDates([isoDate(candidate)], PROBE_CLASS);
+		const hit = cells.some(cell => cell.classList.contains(PROBE_CLASS));
+		removeDays(calendar, PROBE_CLASS);
+		cells.forEach(cell => cell.classList.remove(PROBE_CLASS));
+		if (hit) {
+			day = candidate;
+			break;
+		}
+	}
+	if (day !== null) {
+		cellDays.set(cells[0], { key, day });
+	}
+	return day;
+}
+
+const connector = {
+
+	/**
+	 * Applies the operations of the calendar after the current render
+	 */
+	decorate(calendar, operations) {
+		later(() => applyOperations(calendar, operations, classesOf(calendar)));
+	},
+
+	/**
+	 * Applies the shared operations of a CalendarGroup to its members, the dates are decoded once
+	 */
+	decorateGroup(operations, members) {
+		const decoded = operations.map(op => op.dates ? decodeDates(op.dates) : null);
+		later(() => {
+			for (const member of members) {
+				if (member) {
+					const shared = member.__simpleCalendarSharedClasses || (member.__simpleCalendarSharedClasses = new Set());
+					applyOperations(member, operations, shared, decoded);
+				}
+			}
+		});
+	},
+
+	/**
+	 * Turns the pointer events of the day cells into day click and range selection events. A drag sends only one event
+	 * when the pointer is released. A touch pointer is captured by the cell it went down on, so the capture is released
+	 * to get the cell under the finger at the end of the drag, and a drag taken over by the browser is cancelled.
+	 */
+	initSelection(calendar, dayClickEvent, rangeEvent) {
+		if (calendar.__simpleCalendarSelection) {
+			return;
+		}
+		calendar.__simpleCalendarSelection = true;
+		let start = null;
+		calendar.addEventListener('pointerdown', e => {
+			start = dayOfPath(e.composedPath());
+			const target = e.composedPath()[0];
+			if (target && target.hasPointerCapture && target.hasPointerCapture(e.pointerId)) {
+				target.releasePointerCapture(e.pointerId);
+			}
+		});
+		calendar.addEventListener('pointercancel', () => {
+			start = null;
+		});
+		calendar.addEventListener('pointerup', e => {
+			const end = start === null ? null : dayOfPath(e.composedPath());
+			if (start !== null && end !== null) {
+				if (start === end) {
+					calendar.dispatchEvent(new CustomEvent(dayClickEvent, { detail: { epochDay: end } }));
+				} else {
+					calendar.dispatchEvent(new CustomEvent(rangeEvent, { detail: selectedRange(start, end) }));
+				}
+			}
+			start = null;
+		});
+	},
+
+	/**
+	 * Enables the client side navigation: it moves the period by the given number of steps ("step" months per step) by
+	 * setting the attributes at once, applies the prefetched decorations of the new period from the cache after the
+	 * re-render, and tells the server the new period and the version of the applied cache entry (-1 if there was none).
+	 */
+	initNavigation(calendar, navigationEvent, step) {
+		calendar.__simpleCalendarNavigation = { event: navigationEvent, step, cache: {} };
+	},
+
+	/**
+	 * Disables the client side navigation and drops the cache
+	 */
+	disableNavigation(calendar) {
+		delete calendar.__simpleCalendarNavigation;
+	},
+
+	/**
+	 * Moves the period of the calendar by the given number of steps
+	 */
+	navigate(calendar, steps) {
+		const navigation = calendar.__simpleCalendarNavigation;
+		if (!navigation) {
+			return;
+		}
+		const { year, month } = navigationTarget(Number(calendar.getAttribute('year')), Number(calendar.getAttribute('month')),
+			navigation.step, steps);
+		calendar.setAttribute('year', String(year));
+		if (navigation.step % 12 !== 0) {
+			calendar.setAttribute('month', String(month));
+		}
+		const cached = navigation.cache[year + '-' + month];
+		if (cached) {
+			const apply = () => later(() => {
+				const classes = classesOf(calendar);
+				for (const className of Object.keys(cached.classes)) {
+					classes.add(className);
+					addDays(calendar, cached.classes[className], className);
+				}
+			});
+			if (calendar.updateComplete) {
+				calendar.updateComplete.then(apply);
+			} else {
+				apply();
+			}
+		}
+		calendar.dispatchEvent(new CustomEvent(navigation.event, { detail: { year, month, version: cached ? cached.version : -1 } }));
+	},
+
+	/**
+	 * Stores the decorations of the adjacent periods, the entries whose keys are not kept are dropped
+	 */
+	prefetch(calendar, entries, keep) {
+		const navigation = calendar.__simpleCalendarNavigation;
+		if (!navigation) {
+			return;
+		}
+		for (const key of Object.keys(navigation.cache)) {
+			if (!keep.includes(key)) {
+				delete navigation.cache[key];
+			}
+		}
+		for (const key of Object.keys(entries)) {
+			const classes = {};
+			for (const className of Object.keys(entries[key].classes)) {
+				classes[className] = decodeDates(entries[key].classes[className]);
+			}
+			navigation.cache[key] = { version: entries[key].version, classes };
+		}
+	},
+
+	/**
+	 * Binds the click of the trigger element to the client side navigation of the calendar by the given steps
+	 */
+	bindTrigger(calendar, trigger, steps) {
+		if (!trigger) {
+			return;
+		}
+		trigger.__simpleCalendarTrigger = { calendar, steps };
+		if (!trigger.__simpleCalendarTriggerBound) {
+			trigger.__simpleCalendarTriggerBound = true;
+			trigger.addEventListener('click', () => {
+				const binding = trigger.__simpleCalendarTrigger;
+				if (binding) {
+					connector.navigate(binding.calendar, binding.steps);
+				}
+			});
+		}
+	},
+
+	/**
+	 * Unbinds the trigger element
+	 */
+	unbindTrigger(trigger) {
+		delete trigger.__simpleCalendarTrigger;
+	},
+
+	/**
+	 * Removes the first paint placeholder of the page, as the calendar is in the page with its own rendered grids, and
+	 * waits until the calendar component is defined
+	 */
+	whenDefined(calendar, placeholderId) {
+		const placeholder = document.getElementById(placeholderId);
+		if (placeholder) {
+			placeholder.remove();
+		}
+		return customElements.whenDefined(calendar.localName);
+	},
+
+	/**
+	 * Virtualizes a timeline: it renders a month-calendar for the months in the viewport, keeps the decorations of the
+	 * reported months in a cache and applies them to the months which are scrolled into view. The reported range and the
+	 * cache are changed together, so the server always knows what the client has. The months are numbered as
+	 * year * 12 + month - 1, the cached days are epoch days.
+	 */
+	initTimeline(host, rangeEvent, reportDelay) {
+		if (host.__simpleCalendarTimeline) {
+			host.__simpleCalendarTimeline.layout(true);
+			return;
+		}
+		const spacer = document.createElement('div');
+		spacer.style.position = 'relative';
+		host.appendChild(spacer);
+		const copied = ['locale', 'year-is-first', 'weekday-type'];
+		const cache = new Map();
+		const rendered = new Map();
+		let reported = null;
+		let timer = null;
+		let frame = false;
+		const monthHeight = () => Number(host.getAttribute('month-height')) || 300;
+		const startMonth = () => {
+			const [year, month] = (host.getAttribute('start') || '').split('-').map(Number);
+			return year * 12 + month - 1;
+		};
+		const monthStart = (t) => epochDay(Math.floor(t / 12), t % 12 + 1, 1);
+		const inMonth = (d, t) => d >= monthStart(t) && d < monthStart(t + 1);
+		const inRange = (d) => reported !== null && d >= monthStart(reported[0]) && d < monthStart(reported[1] + 1);
+		const defined = (callback) => customElements.whenDefined('month-calendar').then(() => later(callback));
+		const apply = (el, t) => {
+			for (const [className, dates] of cache) {
+				addDays(el, [...dates].filter(d => inMonth(d, t)), className);
+			}
+		};
+		const create = (t, top, height) => {
+			const el = document.createElement('month-calendar');
+			el.setAttribute('year', String(Math.floor(t / 12)));
+			el.setAttribute('month', String(t % 12 + 1));
+			for (const name of copied) {
+				if (host.hasAttribute(name)) {
+					el.setAttribute(name, host.getAttribute(name));
+				}
+			}
+			Object.assign(el.style, { position: 'absolute', left: '0', right: '0', top: top + 'px', height: height + 'px' });
+			spacer.appendChild(el);
+			rendered.set(t, el);
+			defined(() => apply(el, t));
+		};
+		const report = (first, last) => {
+			if (reported && reported[0] === first && reported[1] === last) {
+				return;
+			}
+			reported = [first, last];
+			for (const [className, dates] of cache) {
+				for (const d of dates) {
+					if (!inRange(d)) {
+						dates.delete(d);
+					}
+				}
+				if (!dates.size) {
+					cache.delete(className);
+				}
+			}
+			host.dispatchEvent(new CustomEvent(rangeEvent, { detail: { from: first, to: last } }));
+		};
+		const layout = (rebuild) => {
+			const count = Number(host.getAttribute('months')) || 0;
+			const height = monthHeight();
+			const start = startMonth();
+			spacer.style.height = (count * height) + 'px';
+			if (rebuild) {
+				for (const el of rendered.values()) {
+					el.remove();
+				}
+				rendered.clear();
+			}
+			if (!count || isNaN(start)) {
+				return;
+			}
+			const first = start + Math.max(0, Math.floor(host.scrollTop / height) - 1);
+			const last = start + Math.min(count - 1, Math.floor((host.scrollTop + host.clientHeight) / height) + 1);
+			for (const [t, el] of rendered) {
+				if (t < first || t > last) {
+					el.remove();
+					rendered.delete(t);
+				}
+			}
+			for (let t = first; t <= last; t++) {
+				if (!rendered.has(t)) {
+					create(t, (t - start) * height, height);
+				}
+			}
+			clearTimeout(timer);
+			timer = setTimeout(() => report(first, last), reported === null ? 0 : reportDelay);
+		};
+		const removeFromRendered = (className, cellType) => {
+			for (const el of rendered.values()) {
+				removeDays(el, className, cellType);
+			}
+		};
+		const decorate = (operations) => {
+			for (const op of operations) {
+				if (op.type === 'clear') {
+					for (const className of cache.keys()) {
+						removeFromRendered(className);
+					}
+					cache.clear();
+					continue;
+				}
+				if (op.type === 'removeByType') {
+					removeFromRendered(op.className, op.cellType);
+					const dates = cache.get(op.className);
+					if (dates && (op.cellType === 'weekday' || op.cellType === 'weekend')) {
+						for (const d of dates) {
+							if (((d % 7 + 10) % 7 >= 5) === (op.cellType === 'weekend')) {
+								dates.delete(d);
+							}
+						}
+					}
+					continue;
+				}
+				if (op.type === 'reset') {
+					removeFromRendered(op.className);
+					cache.delete(op.className);
+				}
+				const added = decodeDates(op.dates).filter(inRange);
+				if (!added.length) {
+					continue;
+				}
+				if (!cache.has(op.className)) {
+					cache.set(op.className, new Set());
+				}
+				const dates = cache.get(op.className);
+				added.forEach(d => dates.add(d));
+				for (const [t, el] of rendered) {
+					addDays(el, added.filter(d => inMonth(d, t)), op.className);
+				}
+			}
+		};
+		host.addEventListener('scroll', () => {
+			if (!frame) {
+				frame = true;
+				requestAnimationFrame(() => {
+					frame = false;
+					layout(false);
+				});
+			}
+		});
+		new ResizeObserver(() => layout(false)).observe(host);
+		new MutationObserver(records => {
+			let rebuild = false;
+			for (const record of records) {
+				const name = record.attributeName;
+				if (!copied.includes(name)) {
+					rebuild = true;
+					continue;
+				}
+				for (const el of rendered.values()) {
+					if (host.hasAttribute(name)) {
+						el.setAttribute(name, host.getAttribute(name));
+					} else {
+						el.removeAttribute(name);
+					}
+				}
+			}
+			layout(rebuild);
+		}).observe(host, { attributes: true, attributeFilter: [...copied, 'start', 'months', 'month-height'] });
+		host.__simpleCalendarTimeline = { layout, decorate, defined };
+		layout(false);
+	},
+
+	/**
+	 * Applies the operations to the rendered months and to the cache of the reported months of a timeline
+	 */
+	decorateTimeline(host, operations) {
+		const timeline = host.__simpleCalendarTimeline;
+		if (timeline) {
+			timeline.defined(() => timeline.decorate(operations));
+		}
+	}
+};
+
+window.Vaadin = window.Vaadin || {};
+window.Vaadin.Flow = window.Vaadin.Flow || {};
+window.Vaadin.Flow.simpleCalendarConnector = connector;
@@ -0,0 +1,104 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+
+import elemental.json.JsonArray;
+
+public class AttributeFlushTest {
+
+	private final UI ui = new TestVaadinSession(new TestVaadinService()).createUI();
+
+	private final MonthCalendar calendar = new MonthCalendar(2024, 3, "en", true);
+
+	private final List<CalendarMetrics> roundTrips = new ArrayList<>();
+
+	@Test
+	public void changesOfARoundTripAreFlushedOnce() {
+		attach();
+		calendar.refreshMonth(4);
+		calendar.refreshYear(2025);
+		calendar.refreshLocale("hu");
+		calendar.refreshYearIsFirst(false);
+		List<PendingJavaScriptInvocation> invocations = TestVaadinSession.roundTrip(ui);
+
+		assertEquals(1, roundTrips.size());
+		assertEquals(4, roundTrips.get(0).attributeUpdates());
+		assertEquals("2025", calendar.getElement().getAttribute("year"));
+		assertEquals("4", calendar.getElement().getAttribute("month"));
+		assertEquals("hu", calendar.getElement().getAttribute("locale"));
+		// the days are re-rendered once, so the decorations are sent once
+		assertEquals(1, decorateCalls(invocations));
+	}
+
+	@Test
+	public void valuesTheClientHasAreSkipped() {
+		attach();
+		calendar.refreshMonth(4);
+		calendar.refreshMonth(3);
+		calendar.refreshLocale("en");
+		List<PendingJavaScriptInvocation> invocations = TestVaadinSession.roundTrip(ui);
+
+		// nothing has been sent, so nothing is reported
+		assertTrue(roundTrips.isEmpty());
+		assertEquals(0, decorateCalls(invocations));
+	}
+
+	@Test
+	public void rerenderingAttributeResendsTheDecorations() {
+		attach();
+		for ( Runnable change : List.<Runnable> of(() -> calendar.refreshLocale("hu"), () -> calendar.refreshShowOtherMonthDays(true),
+				() -> calendar.refreshMonth(4), () -> calendar.refreshYear(2025)) ) {
+			change.run();
+			assertEquals(1, decorateCalls(TestVaadinSession.roundTrip(ui)));
+		}
+	}
+
+	@Test
+	public void otherAttributesKeepTheDecorations() {
+		attach();
+		calendar.refreshYearIsFirst(false);
+		calendar.refreshDayNameFormat(DayNameFormat.NARROW);
+		List<PendingJavaScriptInvocation> invocations = TestVaadinSession.roundTrip(ui);
+
+		assertEquals(2, roundTrips.get(0).attributeUpdates());
+		assertEquals(0, decorateCalls(invocations));
+	}
+
+	@Test
+	public void rerenderedClientGetsAllTheDecorations() {
+		attach();
+		calendar.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 4, 2)), "booked");
+		calendar.refreshMonth(4);
+		List<PendingJavaScriptInvocation> invocations = TestVaadinSession.roundTrip(ui);
+		assertEquals(1, decorateCalls(invocations));
+		// the client is reset, so both classes are sent, not only the new one
+		String operations = ((JsonArray) decorateInvocation(invocations).getInvocation().getParameters().get(0)).toJson();
+		assertTrue(operations.contains("holiday"));
+		assertTrue(operations.contains("booked"));
+	}
+
+	private void attach() {
+		calendar.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 3, 15), LocalDate.of(2024, 4, 1), LocalDate.of(2025, 4, 1)), "holiday");
+		ui.add(calendar);
+		TestVaadinSession.roundTrip(ui);
+		calendar.setMetricsListener((source, metrics) -> roundTrips.add(metrics));
+	}
+
+	private static long decorateCalls(List<PendingJavaScriptInvocation> invocations) {
+		return invocations.stream().filter(invocation -> invocation.getInvocation().getExpression().contains(".decorate(")).count();
+	}
+
+	private static PendingJavaScriptInvocation decorateInvocation(List<PendingJavaScriptInvocation> invocations) {
+		return invocations.stream().filter(invocation -> invocation.getInvocation().getExpression().contains(".decorate(")).findFirst().orElseThrow();
+	}
+}
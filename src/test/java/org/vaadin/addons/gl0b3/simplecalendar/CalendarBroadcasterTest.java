@@ -0,0 +1,143 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+
+public class CalendarBroadcasterTest {
+
+	private static final LocalDate DAY = LocalDate.of(2024, 5, 10);
+
+	private final TestVaadinService service = new TestVaadinService();
+
+	@After
+	public void destroyService() {
+		service.destroy();
+	}
+
+	@Test
+	public void publishedChangeReachesEveryUIThroughAccess() throws Exception {
+		UI firstUI = new TestVaadinSession(service).createUI();
+		UI secondUI = new TestVaadinSession(service).createUI();
+		YearCalendar first = new YearCalendar(2024, "en", true);
+		YearCalendar second = new YearCalendar(2024, "en", true);
+		firstUI.add(first);
+		secondUI.add(second);
+
+		CalendarBroadcaster broadcaster = CalendarBroadcaster.getInstance(service, "bookings").setCoalescingWindow(Duration.ofMillis(1));
+		broadcaster.register(first);
+		broadcaster.register(second);
+
+		Set<UI> accessedUIs = ConcurrentHashMap.newKeySet();
+		CountDownLatch delivered = new CountDownLatch(2);
+		broadcaster.publish(batch -> {
+			UI current = UI.getCurrent();
+			if ( current != null && current.getSession().hasLock() ) {
+				accessedUIs.add(current);
+			}
+			batch.addClassToCellByLocalDates(List.of(DAY), "booked");
+			delivered.countDown();
+		});
+
+		assertTrue(delivered.await(5, TimeUnit.SECONDS));
+		assertEquals(Set.of(firstUI, secondUI), accessedUIs);
+		assertTrue(isBooked(first));
+		assertTrue(isBooked(second));
+	}
+
+	@Test
+	public void changesWithinTheWindowAreDeliveredInOneAccess() throws Exception {
+		TestVaadinSession session = new TestVaadinSession(service);
+		UI ui = session.createUI();
+		YearCalendar calendar = new YearCalendar(2024, "en", true);
+		ui.add(calendar);
+		CalendarBroadcaster broadcaster = CalendarBroadcaster.getInstance(service, "bookings").setCoalescingWindow(Duration.ofMillis(200));
+		broadcaster.register(calendar);
+
+		Set<DecorationBatch> batches = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+		CountDownLatch delivered = new CountDownLatch(3);
+		for ( int i = 0; i < 3; i++ ) {
+			LocalDate day = DAY.plusDays(i);
+			broadcaster.publish(batch -> {
+				// the changes of one window are applied in the same decorate call
+				batches.add(batch);
+				batch.addClassToCellByLocalDates(List.of(day), "booked");
+				delivered.countDown();
+			});
+		}
+
+		assertTrue(delivered.await(5, TimeUnit.SECONDS));
+		assertEquals(1, batches.size());
+	}
+
+	@Test
+	public void unregisteredCalendarIsNotChanged() throws Exception {
+		UI firstUI = new TestVaadinSession(service).createUI();
+		UI secondUI = new TestVaadinSession(service).createUI();
+		YearCalendar first = new YearCalendar(2024, "en", true);
+		YearCalendar second = new YearCalendar(2024, "en", true);
+		firstUI.add(first);
+		secondUI.add(second);
+		CalendarBroadcaster broadcaster = CalendarBroadcaster.getInstance(service, "bookings").setCoalescingWindow(Duration.ofMillis(1));
+		broadcaster.register(first);
+		broadcaster.register(second).remove();
+
+		CountDownLatch delivered = new CountDownLatch(1);
+		broadcaster.publish(batch -> {
+			batch.addClassToCellByLocalDates(List.of(DAY), "booked");
+			delivered.countDown();
+		});
+
+		assertTrue(delivered.await(5, TimeUnit.SECONDS));
+		assertTrue(isBooked(first));
+		assertTrue(second.getDecorationModel().getDecorations(DAY, DAY).isEmpty());
+	}
+
+	@Test
+	public void channelsAreScopedToTheService() {
+		TestVaadinService other = new TestVaadinService();
+		try {
+			assertSame(CalendarBroadcaster.getInstance(service, "bookings"), CalendarBroadcaster.getInstance(service, "bookings"));
+			assertNotSame(CalendarBroadcaster.getInstance(service, "bookings"), CalendarBroadcaster.getInstance(other, "bookings"));
+		} finally {
+			other.destroy();
+		}
+	}
+
+	@Test
+	public void destroyedServiceDropsItsChannels() {
+		CalendarBroadcaster before = CalendarBroadcaster.getInstance(service, "bookings");
+		service.destroy();
+		assertNotSame(before, CalendarBroadcaster.getInstance(service, "bookings"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void getInstanceWithoutCurrentServiceFails() {
+		VaadinService.setCurrent(null);
+		VaadinSession.setCurrent(null);
+		CalendarBroadcaster.getInstance("bookings");
+	}
+
+	private static boolean isBooked(AbstractSimpleCalendar calendar) {
+		DateSet booked = calendar.getDecorationModel().getDecorations(DAY, DAY).get("booked");
+		return booked != null && booked.contains(DAY);
+	}
+}
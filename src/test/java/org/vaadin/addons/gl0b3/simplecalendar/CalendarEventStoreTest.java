@@ -0,0 +1,245 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.VaadinService;
+
+public class CalendarEventStoreTest {
+
+	private static final LocalDate BASE = LocalDate.of(2024, 1, 1);
+
+	@Test
+	public void overlapQueriesMatchBruteForce() {
+		Random random = new Random(7);
+		CalendarEventStore<Integer> store = new CalendarEventStore<>();
+		Map<Integer, LocalDate[]> events = new HashMap<>();
+		for ( int i = 0; i < 2000; i++ ) {
+			int key = random.nextInt(500);
+			if ( random.nextInt(4) == 0 ) {
+				assertEquals(events.remove(key) != null, store.remove(key));
+			} else {
+				LocalDate start = BASE.plusDays(random.nextInt(365));
+				LocalDate end = start.plusDays(random.nextInt(20));
+				store.put(key, start, end);
+				events.put(key, new LocalDate[] { start, end });
+			}
+			if ( i % 100 == 0 ) {
+				LocalDate from = BASE.plusDays(random.nextInt(365));
+				LocalDate to = from.plusDays(random.nextInt(60));
+				assertArrayEquals(bruteForceCounts(events, from, to), store.getOverlapCounts(from, to));
+				assertEquals(bruteForceEvents(events, from, to), store.getEvents(from, to).stream().sorted().toList());
+			}
+		}
+		assertEquals(events.size(), store.size());
+	}
+
+	@Test
+	public void eventsAreOrderedByStart() {
+		CalendarEventStore<String> store = new CalendarEventStore<>();
+		store.put("b", BASE.plusDays(5), BASE.plusDays(6));
+		store.put("a", BASE, BASE.plusDays(10));
+		store.put("c", BASE.plusDays(7), BASE.plusDays(7));
+		assertEquals(List.of("a", "b", "c"), store.getEvents(BASE, BASE.plusDays(30)));
+		assertEquals(List.of("a", "c"), store.getEvents(BASE.plusDays(7), BASE.plusDays(7)));
+	}
+
+	@Test
+	public void busyAndConflictDays() {
+		CalendarEventStore<String> store = new CalendarEventStore<>();
+		store.put("a", BASE, BASE.plusDays(2));
+		store.put("b", BASE.plusDays(2), BASE.plusDays(3));
+		assertEquals(4, store.getBusyDays(BASE, BASE.plusDays(10)).size());
+		DateSet conflicts = store.getConflictDays(BASE, BASE.plusDays(10));
+		assertEquals(1, conflicts.size());
+		assertTrue(conflicts.contains(BASE.plusDays(2)));
+	}
+
+	@Test
+	public void putMovesTheEvent() {
+		CalendarEventStore<String> store = new CalendarEventStore<>();
+		store.put("a", BASE, BASE.plusDays(2));
+		store.put("a", BASE.plusDays(10), BASE.plusDays(11));
+		assertEquals(1, store.size());
+		assertTrue(store.getEvents(BASE, BASE.plusDays(2)).isEmpty());
+		assertEquals(List.of("a"), store.getEvents(BASE.plusDays(11), BASE.plusDays(20)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void endBeforeStartIsRejected() {
+		new CalendarEventStore<String>().put("a", BASE.plusDays(1), BASE);
+	}
+
+	@Test
+	public void listenerGetsTheChangedPeriod() {
+		CalendarEventStore<String> store = new CalendarEventStore<>();
+		List<LocalDate> changes = new ArrayList<>();
+		store.addChangeListener((from, to) -> {
+			changes.add(from);
+			changes.add(to);
+		});
+		store.put("a", BASE, BASE.plusDays(2));
+		store.put("a", BASE.plusDays(10), BASE.plusDays(11));
+		store.clear();
+		assertEquals(List.of(BASE, BASE.plusDays(2), BASE, BASE.plusDays(11), BASE.plusDays(10), BASE.plusDays(11)), changes);
+	}
+
+	@Test
+	public void rulesAreEvaluatedForThePeriod() {
+		CalendarEventStore<String> store = new CalendarEventStore<>();
+		store.put("a", BASE, BASE.plusDays(40));
+		store.put("b", BASE.plusDays(40), BASE.plusDays(41));
+		DateSet dates = new DateSet();
+		store.conflictRule().collectDates(BASE, BASE.plusDays(100), dates);
+		assertEquals(1, dates.size());
+		assertTrue(dates.contains(BASE.plusDays(40)));
+	}
+
+	@Test
+	public void serializedRuleFindsTheStoreByName() throws Exception {
+		VaadinService.setCurrent(new TestVaadinService());
+		CalendarEventStore<String> store = new CalendarEventStore<>("test-bookings");
+		store.put("a", BASE, BASE.plusDays(2));
+		byte[] bytes = serialize(store.busyRule());
+		// only the name of the store is serialized, not its events
+		assertTrue(bytes.length < 1000);
+		DecorationRule deserialized = (DecorationRule) deserialize(bytes);
+		store.put("b", BASE.plusDays(5), BASE.plusDays(5));
+		DateSet dates = new DateSet();
+		deserialized.collectDates(BASE, BASE.plusDays(10), dates);
+		assertEquals(4, dates.size());
+		assertFalse(dates.contains(BASE.plusDays(4)));
+	}
+
+	@Test
+	public void sameNameInTwoApplications() throws Exception {
+		VaadinService first = new TestVaadinService();
+		VaadinService second = new TestVaadinService();
+		CalendarEventStore<String> firstStore = new CalendarEventStore<>(first, "bookings");
+		CalendarEventStore<String> secondStore = new CalendarEventStore<>(second, "bookings");
+		firstStore.put("a", BASE, BASE);
+		secondStore.put("a", BASE.plusDays(1), BASE.plusDays(2));
+		byte[] rule = serialize(firstStore.busyRule());
+
+		VaadinService.setCurrent(first);
+		assertEquals(1, busyDays((DecorationRule) deserialize(rule)));
+		VaadinService.setCurrent(second);
+		assertEquals(2, busyDays((DecorationRule) deserialize(rule)));
+	}
+
+	@Test
+	public void deserializedStoreIsTheLiveStore() throws Exception {
+		VaadinService.setCurrent(new TestVaadinService());
+		CalendarEventStore<String> store = new CalendarEventStore<>("bookings");
+		store.put("a", BASE, BASE);
+		List<LocalDate> changes = new ArrayList<>();
+		store.addChangeListener((from, to) -> changes.add(from));
+		byte[] bytes = serialize(store);
+
+		store.put("b", BASE.plusDays(3), BASE.plusDays(3));
+		Object deserialized = deserialize(bytes);
+		assertSame(store, deserialized);
+		assertEquals(2, store.size());
+		// the deserialized copy has not replaced the store for the rules
+		assertEquals(2, busyDays((DecorationRule) deserialize(serialize(store.busyRule()))));
+		assertEquals(List.of(BASE.plusDays(3)), changes);
+	}
+
+	@Test
+	public void deserializedStoreIsRegisteredInAnotherApplication() throws Exception {
+		CalendarEventStore<String> store = new CalendarEventStore<>(new TestVaadinService(), "bookings");
+		store.put("a", BASE, BASE.plusDays(1));
+		byte[] bytes = serialize(store);
+
+		VaadinService.setCurrent(new TestVaadinService());
+		@SuppressWarnings("unchecked")
+		CalendarEventStore<String> deserialized = (CalendarEventStore<String>) deserialize(bytes);
+		assertNotSame(store, deserialized);
+		assertEquals(1, deserialized.size());
+		assertEquals(2, busyDays((DecorationRule) deserialize(serialize(deserialized.busyRule()))));
+	}
+
+	@Test
+	public void destroyedApplicationDropsItsStores() throws Exception {
+		TestVaadinService service = new TestVaadinService();
+		CalendarEventStore<String> store = new CalendarEventStore<>(service, "bookings");
+		store.put("a", BASE, BASE);
+		byte[] rule = serialize(store.busyRule());
+		service.destroy();
+
+		VaadinService.setCurrent(service);
+		assertEquals(0, busyDays((DecorationRule) deserialize(rule)));
+	}
+
+	@Test
+	public void storeWithoutApplicationIsNotFound() throws Exception {
+		CalendarEventStore<String> store = new CalendarEventStore<>("bookings");
+		store.put("a", BASE, BASE);
+		byte[] rule = serialize(store.busyRule());
+
+		VaadinService.setCurrent(new TestVaadinService());
+		assertEquals(0, busyDays((DecorationRule) deserialize(rule)));
+	}
+
+	@After
+	public void clearCurrentService() {
+		CurrentInstance.clearAll();
+	}
+
+	private static int busyDays(DecorationRule rule) {
+		DateSet dates = new DateSet();
+		rule.collectDates(BASE, BASE.plusDays(10), dates);
+		return dates.size();
+	}
+
+	private static byte[] serialize(Object object) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try ( ObjectOutputStream out = new ObjectOutputStream(bytes) ) {
+			out.writeObject(object);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialize(byte[] bytes) throws Exception {
+		try ( ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)) ) {
+			return in.readObject();
+		}
+	}
+
+	private static int[] bruteForceCounts(Map<Integer, LocalDate[]> events, LocalDate from, LocalDate to) {
+		int[] counts = new int[(int) (to.toEpochDay() - from.toEpochDay() + 1)];
+		for ( LocalDate[] event : events.values() ) {
+			for ( int i = 0; i < counts.length; i++ ) {
+				LocalDate day = from.plusDays(i);
+				if ( !day.isBefore(event[0]) && !day.isAfter(event[1]) ) {
+					counts[i]++;
+				}
+			}
+		}
+		return counts;
+	}
+
+	private static List<Integer> bruteForceEvents(Map<Integer, LocalDate[]> events, LocalDate from, LocalDate to) {
+		return events.entrySet().stream().filter(entry -> !entry.getValue()[0].isAfter(to) && !entry.getValue()[1].isBefore(from))
+				.map(Map.Entry::getKey).sorted().toList();
+	}
+}
@@ -0,0 +1,118 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+
+public class CalendarGroupTest {
+
+	private final MonthCalendar march = new MonthCalendar(2024, 3, "en", true);
+
+	private final MonthCalendar april = new MonthCalendar(2024, 4, "en", true);
+
+	private final YearCalendar year = new YearCalendar(2024, "en", true);
+
+	@Test
+	public void monthStepsMoveTheYearOnlyAcrossYears() {
+		new CalendarGroup(march, year, april).setLinkedNavigation(true);
+
+		march.shiftMonths(-1);
+		assertPeriods(YearMonth.of(2024, 2), YearMonth.of(2024, 3), 2024);
+		march.shiftMonths(-1);
+		assertPeriods(YearMonth.of(2024, 1), YearMonth.of(2024, 2), 2024);
+		march.shiftMonths(-1);
+		assertPeriods(YearMonth.of(2023, 12), YearMonth.of(2024, 1), 2023);
+		march.shiftMonths(1);
+		assertPeriods(YearMonth.of(2024, 1), YearMonth.of(2024, 2), 2024);
+		march.shiftMonths(1);
+		assertPeriods(YearMonth.of(2024, 2), YearMonth.of(2024, 3), 2024);
+	}
+
+	@Test
+	public void forwardAndBackwardStepsAreSymmetric() {
+		new CalendarGroup(march, year).setLinkedNavigation(true);
+		for ( int i = 0; i < 30; i++ ) {
+			march.shiftMonths(1);
+			assertEquals(march.getPeriodStart().getYear(), year.getPeriodStart().getYear());
+		}
+		for ( int i = 0; i < 60; i++ ) {
+			march.shiftMonths(-1);
+			assertEquals(march.getPeriodStart().getYear(), year.getPeriodStart().getYear());
+		}
+	}
+
+	@Test
+	public void yearStepMovesTheMonthsByAYear() {
+		new CalendarGroup(march, year, april).setLinkedNavigation(true);
+		year.refreshYear(2025);
+		assertPeriods(YearMonth.of(2025, 3), YearMonth.of(2025, 4), 2025);
+		year.shiftMonths(-24);
+		assertPeriods(YearMonth.of(2023, 3), YearMonth.of(2023, 4), 2023);
+	}
+
+	@Test
+	public void groupShiftIsCountedOnTheMonthMember() {
+		CalendarGroup group = new CalendarGroup(year, march, april);
+		group.shiftMonths(-2);
+		assertPeriods(YearMonth.of(2024, 1), YearMonth.of(2024, 2), 2024);
+		group.shiftMonths(-1);
+		assertPeriods(YearMonth.of(2023, 12), YearMonth.of(2024, 1), 2023);
+		group.shiftMonths(1);
+		assertPeriods(YearMonth.of(2024, 1), YearMonth.of(2024, 2), 2024);
+	}
+
+	@Test
+	public void unlinkedMembersDontFollow() {
+		new CalendarGroup(march, year, april);
+		march.shiftMonths(-3);
+		assertPeriods(YearMonth.of(2023, 12), YearMonth.of(2024, 4), 2024);
+	}
+
+	@Test
+	public void sharedDecorationsAreSentInOneCallToAllMembers() {
+		UI ui = new TestVaadinSession(new TestVaadinService()).createUI();
+		ui.add(march, year, april);
+		CalendarGroup group = new CalendarGroup(march, year, april).setLinkedNavigation(true);
+		group.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 3, 15)), "holiday");
+
+		List<PendingJavaScriptInvocation> invocations = groupInvocations(TestVaadinSession.roundTrip(ui));
+		assertEquals(1, invocations.size());
+		// the operations and the three members
+		assertEquals(4, invocations.get(0).getInvocation().getParameters().size());
+		assertTrue(groupInvocations(TestVaadinSession.roundTrip(ui)).isEmpty());
+
+		// a moved member re-renders, so the shared decorations are sent again
+		march.shiftMonths(1);
+		assertEquals(1, groupInvocations(TestVaadinSession.roundTrip(ui)).size());
+	}
+
+	@Test
+	public void detachedMembersAreLeftOut() {
+		UI ui = new TestVaadinSession(new TestVaadinService()).createUI();
+		ui.add(march, april);
+		CalendarGroup group = new CalendarGroup(march, year, april);
+		group.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 3, 15)), "holiday");
+
+		List<PendingJavaScriptInvocation> invocations = groupInvocations(TestVaadinSession.roundTrip(ui));
+		assertEquals(1, invocations.size());
+		assertEquals(3, invocations.get(0).getInvocation().getParameters().size());
+	}
+
+	private void assertPeriods(YearMonth marchPeriod, YearMonth aprilPeriod, int yearPeriod) {
+		assertEquals(marchPeriod, march.getPeriodStart());
+		assertEquals(aprilPeriod, april.getPeriodStart());
+		assertEquals(YearMonth.of(yearPeriod, 1), year.getPeriodStart());
+	}
+
+	private static List<PendingJavaScriptInvocation> groupInvocations(List<PendingJavaScriptInvocation> invocations) {
+		return invocations.stream().filter(invocation -> invocation.getInvocation().getExpression().contains(".decorateGroup(")).toList();
+	}
+}
@@ -0,0 +1,127 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.VaadinService;
+
+public class CalendarMetadataRegistryTest {
+
+	private static final LocalDate NEW_YEAR = LocalDate.of(2024, 1, 1);
+
+	private final TestVaadinService service = new TestVaadinService();
+
+	private final CalendarMetadataRegistry registry = CalendarMetadataRegistry.getInstance(service);
+
+	@After
+	public void clearCurrentService() {
+		CurrentInstance.clearAll();
+	}
+
+	@Test
+	public void registryBelongsToTheApplication() {
+		assertSame(registry, CalendarMetadataRegistry.getInstance(service));
+		assertNotSame(registry, CalendarMetadataRegistry.getInstance(new TestVaadinService()));
+		VaadinService.setCurrent(service);
+		assertSame(registry, CalendarMetadataRegistry.getInstance());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void getInstanceWithoutCurrentServiceFails() {
+		CalendarMetadataRegistry.getInstance();
+	}
+
+	@Test
+	public void destroyedServiceDropsTheRegistry() {
+		registry.registerLoader("HU", (year, region) -> Map.of());
+		service.destroy();
+		CalendarMetadataRegistry recreated = CalendarMetadataRegistry.getInstance(service);
+		assertNotSame(registry, recreated);
+		assertFalse(recreated.hasLoader("HU"));
+	}
+
+	@Test
+	public void metadataIsLoadedOncePerYearAndRegion() {
+		AtomicInteger loads = new AtomicInteger();
+		registry.registerLoader("HU", (year, region) -> {
+			loads.incrementAndGet();
+			return Map.of("holiday", List.of(LocalDate.of(year, 1, 1)));
+		});
+		assertSame(registry.get(2024, "HU"), registry.get(2024, "HU"));
+		registry.get(2025, "HU");
+		assertEquals(2, loads.get());
+
+		registry.invalidate("HU");
+		registry.get(2024, "HU");
+		assertEquals(3, loads.get());
+		assertEquals(0, registry.get(2024, "HU").getDates("unknown").size());
+	}
+
+	@Test
+	public void ruleSpansTheYears() {
+		registry.registerLoader("HU", (year, region) -> Map.of("holiday", List.of(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 25))));
+		DateSet dates = new DateSet();
+		registry.rule("HU", "holiday").collectDates(LocalDate.of(2023, 12, 1), LocalDate.of(2024, 1, 31), dates);
+		assertEquals(2, dates.size());
+		assertTrue(dates.contains(LocalDate.of(2023, 12, 25)));
+		assertTrue(dates.contains(NEW_YEAR));
+	}
+
+	@Test
+	public void ruleWithoutLoaderGivesNoDates() {
+		DateSet dates = new DateSet();
+		DecorationRule rule = registry.rule("XX", "holiday");
+		rule.collectDates(NEW_YEAR, NEW_YEAR.plusDays(10), dates);
+		rule.collectDates(NEW_YEAR, NEW_YEAR.plusDays(10), dates);
+		assertEquals(0, dates.size());
+
+		// the loader is used as soon as it is registered
+		registry.registerLoader("XX", (year, region) -> Map.of("holiday", List.of(NEW_YEAR)));
+		rule.collectDates(NEW_YEAR, NEW_YEAR.plusDays(10), dates);
+		assertEquals(1, dates.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getWithoutLoaderFails() {
+		registry.get(2024, "XX");
+	}
+
+	@Test
+	public void deserializedRuleFindsTheRegistryOfTheApplication() throws Exception {
+		registry.registerLoader("HU", (year, region) -> Map.of("holiday", List.of(NEW_YEAR)));
+		DecorationRule rule = registry.rule("HU", "holiday");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try ( ObjectOutputStream out = new ObjectOutputStream(bytes) ) {
+			out.writeObject(rule);
+		}
+		DecorationRule deserialized;
+		try ( ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())) ) {
+			deserialized = (DecorationRule) in.readObject();
+		}
+		assertEquals(rule, deserialized);
+
+		DateSet dates = new DateSet();
+		deserialized.collectDates(NEW_YEAR, NEW_YEAR, dates);
+		// there is no application to read from outside of a request
+		assertEquals(0, dates.size());
+		VaadinService.setCurrent(service);
+		deserialized.collectDates(NEW_YEAR, NEW_YEAR, dates);
+		assertEquals(1, dates.size());
+	}
+}
@@ -0,0 +1,139 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+
+import elemental.json.JsonArray;
+
+public class CalendarMetricsTest {
+
+	private final UI ui = new TestVaadinSession(new TestVaadinService()).createUI();
+
+	private final MonthCalendar march = new MonthCalendar(2024, 3, "en", false);
+
+	private final MonthCalendar april = new MonthCalendar(2024, 4, "en", false);
+
+	private final List<CalendarMetrics> roundTrips = new ArrayList<>();
+
+	@Test
+	public void decorationsAreCountedPerFlush() {
+		attach(march);
+		march.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 5), LocalDate.of(2024, 5, 1)), "booked");
+		List<PendingJavaScriptInvocation> invocations = TestVaadinSession.roundTrip(ui);
+
+		assertEquals(1, roundTrips.size());
+		CalendarMetrics metrics = roundTrips.get(0);
+		assertEquals(1, metrics.jsCalls());
+		assertEquals(0, metrics.attributeUpdates());
+		// only the visible dates are encoded
+		assertEquals(2, metrics.datesConverted());
+		assertEquals(operations(invocations, ".decorate(").toJson().length(), metrics.payloadBytes());
+		assertTrue(metrics.conversionNanos() > 0);
+	}
+
+	@Test
+	public void attributesAndDecorationsOfARoundTripAreReportedTogether() {
+		march.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 4, 2)), "holiday");
+		attach(march);
+		march.refreshMonth(4);
+		TestVaadinSession.roundTrip(ui);
+
+		assertEquals(1, roundTrips.size());
+		assertEquals(1, roundTrips.get(0).attributeUpdates());
+		assertEquals(1, roundTrips.get(0).jsCalls());
+		assertEquals(2, roundTrips.get(0).datesConverted());
+	}
+
+	@Test
+	public void roundTripWithoutChangesIsNotReported() {
+		attach(march);
+		march.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 5, 1)), "booked");
+		march.refreshMonth(3);
+		TestVaadinSession.roundTrip(ui);
+		assertTrue(roundTrips.isEmpty());
+	}
+
+	@Test
+	public void groupPayloadIsCountedOnTheFirstAttachedMember() {
+		attach(march);
+		ui.add(april);
+		TestVaadinSession.roundTrip(ui);
+		List<CalendarMetrics> aprilRoundTrips = new ArrayList<>();
+		april.setMetricsListener((source, metrics) -> aprilRoundTrips.add(metrics));
+		CalendarGroup group = new CalendarGroup(march, april);
+		group.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 3, 15), LocalDate.of(2024, 4, 15)), "holiday");
+		TestVaadinSession.roundTrip(ui);
+		roundTrips.clear();
+		group.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 3, 20)), "holiday");
+		List<PendingJavaScriptInvocation> invocations = TestVaadinSession.roundTrip(ui);
+
+		assertEquals(1, roundTrips.size());
+		assertEquals(1, roundTrips.get(0).jsCalls());
+		assertEquals(1, roundTrips.get(0).datesConverted());
+		assertEquals(operations(invocations, ".decorateGroup(").toJson().length(), roundTrips.get(0).payloadBytes());
+		assertTrue(aprilRoundTrips.isEmpty());
+	}
+
+	@Test
+	public void adapterTagsTheCalendarAndTheUi() {
+		List<String> counted = new ArrayList<>();
+		List<String> timed = new ArrayList<>();
+		CalendarMetricsAdapter adapter = new CalendarMetricsAdapter((name, calendar, uiId, amount) -> counted.add(name + " " + calendar + " " + uiId + " " + amount),
+				(name, calendar, uiId, nanos) -> timed.add(name + " " + calendar + " " + uiId + " " + nanos));
+		ui.add(march);
+		String uiId = String.valueOf(ui.getUIId());
+		adapter.onRoundTrip(march, new CalendarMetrics(1, 2, 30, 4, 500));
+
+		assertEquals(List.of(CalendarMetricsAdapter.ROUND_TRIPS + " MonthCalendar " + uiId + " 1.0",
+				CalendarMetricsAdapter.JS_CALLS + " MonthCalendar " + uiId + " 1.0",
+				CalendarMetricsAdapter.ATTRIBUTE_UPDATES + " MonthCalendar " + uiId + " 2.0",
+				CalendarMetricsAdapter.PAYLOAD_BYTES + " MonthCalendar " + uiId + " 30.0",
+				CalendarMetricsAdapter.DATES_CONVERTED + " MonthCalendar " + uiId + " 4.0"), counted);
+		assertEquals(List.of(CalendarMetricsAdapter.CONVERSION_TIME + " MonthCalendar " + uiId + " 500"), timed);
+	}
+
+	@Test
+	public void adapterTagsADetachedCalendarWithAnEmptyUi() {
+		List<String> uis = new ArrayList<>();
+		new CalendarMetricsAdapter((name, calendar, uiId, amount) -> uis.add(uiId), (name, calendar, uiId, nanos) -> uis.add(uiId))
+				.onRoundTrip(april, new CalendarMetrics(1, 0, 10, 1, 5));
+		assertEquals(6, uis.size());
+		assertTrue(uis.stream().allMatch(String::isEmpty));
+	}
+
+	@Test
+	public void collectorSumsTheRoundTrips() {
+		CalendarMetricsCollector collector = new CalendarMetricsCollector();
+		collector.onRoundTrip(march, new CalendarMetrics(1, 2, 30, 4, 500));
+		collector.onRoundTrip(april, new CalendarMetrics(2, 0, 10, 1, 100));
+		assertEquals(2, collector.getRoundTrips());
+		assertEquals(3, collector.getJsCalls());
+		assertEquals(2, collector.getAttributeUpdates());
+		assertEquals(40, collector.getPayloadBytes());
+		assertEquals(5, collector.getDatesConverted());
+		assertEquals(600, collector.getConversionNanos());
+	}
+
+	/**
+	 * Attaches the calendar, sends what it has, and starts to measure it
+	 */
+	private void attach(MonthCalendar calendar) {
+		ui.add(calendar);
+		TestVaadinSession.roundTrip(ui);
+		calendar.setMetricsListener((source, metrics) -> roundTrips.add(metrics));
+	}
+
+	private static JsonArray operations(List<PendingJavaScriptInvocation> invocations, String function) {
+		return (JsonArray) invocations.stream().filter(invocation -> invocation.getInvocation().getExpression().contains(function)).findFirst()
+				.orElseThrow().getInvocation().getParameters().get(0);
+	}
+}
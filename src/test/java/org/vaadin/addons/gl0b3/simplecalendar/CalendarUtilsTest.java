@@ -0,0 +1,136 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.Test;
+
+public class CalendarUtilsTest {
+
+	@Test
+	public void emptySetIsEncodedAsEmptyString() {
+		assertEquals("", CalendarUtils.encodeDates(new DateSet()));
+		assertTrue(CalendarUtils.decodeDates("").isEmpty());
+	}
+
+	@Test
+	public void singleDateRoundTrip() {
+		DateSet dates = new DateSet(List.of(LocalDate.of(2024, 2, 29)));
+		assertEquals(dates, CalendarUtils.decodeDates(CalendarUtils.encodeDates(dates)));
+	}
+
+	@Test
+	public void runsAndGapsRoundTrip() {
+		DateSet dates = new DateSet();
+		for ( LocalDate day = LocalDate.of(2024, 1, 1); day.getYear() == 2024; day = day.plusDays(1) ) {
+			if ( day.getDayOfMonth() <= 10 || day.getDayOfMonth() == 20 ) {
+				dates.add(day);
+			}
+		}
+		assertEquals(dates, CalendarUtils.decodeDates(CalendarUtils.encodeDates(dates)));
+	}
+
+	@Test
+	public void negativeAndExtremeEpochDaysRoundTrip() {
+		DateSet dates = new DateSet(List.of(LocalDate.MIN, LocalDate.of(1969, 12, 31), LocalDate.of(1970, 1, 1), LocalDate.MAX));
+		DateSet decoded = CalendarUtils.decodeDates(CalendarUtils.encodeDates(dates));
+		assertEquals(dates, decoded);
+		assertTrue(decoded.contains(LocalDate.MIN));
+		assertTrue(decoded.contains(LocalDate.MAX));
+	}
+
+	@Test
+	public void randomSetsRoundTrip() {
+		Random random = new Random(42);
+		for ( int i = 0; i < 50; i++ ) {
+			DateSet dates = new DateSet();
+			long start = random.nextInt(40_000) - 20_000;
+			for ( int j = random.nextInt(500); j > 0; j-- ) {
+				dates.add(start + random.nextInt(2_000));
+			}
+			assertEquals(dates, CalendarUtils.decodeDates(CalendarUtils.encodeDates(dates)));
+		}
+	}
+
+	@Test
+	public void fullYearIsOneRun() {
+		DateSet dates = new DateSet();
+		for ( LocalDate day = LocalDate.of(2024, 1, 1); day.getYear() == 2024; day = day.plusDays(1) ) {
+			dates.add(day);
+		}
+		assertEquals(5, CalendarUtils.encodeRuns(dates).length);
+	}
+
+	@Test
+	public void toEpochDayUsesTheZone() {
+		Date date = Date.from(LocalDate.of(2024, 3, 10).atTime(23, 30).toInstant(ZoneOffset.UTC));
+		assertEquals(LocalDate.of(2024, 3, 10).toEpochDay(), CalendarUtils.toEpochDay(date, ZoneOffset.UTC));
+		assertEquals(LocalDate.of(2024, 3, 11).toEpochDay(), CalendarUtils.toEpochDay(date, ZoneId.of("Europe/Budapest")));
+		assertEquals(LocalDate.of(2024, 3, 10).toEpochDay(), CalendarUtils.toEpochDay(date, ZoneId.of("America/New_York")));
+	}
+
+	@Test
+	public void toEpochDayBeforeTheEpoch() {
+		Date date = Date.from(LocalDate.of(1969, 12, 31).atTime(12, 0).toInstant(ZoneOffset.UTC));
+		assertEquals(-1, CalendarUtils.toEpochDay(date, ZoneOffset.UTC));
+	}
+
+	@Test
+	public void toEpochDayMatchesJavaTime() {
+		Random random = new Random(6);
+		List<ZoneId> zones = List.of(ZoneOffset.UTC, ZoneOffset.ofHours(14), ZoneOffset.ofHoursMinutes(-9, -30),
+				ZoneId.of("Europe/Budapest"), ZoneId.of("America/St_Johns"), ZoneId.of("Australia/Lord_Howe"), ZoneId.of("Pacific/Kiritimati"));
+		for ( int i = 0; i < 10_000; i++ ) {
+			long epochMilli = (random.nextLong() % 4_000_000_000_000L);
+			ZoneId zone = zones.get(random.nextInt(zones.size()));
+			assertEquals(zone + " " + epochMilli, LocalDate.ofInstant(Instant.ofEpochMilli(epochMilli), zone).toEpochDay(),
+					CalendarUtils.toEpochDay(new Date(epochMilli), zone));
+		}
+	}
+
+	@Test
+	public void toEpochDayAroundDaylightSavingTime() {
+		ZoneId budapest = ZoneId.of("Europe/Budapest");
+		// the last minute before and the first minute after midnight on the days of the clock changes
+		for ( LocalDate day : List.of(LocalDate.of(2024, 3, 31), LocalDate.of(2024, 10, 27)) ) {
+			Date before = Date.from(day.atStartOfDay(budapest).minusMinutes(1).toInstant());
+			Date after = Date.from(day.atStartOfDay(budapest).toInstant());
+			assertEquals(day.minusDays(1).toEpochDay(), CalendarUtils.toEpochDay(before, budapest));
+			assertEquals(day.toEpochDay(), CalendarUtils.toEpochDay(after, budapest));
+		}
+	}
+
+	@Test
+	public void sqlDateIsConvertedInTheZone() {
+		java.sql.Date date = java.sql.Date.valueOf(LocalDate.of(2024, 3, 10));
+		assertEquals(LocalDate.of(2024, 3, 10).toEpochDay(), CalendarUtils.toEpochDay(date, ZoneId.systemDefault()));
+	}
+
+	@Test
+	public void batchConvertsTheDatesInTheZoneOfTheCalendar() {
+		Date lateEvening = Date.from(LocalDate.of(2024, 3, 10).atTime(23, 30).toInstant(ZoneOffset.UTC));
+		MonthCalendar calendar = new MonthCalendar(2024, 3, "en", true);
+		calendar.setZoneId(ZoneId.of("Europe/Budapest"));
+		calendar.addClassToCellByDates(List.of(lateEvening), "budapest");
+		calendar.setZoneId(ZoneOffset.UTC);
+		calendar.addClassToCellByDates(List.of(lateEvening), "utc");
+
+		DecorationModel model = new DecorationModel();
+		new DecorationBatch(model, ZoneId.of("America/New_York")).addClassToCellByDates(List.of(lateEvening), "new-york");
+		assertTrue(model.getDecorations(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31)).get("new-york").contains(LocalDate.of(2024, 3, 10)));
+
+		Element host = Jsoup.parseBodyFragment(calendar.renderServerSideHost().getOuterHTML()).body();
+		assertEquals(List.of("11"), host.select("td.budapest").eachText());
+		assertEquals(List.of("10"), host.select("td.utc").eachText());
+	}
+}
@@ -0,0 +1,133 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.dom.DomEvent;
+import com.vaadin.flow.internal.nodefeature.ElementListenerMap;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+public class ClientNavigationTest {
+
+	private final UI ui = new TestVaadinSession(new TestVaadinService()).createUI();
+
+	private final MonthCalendar calendar = new MonthCalendar(2024, 3, "en", true);
+
+	@Test
+	public void adjacentPeriodsArePrefetched() {
+		decorateAndAttach();
+		JsonObject entries = prefetchedEntries(respondedRoundTrip());
+		assertEquals(List.of("2024-2", "2024-4"), List.of(entries.keys()).stream().sorted().collect(Collectors.toList()));
+		assertTrue(entries.getObject("2024-2").getObject("classes").hasKey("holiday"));
+		assertTrue(entries.getObject("2024-4").getObject("classes").hasKey("holiday"));
+
+		// the unchanged periods are not sent again
+		calendar.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 3, 20)), "booked");
+		JsonObject next = prefetchedEntries(respondedRoundTrip());
+		assertEquals(0, next.keys().length);
+	}
+
+	@Test
+	public void prefetchedPeriodIsReusedWithoutSync() {
+		decorateAndAttach();
+		JsonObject entries = prefetchedEntries(respondedRoundTrip());
+		navigateOnClient(2024, 4, (int) entries.getObject("2024-4").getNumber("version"));
+
+		List<PendingJavaScriptInvocation> invocations = respondedRoundTrip();
+		assertEquals(YearMonth.of(2024, 4), calendar.getPeriodStart());
+		assertEquals(0, invocations(invocations, ".decorate(").size());
+		// the attributes the client has already set are not sent back
+		assertEquals("4", calendar.getElement().getAttribute("month"));
+		// the new adjacent periods are prefetched
+		assertTrue(prefetchedEntries(invocations).hasKey("2024-5"));
+	}
+
+	@Test
+	public void navigationWithoutPrefetchSyncsThePeriod() {
+		decorateAndAttach();
+		respondedRoundTrip();
+		navigateOnClient(2024, 4, -1);
+
+		List<PendingJavaScriptInvocation> invocations = respondedRoundTrip();
+		assertEquals(1, invocations(invocations, ".decorate(").size());
+	}
+
+	@Test
+	public void changedPrefetchedPeriodIsSentAgain() {
+		decorateAndAttach();
+		JsonObject entries = prefetchedEntries(respondedRoundTrip());
+		int version = (int) entries.getObject("2024-4").getNumber("version");
+		calendar.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 4, 10)), "booked");
+
+		JsonObject changed = prefetchedEntries(respondedRoundTrip());
+		assertEquals(List.of("2024-4"), List.of(changed.keys()));
+		assertTrue(changed.getObject("2024-4").getNumber("version") > version);
+	}
+
+	@Test
+	public void calendarWithoutPeriodOverridesUsesTheYear() {
+		YearOnlyCalendar plain = new YearOnlyCalendar();
+		plain.year = 2024;
+		assertEquals(YearMonth.of(2024, 1), plain.getPeriodStart());
+		assertEquals(LocalDate.of(2024, 1, 1), plain.getFirstVisibleDate());
+		assertEquals(LocalDate.of(2024, 12, 31), plain.getLastVisibleDate());
+		plain.shiftMonths(-12);
+		assertEquals(YearMonth.of(2023, 1), plain.getPeriodStart());
+		plain.shiftMonths(5);
+		assertEquals(YearMonth.of(2023, 1), plain.getPeriodStart());
+	}
+
+	private void decorateAndAttach() {
+		calendar.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 2, 14), LocalDate.of(2024, 3, 15), LocalDate.of(2024, 4, 1)), "holiday");
+		calendar.setClientNavigation(true);
+		ui.add(calendar);
+	}
+
+	/**
+	 * Runs a round trip and, when the client has responded to its JS calls, the round trip of the prefetch
+	 */
+	private List<PendingJavaScriptInvocation> respondedRoundTrip() {
+		List<PendingJavaScriptInvocation> invocations = new ArrayList<>(TestVaadinSession.roundTrip(ui));
+		TestVaadinSession.respond(invocations);
+		invocations.addAll(TestVaadinSession.roundTrip(ui));
+		return invocations;
+	}
+
+	private void navigateOnClient(int year, int month, int version) {
+		JsonObject data = Json.createObject();
+		data.put("event.detail.year", year);
+		data.put("event.detail.month", month);
+		data.put("event.detail.version", version);
+		calendar.getElement().getNode().getFeature(ElementListenerMap.class)
+				.fireEvent(new DomEvent(calendar.getElement(), AbstractSimpleCalendar.NAVIGATION_EVENT, data));
+	}
+
+	private static JsonObject prefetchedEntries(List<PendingJavaScriptInvocation> invocations) {
+		List<PendingJavaScriptInvocation> prefetches = invocations(invocations, ".prefetch(");
+		return prefetches.isEmpty() ? Json.createObject() : (JsonObject) prefetches.get(0).getInvocation().getParameters().get(0);
+	}
+
+	private static List<PendingJavaScriptInvocation> invocations(List<PendingJavaScriptInvocation> invocations, String function) {
+		return invocations.stream().filter(invocation -> invocation.getInvocation().getExpression().contains(function)).toList();
+	}
+
+	/**
+	 * A calendar of a downstream project which doesn't override the period methods
+	 */
+	@Tag("year-only-calendar")
+	private static class YearOnlyCalendar extends AbstractSimpleCalendar {
+	}
+}
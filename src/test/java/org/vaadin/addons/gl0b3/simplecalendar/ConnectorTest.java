@@ -0,0 +1,164 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+
+/**
+ * Runs the functions of the client side connector with Node.js; it is skipped if Node.js is not installed
+ */
+public class ConnectorTest {
+
+	private static final Path CONNECTOR = Path.of("src/main/resources/META-INF/frontend/simple-calendar-connector.js");
+
+	@BeforeClass
+	public static void requireNode() {
+		boolean available;
+		try {
+			available = new ProcessBuilder("node", "--version").start().waitFor() == 0;
+		} catch ( IOException e ) {
+			available = false;
+		} catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			available = false;
+		}
+		Assume.assumeTrue("Node.js is not installed", available);
+	}
+
+	@Test
+	public void decodeDatesGivesBackTheEncodedDays() throws Exception {
+		Random random = new Random(11);
+		List<DateSet> sets = new ArrayList<>();
+		sets.add(new DateSet());
+		sets.add(new DateSet(List.of(LocalDate.of(1969, 12, 31), LocalDate.of(1970, 1, 1))));
+		for ( int i = 0; i < 20; i++ ) {
+			DateSet dates = new DateSet();
+			long start = random.nextInt(40_000) - 20_000;
+			for ( int j = random.nextInt(400); j > 0; j-- ) {
+				dates.add(start + random.nextInt(1_000));
+			}
+			sets.add(dates);
+		}
+		JsonArray encoded = Json.createArray();
+		StringJoiner expected = new StringJoiner(",", "[", "]");
+		for ( DateSet dates : sets ) {
+			encoded.set(encoded.length(), CalendarUtils.encodeDates(dates));
+			StringJoiner days = new StringJoiner(",", "[", "]");
+			dates.forEachEpochDay(day -> days.add(String.valueOf(day)));
+			expected.add(days.toString());
+		}
+		assertEquals(expected.toString(), run("console.log(JSON.stringify(" + encoded.toJson() + ".map(c.decodeDates)));"));
+	}
+
+	@Test
+	public void isoDateOfEpochDays() throws Exception {
+		assertEquals("[\"1969-12-31\",\"1970-01-01\",\"2024-02-29\"]",
+				run("console.log(JSON.stringify([-1, 0, " + LocalDate.of(2024, 2, 29).toEpochDay() + "].map(c.isoDate)));"));
+	}
+
+	@Test
+	public void everyClassIsAppliedWithOneComponentCall() throws Exception {
+		DecorationModel model = new DecorationModel();
+		model.add("holiday", List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 6)));
+		model.add("booked", List.of(LocalDate.of(2024, 1, 10)));
+		JsonArray operations = model.sync(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+		String calls = run(recordingCalendar() + "c.applyOperations(calendar, " + operations.toJson() + ", new Set()); "
+				+ "console.log(JSON.stringify(calls));");
+		assertEquals("[[\"add\",[\"2024-01-01\",\"2024-01-02\",\"2024-01-06\"],\"holiday\"],[\"add\",[\"2024-01-10\"],\"booked\"]]", calls);
+	}
+
+	@Test
+	public void clearRemovesTheReceivedClasses() throws Exception {
+		String calls = run(recordingCalendar() + "const classes = new Set(['holiday']); "
+				+ "c.applyOperations(calendar, [{ type: 'clear' }, { type: 'removeByType', className: 'open', cellType: 'weekend' }], classes); "
+				+ "console.log(JSON.stringify([calls, classes.size]));");
+		assertEquals("[[[\"remove\",\"weekday\",\"holiday\"],[\"remove\",\"weekend\",\"holiday\"],[\"remove\",\"weekend\",\"open\"]],0]", calls);
+	}
+
+	@Test
+	public void navigationTargetSteps() throws Exception {
+		assertEquals("[{\"year\":2023,\"month\":12},{\"year\":2024,\"month\":2},{\"year\":2025,\"month\":1},{\"year\":2022,\"month\":1}]",
+				run("console.log(JSON.stringify([c.navigationTarget(2024, 1, 1, -1), c.navigationTarget(2024, 1, 1, 1), "
+						+ "c.navigationTarget(2024, 1, 12, 1), c.navigationTarget(2024, 1, 12, -2)]));"));
+	}
+
+	@Test
+	public void backwardDragSelectsTheSameRange() throws Exception {
+		assertEquals("[{\"start\":10,\"end\":14},{\"start\":10,\"end\":14}]",
+				run("console.log(JSON.stringify([c.selectedRange(10, 14), c.selectedRange(14, 10)]));"));
+	}
+
+	@Test
+	public void touchDragEndsOnTheCellUnderThePointer() throws Exception {
+		String events = run(selectionCalendar()
+				+ "down(14); up(10); down(10); up(10); "
+				+ "console.log(JSON.stringify([released, events]));");
+		long march10 = LocalDate.of(2024, 3, 10).toEpochDay();
+		long march14 = LocalDate.of(2024, 3, 14).toEpochDay();
+		assertEquals("[[14,10],[[\"range\",{\"start\":" + march10 + ",\"end\":" + march14 + "}],[\"click\",{\"epochDay\":" + march10 + "}]]]", events);
+	}
+
+	@Test
+	public void cancelledDragSendsNothing() throws Exception {
+		assertEquals("[]", run(selectionCalendar()
+				+ "down(14); host.listeners.pointercancel({}); up(10); up(12); "
+				+ "console.log(JSON.stringify(events));"));
+	}
+
+	/**
+	 * A month-calendar of March 2024 with a cell per day, and the <code>down(day)</code> and <code>up(day)</code> pointer
+	 * events of a touch on the cells. The cells capture the pointer which went down on them, like the browsers do for
+	 * touch, and <code>released</code> records the cells which released it.
+	 */
+	private static String selectionCalendar() {
+		return "const classList = () => { const set = new Set(); return { add: c => set.add(c), remove: c => set.delete(c), contains: c => set.has(c) }; }; "
+				+ "const released = []; const cells = {}; "
+				+ "for (let d = 1; d <= 31; d++) { cells[d] = { textContent: String(d), classList: classList(), "
+				+ "hasPointerCapture: () => true, releasePointerCapture: () => released.push(d) }; } "
+				+ "const month = { localName: 'month-calendar', attributes: { year: '2024', month: '3', locale: 'en' }, "
+				+ "getAttribute(name) { return this.attributes[name]; }, hasAttribute(name) { return name in this.attributes; }, "
+				+ "addClassToCellByDates(dates, className) { dates.forEach(date => { const d = Number(date.slice(8)); "
+				+ "if (date.startsWith('2024-03-')) cells[d].classList.add(className); }); }, "
+				+ "removeClassFromCellByType(type, className) { Object.values(cells).forEach(cell => cell.classList.remove(className)); } }; "
+				+ "const events = []; const host = { listeners: {}, addEventListener(type, listener) { this.listeners[type] = listener; }, "
+				+ "dispatchEvent(event) { events.push([event.type === 'range' ? 'range' : 'click', event.detail]); } }; "
+				+ "globalThis.CustomEvent = class { constructor(type, init) { this.type = type; this.detail = init.detail; } }; "
+				+ "window.Vaadin.Flow.simpleCalendarConnector.initSelection(host, 'click', 'range'); "
+				+ "const pointer = (type, d) => host.listeners[type]({ pointerId: 1, composedPath: () => [cells[d], month, host] }); "
+				+ "const down = d => pointer('pointerdown', d); const up = d => pointer('pointerup', d); ";
+	}
+
+	/**
+	 * A calendar which records the calls of its public API
+	 */
+	private static String recordingCalendar() {
+		return "const calls = []; const calendar = { "
+				+ "addClassToCellByDates: (dates, className) => calls.push(['add', dates, className]), "
+				+ "removeClassFromCellByType: (cellType, className) => calls.push(['remove', cellType, className]) }; ";
+	}
+
+	/**
+	 * Runs the script as an ES module in which the connector is imported as <code>c</code>, and gives back its output
+	 */
+	private static String run(String script) throws Exception {
+		String module = "globalThis.window = {}; const c = await import('" + CONNECTOR.toAbsolutePath().toUri() + "'); " + script;
+		Process process = new ProcessBuilder("node", "--input-type=module", "-e", module).redirectErrorStream(true).start();
+		String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+		assertEquals(output, 0, process.waitFor());
+		return output;
+	}
+}
@@ -0,0 +1,62 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class DataProviderCacheTest {
+
+	private final List<CalendarDataProvider.CalendarQuery> queries = new ArrayList<>();
+
+	/**
+	 * decorates the first day of every month
+	 */
+	private final CalendarDataProvider provider = query -> {
+		queries.add(query);
+		return Stream.iterate(query.from(), day -> !day.isAfter(query.to()), day -> day.plusMonths(1))
+				.map(day -> new CalendarDataProvider.DayDecoration(day, "first"));
+	};
+
+	@Test
+	public void missingMonthsAreFetchedWithOneQuery() {
+		DataProviderCache cache = new DataProviderCache(provider, 24);
+		cache.get(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31));
+		cache.get(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 6, 30));
+		assertEquals(List.of(new CalendarDataProvider.CalendarQuery(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31)),
+				new CalendarDataProvider.CalendarQuery(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 6, 30))), queries);
+		cache.get(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 5, 31));
+		assertEquals(2, queries.size());
+	}
+
+	@Test
+	public void requestBiggerThanTheCapacityDoesNotLoseMonths() {
+		DataProviderCache cache = new DataProviderCache(provider, 2);
+		cache.get(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+		DateSet dates = cache.get(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)).get("first");
+		assertEquals(12, dates.size());
+	}
+
+	@Test
+	public void minimumMonthsAreKept() {
+		DataProviderCache cache = new DataProviderCache(provider, 2);
+		cache.setMinMonths(12);
+		cache.get(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+		cache.get(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+		assertEquals(1, queries.size());
+	}
+
+	@Test
+	public void invalidatedMonthIsFetchedAgain() {
+		DataProviderCache cache = new DataProviderCache(provider, 24);
+		cache.get(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+		cache.invalidate(YearMonth.of(2024, 2));
+		cache.get(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+		assertEquals(new CalendarDataProvider.CalendarQuery(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)), queries.get(1));
+	}
+}
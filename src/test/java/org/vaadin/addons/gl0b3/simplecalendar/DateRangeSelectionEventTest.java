@@ -0,0 +1,79 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vaadin.flow.dom.DebouncePhase;
+import com.vaadin.flow.dom.DomEvent;
+import com.vaadin.flow.internal.nodefeature.ElementListenerMap;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+public class DateRangeSelectionEventTest {
+
+	private final MonthCalendar calendar = new MonthCalendar(2024, 3, "en", true);
+
+	@Test
+	public void backwardRangeIsOrdered() {
+		DateRangeSelectionEvent event = new DateRangeSelectionEvent(calendar, true,
+				(int) LocalDate.of(2024, 3, 14).toEpochDay(), (int) LocalDate.of(2024, 3, 10).toEpochDay());
+		assertEquals(LocalDate.of(2024, 3, 10), event.getStart());
+		assertEquals(LocalDate.of(2024, 3, 14), event.getEnd());
+		assertEquals(LocalDate.of(2024, 3, 10).toEpochDay(), event.getStartEpochDay());
+		assertEquals(LocalDate.of(2024, 3, 14).toEpochDay(), event.getEndEpochDay());
+	}
+
+	@Test
+	public void oneDayRange() {
+		int day = (int) LocalDate.of(2024, 2, 29).toEpochDay();
+		DateRangeSelectionEvent event = new DateRangeSelectionEvent(calendar, true, day, day);
+		assertEquals(event.getStart(), event.getEnd());
+	}
+
+	@Test
+	public void clientEventReachesTheListener() {
+		List<DateRangeSelectionEvent> events = new ArrayList<>();
+		calendar.addDateRangeSelectionListener(events::add);
+		JsonObject data = Json.createObject();
+		data.put("event.detail.start", LocalDate.of(2024, 4, 2).toEpochDay());
+		data.put("event.detail.end", LocalDate.of(2024, 3, 30).toEpochDay());
+		// the debounced event is delivered in its trailing phase
+		data.put("for", DebouncePhase.TRAILING.getIdentifier());
+		fire(AbstractSimpleCalendar.RANGE_SELECTION_EVENT, data);
+
+		assertEquals(1, events.size());
+		assertTrue(events.get(0).isFromClient());
+		assertEquals(LocalDate.of(2024, 3, 30), events.get(0).getStart());
+		assertEquals(LocalDate.of(2024, 4, 2), events.get(0).getEnd());
+	}
+
+	@Test
+	public void clientDayClickReachesTheListener() {
+		List<DayClickEvent> events = new ArrayList<>();
+		calendar.addDayClickListener(events::add);
+		JsonObject data = Json.createObject();
+		data.put("event.detail.epochDay", LocalDate.of(2024, 3, 5).toEpochDay());
+		fire(AbstractSimpleCalendar.DAY_CLICK_EVENT, data);
+
+		assertEquals(1, events.size());
+		assertEquals(LocalDate.of(2024, 3, 5), events.get(0).getDate());
+	}
+
+	@Test
+	public void rangeSelectionDisablesTouchScrolling() {
+		assertEquals(null, calendar.getElement().getStyle().get("touch-action"));
+		calendar.addDateRangeSelectionListener(event -> {});
+		assertEquals("none", calendar.getElement().getStyle().get("touch-action"));
+	}
+
+	private void fire(String type, JsonObject data) {
+		calendar.getElement().getNode().getFeature(ElementListenerMap.class).fireEvent(new DomEvent(calendar.getElement(), type, data));
+	}
+}
@@ -0,0 +1,76 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class DateSetTest {
+
+	@Test
+	public void addRemoveAndContains() {
+		DateSet dates = new DateSet();
+		assertTrue(dates.add(LocalDate.of(2024, 1, 1)));
+		assertFalse(dates.add(LocalDate.of(2024, 1, 1)));
+		assertTrue(dates.add(LocalDate.of(1960, 6, 1)));
+		assertEquals(2, dates.size());
+		assertTrue(dates.contains(LocalDate.of(1960, 6, 1)));
+		assertTrue(dates.remove(LocalDate.of(2024, 1, 1)));
+		assertFalse(dates.remove(LocalDate.of(2024, 1, 1)));
+		assertEquals(1, dates.size());
+	}
+
+	@Test
+	public void iteratesInAscendingOrderAcrossBlocks() {
+		DateSet dates = new DateSet(List.of(LocalDate.of(2030, 1, 1), LocalDate.of(1950, 1, 1), LocalDate.of(2024, 5, 5)));
+		List<Long> days = new ArrayList<>();
+		dates.forEachEpochDay(days::add);
+		assertEquals(List.of(LocalDate.of(1950, 1, 1).toEpochDay(), LocalDate.of(2024, 5, 5).toEpochDay(), LocalDate.of(2030, 1, 1).toEpochDay()), days);
+	}
+
+	@Test
+	public void subSetAndDifference() {
+		DateSet dates = new DateSet();
+		for ( LocalDate day = LocalDate.of(2024, 1, 1); day.isBefore(LocalDate.of(2024, 3, 1)); day = day.plusDays(1) ) {
+			dates.add(day);
+		}
+		DateSet february = dates.subSet(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29));
+		assertEquals(29, february.size());
+		DateSet january = dates.difference(february);
+		assertEquals(31, january.size());
+		assertFalse(january.contains(LocalDate.of(2024, 2, 1)));
+	}
+
+	@Test
+	public void headGivesTheFirstDates() {
+		DateSet dates = new DateSet();
+		for ( int i = 0; i < 2000; i += 2 ) {
+			dates.add(i);
+		}
+		DateSet head = dates.head(700);
+		assertEquals(700, head.size());
+		assertTrue(head.contains(1398));
+		assertFalse(head.contains(1400));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void immutableSetCannotBeChanged() {
+		DateSet dates = new DateSet(List.of(LocalDate.of(2024, 1, 1))).toImmutable();
+		assertTrue(dates.isImmutable());
+		dates.add(LocalDate.of(2024, 1, 2));
+	}
+
+	@Test
+	public void copyIsIndependent() {
+		DateSet dates = new DateSet(List.of(LocalDate.of(2024, 1, 1)));
+		DateSet copy = dates.copy();
+		copy.add(LocalDate.of(2024, 1, 2));
+		assertEquals(1, dates.size());
+		assertEquals(2, copy.size());
+	}
+}
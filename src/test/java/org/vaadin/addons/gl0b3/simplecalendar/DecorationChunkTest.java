@@ -0,0 +1,107 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+
+public class DecorationChunkTest {
+
+	private static final int MAX_DATES = 10;
+
+	private final UI ui = new TestVaadinSession(new TestVaadinService()).createUI();
+
+	private final MonthCalendar calendar = new MonthCalendar(2024, 3, "en", false);
+
+	@Test
+	public void exactlyTheMaximumIsSentInOneMessage() {
+		List<PendingJavaScriptInvocation> invocations = decorate(MAX_DATES);
+		assertEquals(List.of(MAX_DATES), sentDates(invocations));
+		assertEquals(List.of(), sentDates(TestVaadinSession.roundTrip(ui)));
+	}
+
+	@Test
+	public void oneDateLessThanTheMaximumIsSentInOneMessage() {
+		List<PendingJavaScriptInvocation> invocations = decorate(MAX_DATES - 1);
+		assertEquals(List.of(MAX_DATES - 1), sentDates(invocations));
+		assertEquals(List.of(), sentDates(TestVaadinSession.roundTrip(ui)));
+	}
+
+	@Test
+	public void restIsSentWhenTheClientHasReceivedTheFirstMessage() {
+		List<PendingJavaScriptInvocation> invocations = decorate(MAX_DATES + 1);
+		assertEquals(List.of(MAX_DATES), sentDates(invocations));
+		TestVaadinSession.respond(invocations);
+		List<PendingJavaScriptInvocation> rest = TestVaadinSession.roundTrip(ui);
+		assertEquals(List.of(1), sentDates(rest));
+		TestVaadinSession.respond(rest);
+		assertEquals(List.of(), sentDates(TestVaadinSession.roundTrip(ui)));
+	}
+
+	@Test
+	public void restIsSentAfterAFailedMessageToo() {
+		List<PendingJavaScriptInvocation> invocations = decorate(MAX_DATES + 1);
+		invocations.forEach(invocation -> invocation.completeExceptionally(Json.create("failed")));
+		assertEquals(List.of(1), sentDates(TestVaadinSession.roundTrip(ui)));
+	}
+
+	@Test
+	public void restWaitsForTheClient() {
+		decorate(MAX_DATES + 1);
+		assertEquals(List.of(), sentDates(TestVaadinSession.roundTrip(ui)));
+	}
+
+	@Test
+	public void reattachedCalendarIsFlushedOnce() {
+		decorate(MAX_DATES + 1);
+		ui.remove(calendar);
+		calendar.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 3, 31)), "holiday");
+		ui.add(calendar);
+		// the flush scheduled before the detach runs, and the attach doesn't schedule another one
+		assertEquals(List.of(MAX_DATES), sentDates(TestVaadinSession.roundTrip(ui)));
+	}
+
+	/**
+	 * Attaches the calendar with the given number of decorated days of March, and gives back the JS invocations of the
+	 * first round trip
+	 */
+	private List<PendingJavaScriptInvocation> decorate(int count) {
+		calendar.setMaxDatesPerMessage(MAX_DATES);
+		List<LocalDate> dates = new ArrayList<>();
+		for ( int i = 0; i < count; i++ ) {
+			dates.add(LocalDate.of(2024, 3, 1).plusDays(i));
+		}
+		calendar.addClassToCellByLocalDates(dates, "booked");
+		ui.add(calendar);
+		return TestVaadinSession.roundTrip(ui);
+	}
+
+	/**
+	 * Gives back the number of the dates sent by each decorate call
+	 */
+	private static List<Integer> sentDates(List<PendingJavaScriptInvocation> invocations) {
+		List<Integer> sent = new ArrayList<>();
+		for ( PendingJavaScriptInvocation invocation : invocations ) {
+			if ( invocation.getInvocation().getExpression().contains(".decorate(") ) {
+				JsonArray operations = (JsonArray) invocation.getInvocation().getParameters().get(0);
+				int dates = 0;
+				for ( int i = 0; i < operations.length(); i++ ) {
+					if ( operations.getObject(i).hasKey("dates") ) {
+						dates += CalendarUtils.decodeDates(operations.getObject(i).getString("dates")).size();
+					}
+				}
+				sent.add(dates);
+			}
+		}
+		return sent;
+	}
+}
@@ -0,0 +1,213 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Test;
+
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+public class DecorationModelTest {
+
+	private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+
+	private static final LocalDate TO = LocalDate.of(2024, 1, 31);
+
+	private final DecorationModel model = new DecorationModel();
+
+	@Test
+	public void firstSyncAddsTheDates() {
+		model.add("booked", List.of(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 6)));
+		JsonArray operations = model.sync(FROM, TO);
+		assertEquals(1, operations.length());
+		assertOperation(operations.getObject(0), DecorationBatch.ADD_CLASS, "booked", LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 6));
+		assertEquals(2, model.getSyncedDates());
+	}
+
+	@Test
+	public void unchangedModelSendsNothing() {
+		model.add("booked", List.of(LocalDate.of(2024, 1, 5)));
+		model.sync(FROM, TO);
+		assertEquals(0, model.sync(FROM, TO).length());
+		assertFalse(model.hasPendingChanges());
+	}
+
+	@Test
+	public void onlyTheNewDatesAreAdded() {
+		model.add("booked", List.of(LocalDate.of(2024, 1, 5)));
+		model.sync(FROM, TO);
+		model.add("booked", List.of(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 9)));
+		JsonArray operations = model.sync(FROM, TO);
+		assertEquals(1, operations.length());
+		assertOperation(operations.getObject(0), DecorationBatch.ADD_CLASS, "booked", LocalDate.of(2024, 1, 9));
+	}
+
+	@Test
+	public void removedDatesResetTheClass() {
+		model.add("booked", List.of(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 9)));
+		model.sync(FROM, TO);
+		model.remove("booked", List.of(LocalDate.of(2024, 1, 5)));
+		JsonArray operations = model.sync(FROM, TO);
+		assertEquals(1, operations.length());
+		assertOperation(operations.getObject(0), DecorationBatch.RESET_CLASS, "booked", LocalDate.of(2024, 1, 9));
+	}
+
+	@Test
+	public void datesOutsideOfThePeriodAreNotSent() {
+		model.add("booked", List.of(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 3, 1)));
+		assertOperation(model.sync(FROM, TO).getObject(0), DecorationBatch.ADD_CLASS, "booked", LocalDate.of(2024, 1, 5));
+		// the client shows only the new period, so the dates of the old one don't have to be removed
+		JsonArray operations = model.sync(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31));
+		assertEquals(1, operations.length());
+		assertOperation(operations.getObject(0), DecorationBatch.ADD_CLASS, "booked", LocalDate.of(2024, 3, 1));
+	}
+
+	@Test
+	public void resetClientClearsAndSendsEverythingAgain() {
+		model.add("booked", List.of(LocalDate.of(2024, 1, 5)));
+		model.sync(FROM, TO);
+		model.resetClient();
+		JsonArray operations = model.sync(FROM, TO);
+		assertEquals(2, operations.length());
+		assertEquals(DecorationBatch.CLEAR_CLIENT, operations.getObject(0).getString("type"));
+		assertOperation(operations.getObject(1), DecorationBatch.ADD_CLASS, "booked", LocalDate.of(2024, 1, 5));
+	}
+
+	@Test
+	public void clearClientClearsEvenAnEmptyClient() {
+		model.clearClient();
+		JsonArray operations = model.sync(FROM, TO);
+		assertEquals(1, operations.length());
+		assertEquals(DecorationBatch.CLEAR_CLIENT, operations.getObject(0).getString("type"));
+	}
+
+	@Test
+	public void assumedClientStateSendsOnlyTheDifference() {
+		model.add("booked", List.of(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 6)));
+		model.sync(FROM, TO);
+		model.assumeClient(java.util.Map.of("booked", new DateSet(List.of(LocalDate.of(2024, 1, 5)))));
+		JsonArray operations = model.sync(FROM, TO);
+		assertEquals(1, operations.length());
+		assertOperation(operations.getObject(0), DecorationBatch.ADD_CLASS, "booked", LocalDate.of(2024, 1, 6));
+	}
+
+	@Test
+	public void clearRemovesTheClass() {
+		model.add("booked", List.of(LocalDate.of(2024, 1, 5)));
+		model.sync(FROM, TO);
+		model.clear("booked");
+		JsonArray operations = model.sync(FROM, TO);
+		assertEquals(1, operations.length());
+		assertOperation(operations.getObject(0), DecorationBatch.RESET_CLASS, "booked");
+		assertEquals(0, model.sync(FROM, TO).length());
+	}
+
+	@Test
+	public void removeByTypeExcludesTheRuleDates() {
+		model.addRule("open", Recurrence.weekly(DayOfWeek.values()));
+		model.sync(FROM, TO);
+		model.removeByType(DecorationModel.WEEKEND, "open");
+		JsonArray operations = model.sync(FROM, TO);
+		assertEquals(1, operations.length());
+		JsonObject operation = operations.getObject(0);
+		assertEquals(DecorationBatch.REMOVE_CLASS_BY_TYPE, operation.getString("type"));
+		assertEquals(DecorationModel.WEEKEND, operation.getString("cellType"));
+		DateSet decorated = model.getDecorations(FROM, TO).get("open");
+		assertEquals(23, decorated.size());
+		assertFalse(decorated.contains(LocalDate.of(2024, 1, 6)));
+		assertEquals(0, model.sync(FROM, TO).length());
+	}
+
+	@Test
+	public void changingTheClassEndsTheTypeExclusion() {
+		model.addRule("open", Recurrence.weekly(DayOfWeek.values()));
+		model.removeByType(DecorationModel.WEEKEND, "open");
+		model.sync(FROM, TO);
+		model.add("open", List.of(LocalDate.of(2024, 1, 6)));
+		assertEquals(31, model.getDecorations(FROM, TO).get("open").size());
+	}
+
+	@Test
+	public void largeChangesAreSentInChunks() {
+		model.setMaxDatesPerSync(10);
+		DateSet dates = new DateSet();
+		for ( LocalDate day = FROM; !day.isAfter(TO); day = day.plusDays(1) ) {
+			dates.add(day);
+		}
+		model.set("busy", dates);
+		int sent = 0;
+		for ( int i = 0; i < 4; i++ ) {
+			JsonArray operations = model.sync(FROM, TO);
+			assertEquals(1, operations.length());
+			sent += CalendarUtils.decodeDates(operations.getObject(0).getString("dates")).size();
+		}
+		assertEquals(31, sent);
+		assertFalse(model.hasPendingChanges());
+	}
+
+	@Test
+	public void exactlyTheMaximumIsSentInOneChunk() {
+		model.setMaxDatesPerSync(10);
+		model.set("busy", days(10));
+		JsonArray operations = model.sync(FROM, TO);
+		assertEquals(1, operations.length());
+		assertEquals(10, model.getSyncedDates());
+		assertFalse(model.hasPendingChanges());
+		assertEquals(0, model.sync(FROM, TO).length());
+	}
+
+	@Test
+	public void oneDateLessThanTheMaximumIsSentInOneChunk() {
+		model.setMaxDatesPerSync(10);
+		model.set("busy", days(9));
+		assertEquals(1, model.sync(FROM, TO).length());
+		assertFalse(model.hasPendingChanges());
+	}
+
+	@Test
+	public void oneDateMoreThanTheMaximumIsSentInTwoChunks() {
+		model.setMaxDatesPerSync(10);
+		model.set("busy", days(11));
+		JsonArray first = model.sync(FROM, TO);
+		assertEquals(1, first.length());
+		assertEquals(10, model.getSyncedDates());
+		assertTrue(model.hasPendingChanges());
+		JsonArray second = model.sync(FROM, TO);
+		assertOperation(second.getObject(0), DecorationBatch.ADD_CLASS, "busy", FROM.plusDays(10));
+		assertFalse(model.hasPendingChanges());
+	}
+
+	@Test
+	public void classAfterAnExhaustedBudgetWaitsForTheNextChunk() {
+		model.setMaxDatesPerSync(10);
+		model.set("busy", days(10));
+		model.add("holiday", List.of(TO));
+		JsonArray first = model.sync(FROM, TO);
+		assertEquals(1, first.length());
+		assertEquals("busy", first.getObject(0).getString("className"));
+		assertTrue(model.hasPendingChanges());
+		JsonArray second = model.sync(FROM, TO);
+		assertOperation(second.getObject(0), DecorationBatch.ADD_CLASS, "holiday", TO);
+		assertFalse(model.hasPendingChanges());
+	}
+
+	private static DateSet days(int count) {
+		DateSet dates = new DateSet();
+		for ( int i = 0; i < count; i++ ) {
+			dates.add(FROM.plusDays(i));
+		}
+		return dates;
+	}
+
+	private static void assertOperation(JsonObject operation, String type, String className, LocalDate... dates) {
+		assertEquals(type, operation.getString("type"));
+		assertEquals(className, operation.getString("className"));
+		assertEquals(new DateSet(List.of(dates)), CalendarUtils.decodeDates(operation.getString("dates")));
+	}
+}
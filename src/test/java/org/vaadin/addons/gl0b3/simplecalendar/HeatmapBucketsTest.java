@@ -0,0 +1,95 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class HeatmapBucketsTest {
+
+	private final HeatmapBuckets buckets = HeatmapBuckets.of().from(1, "low").from(5, "medium").from(10, "full");
+
+	@Test
+	public void thresholdBelongsToItsBucket() {
+		assertEquals(0, buckets.bucketOf(1));
+		assertEquals(1, buckets.bucketOf(5));
+		assertEquals(2, buckets.bucketOf(10));
+	}
+
+	@Test
+	public void valuesJustBelowAThresholdStayInTheLowerBucket() {
+		assertEquals(-1, buckets.bucketOf(Math.nextDown(1.0)));
+		assertEquals(0, buckets.bucketOf(Math.nextDown(5.0)));
+		assertEquals(1, buckets.bucketOf(Math.nextDown(10.0)));
+		assertEquals(0, buckets.bucketOf(4));
+	}
+
+	@Test
+	public void valuesOutsideTheBuckets() {
+		assertEquals(-1, buckets.bucketOf(0));
+		assertEquals(-1, buckets.bucketOf(-100));
+		assertEquals(-1, buckets.bucketOf(Double.NEGATIVE_INFINITY));
+		assertEquals(-1, buckets.bucketOf(Double.NaN));
+		assertEquals(2, buckets.bucketOf(Double.POSITIVE_INFINITY));
+		assertEquals(2, buckets.bucketOf(Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void negativeZeroReachesTheZeroThreshold() {
+		HeatmapBuckets zero = HeatmapBuckets.of().from(0, "empty").from(1, "busy");
+		assertEquals(0, zero.bucketOf(-0.0));
+		assertEquals(0, HeatmapBuckets.of().from(-0.0, "empty").bucketOf(0));
+	}
+
+	@Test
+	public void emptyBucketsGiveNoClass() {
+		assertEquals(0, HeatmapBuckets.of().size());
+		assertEquals(-1, HeatmapBuckets.of().bucketOf(42));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void equalThresholdsAreRejected() {
+		HeatmapBuckets.of().from(1, "low").from(1, "high");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void descendingThresholdsAreRejected() {
+		HeatmapBuckets.of().from(5, "medium").from(1, "low");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nanThresholdIsRejected() {
+		HeatmapBuckets.of().from(Double.NaN, "unknown");
+	}
+
+	@Test
+	public void heatmapPutsEveryDayIntoItsBucket() {
+		DecorationModel model = new DecorationModel();
+		LocalDate from = LocalDate.of(2024, 1, 1);
+		new DecorationBatch(model, ZoneOffset.UTC).setHeatmap(from, new int[] { 0, 1, 4, 5, 9, 10, 11 }, buckets);
+		Map<String, DateSet> decorations = model.getDecorations(from, from.plusDays(6));
+		assertEquals(2, decorations.get("low").size());
+		assertEquals(2, decorations.get("medium").size());
+		assertEquals(2, decorations.get("full").size());
+		assertFalse(decorations.values().stream().anyMatch(dates -> dates.contains(from)));
+		assertTrue(decorations.get("low").contains(from.plusDays(1)));
+		assertTrue(decorations.get("full").contains(from.plusDays(5)));
+	}
+
+	@Test
+	public void doubleHeatmapUsesTheSameEdges() {
+		DecorationModel model = new DecorationModel();
+		LocalDate from = LocalDate.of(2024, 1, 1);
+		new DecorationBatch(model, ZoneOffset.UTC).setHeatmap(from, new double[] { Math.nextDown(1.0), 1.0, Double.NaN, 10.0 }, buckets);
+		Map<String, DateSet> decorations = model.getDecorations(from, from.plusDays(3));
+		assertEquals(1, decorations.get("low").size());
+		assertTrue(decorations.get("low").contains(from.plusDays(1)));
+		assertTrue(decorations.get("full").contains(from.plusDays(3)));
+		assertEquals(2, decorations.values().stream().mapToInt(DateSet::size).sum());
+	}
+}
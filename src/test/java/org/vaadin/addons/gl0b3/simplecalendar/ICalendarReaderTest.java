@@ -0,0 +1,164 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ICalendarReaderTest {
+
+	@Test
+	public void singleAllDayEvent() throws IOException {
+		ICalendarDecorations decorations = read(new ICalendarReader("holiday"),
+				"BEGIN:VEVENT", "UID:1", "DTSTART;VALUE=DATE:20240101", "DTEND;VALUE=DATE:20240102", "SUMMARY:New Year", "END:VEVENT");
+		assertEquals(1, decorations.getEventCount());
+		assertEquals(dates(LocalDate.of(2024, 1, 1)), decorations.getDates("holiday"));
+	}
+
+	@Test
+	public void multiDayEventsExcludeTheEnd() throws IOException {
+		ICalendarDecorations decorations = read(new ICalendarReader("absence"),
+				"BEGIN:VEVENT", "DTSTART;VALUE=DATE:20240130", "DTEND;VALUE=DATE:20240203", "END:VEVENT",
+				"BEGIN:VEVENT", "DTSTART:20240310T090000", "DTEND:20240312T000000", "END:VEVENT",
+				"BEGIN:VEVENT", "DTSTART:20240320T220000Z", "DURATION:PT4H", "END:VEVENT");
+		assertEquals(dates(LocalDate.of(2024, 1, 30), LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 2),
+				LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 11), LocalDate.of(2024, 3, 20), LocalDate.of(2024, 3, 21)),
+				decorations.getDates("absence"));
+	}
+
+	@Test
+	public void foldedLinesAreUnfolded() throws IOException {
+		List<String> summaries = new ArrayList<>();
+		ICalendarDecorations decorations = read(new ICalendarReader(event -> {
+			summaries.add(event.summary());
+			return "holiday";
+		}), "BEGIN:VEVENT", "SUMMARY:Long", "  summary\\, folded", "DTSTA", " RT;VALUE=DATE:2024", "\t0501", "END:VEVENT");
+		assertEquals(List.of("Long summary, folded"), summaries);
+		assertEquals(dates(LocalDate.of(2024, 5, 1)), decorations.getDates("holiday"));
+	}
+
+	@Test
+	public void recurringEventsSkipTheExdates() throws IOException {
+		ICalendarDecorations decorations = read(new ICalendarReader("meeting"),
+				"BEGIN:VEVENT", "DTSTART;VALUE=DATE:20240101", "RRULE:FREQ=WEEKLY;COUNT=4",
+				"EXDATE;VALUE=DATE:20240108,20240115", "END:VEVENT");
+		assertTrue(decorations.getDates("meeting").isEmpty());
+		assertEquals(dates(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 22)), collect(decorations.getRules("meeting"), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+	}
+
+	@Test
+	public void recurringMultiDayEventsOverlapThePeriod() throws IOException {
+		ICalendarDecorations decorations = read(new ICalendarReader("camp"),
+				"BEGIN:VEVENT", "DTSTART;VALUE=DATE:20240130", "DTEND;VALUE=DATE:20240202", "RRULE:FREQ=YEARLY", "END:VEVENT");
+		assertEquals(dates(LocalDate.of(2025, 2, 1)), collect(decorations.getRules("camp"), LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 10)));
+	}
+
+	@Test
+	public void nestedComponentsAndUnknownEventsAreIgnored() throws IOException {
+		ICalendarDecorations decorations = read(new ICalendarReader(event -> event.categories().contains("HOLIDAY") ? "holiday" : null),
+				"BEGIN:VEVENT", "CATEGORIES:PUBLIC,HOLIDAY", "DTSTART;VALUE=DATE:20240315", "BEGIN:VALARM",
+				"DTSTART:20240101T000000", "END:VALARM", "END:VEVENT",
+				"BEGIN:VEVENT", "CATEGORIES:MEETING", "DTSTART;VALUE=DATE:20240316", "END:VEVENT");
+		assertEquals(dates(LocalDate.of(2024, 3, 15)), decorations.getDates("holiday"));
+		assertEquals(1, decorations.getEventCount());
+	}
+
+	@Test
+	public void invalidEventsAreSkippedAndCounted() throws IOException {
+		ICalendarDecorations decorations = read(new ICalendarReader("holiday"),
+				"BEGIN:VEVENT", "DTSTART;VALUE=DATE:20241301", "END:VEVENT",
+				"BEGIN:VEVENT", "DTSTART;VALUE=DATE:20240101", "RRULE:FREQ=YEARLY;BYWEEKNO=1", "END:VEVENT",
+				"BEGIN:VEVENT", "SUMMARY:no start", "END:VEVENT",
+				"BEGIN:VEVENT", "DTSTART;VALUE=DATE:20240102", "END:VEVENT");
+		assertEquals(1, decorations.getEventCount());
+		assertEquals(3, decorations.getSkippedEventCount());
+	}
+
+	@Test
+	public void rangeLimitsTheSingleEvents() throws IOException {
+		ICalendarDecorations decorations = read(new ICalendarReader("absence").setRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)),
+				"BEGIN:VEVENT", "DTSTART;VALUE=DATE:20231230", "DTEND;VALUE=DATE:20240103", "END:VEVENT",
+				"BEGIN:VEVENT", "DTSTART;VALUE=DATE:20250101", "END:VEVENT");
+		assertEquals(dates(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2)), decorations.getDates("absence"));
+	}
+
+	@Test
+	public void fileAndStreamGiveTheSameDecorations() throws IOException {
+		String feed = feed("BEGIN:VEVENT", "DTSTART;VALUE=DATE:20240101", "END:VEVENT", "BEGIN:VEVENT", "DTSTART;VALUE=DATE:20240501", "END:VEVENT");
+		Path file = Files.createTempFile("calendar", ".ics");
+		try {
+			Files.writeString(file, feed, StandardCharsets.UTF_8);
+			ICalendarDecorations fromFile = new ICalendarReader("holiday").read(file);
+			ICalendarDecorations fromStream = new ICalendarReader("holiday").read(new OneByteInputStream(feed.getBytes(StandardCharsets.UTF_8)));
+			assertEquals(fromFile.getDates("holiday"), fromStream.getDates("holiday"));
+			assertEquals(2, fromStream.getDates("holiday").size());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void quotedColonsInParametersAreNotTheValueSeparator() throws IOException {
+		ICalendarDecorations decorations = read(new ICalendarReader("holiday"),
+				"BEGIN:VEVENT", "DTSTART;X-NOTE=\"a:b\";VALUE=DATE:20240704", "END:VEVENT");
+		assertFalse(decorations.getDates("holiday").isEmpty());
+		assertTrue(decorations.getDates("holiday").contains(LocalDate.of(2024, 7, 4)));
+	}
+
+	private static ICalendarDecorations read(ICalendarReader reader, String... eventLines) throws IOException {
+		return reader.read(new ByteArrayInputStream(feed(eventLines).getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static String feed(String... eventLines) {
+		return "BEGIN:VCALENDAR\r\nVERSION:2.0\r\n" + String.join("\r\n", eventLines) + "\r\nEND:VCALENDAR\r\n";
+	}
+
+	private static DateSet collect(List<DecorationRule> rules, LocalDate from, LocalDate to) {
+		DateSet dates = new DateSet();
+		rules.forEach(rule -> rule.collectDates(from, to, dates));
+		return dates;
+	}
+
+	private static DateSet dates(LocalDate... dates) {
+		return new DateSet(List.of(dates));
+	}
+
+	/**
+	 * Gives the bytes one by one, so the lines are split between the reads
+	 */
+	private static final class OneByteInputStream extends InputStream {
+
+		private final byte[] bytes;
+
+		private int position = 0;
+
+		private OneByteInputStream(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public int read() {
+			return position < bytes.length ? bytes[position++] & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) {
+			if ( position >= bytes.length ) {
+				return -1;
+			}
+			buffer[offset] = bytes[position++];
+			return 1;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RecurrenceTest {
+
+	@Test
+	public void weeklyWeekends() {
+		DateSet dates = collect(Recurrence.weekly(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+		assertEquals(dates(LocalDate.of(2024, 1, 6), LocalDate.of(2024, 1, 7), LocalDate.of(2024, 1, 13), LocalDate.of(2024, 1, 14),
+				LocalDate.of(2024, 1, 20), LocalDate.of(2024, 1, 21), LocalDate.of(2024, 1, 27), LocalDate.of(2024, 1, 28)), dates);
+	}
+
+	@Test
+	public void rangeIsLimitedToThePeriod() {
+		DateSet dates = collect(Recurrence.range(LocalDate.of(2023, 12, 30), LocalDate.of(2024, 1, 2)), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+		assertEquals(dates(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2)), dates);
+	}
+
+	@Test
+	public void lastFridayOfTheMonth() {
+		DateSet dates = collect(Recurrence.parse("RRULE:FREQ=MONTHLY;BYDAY=-1FR", null), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+		assertEquals(dates(LocalDate.of(2024, 1, 26), LocalDate.of(2024, 2, 23), LocalDate.of(2024, 3, 29)), dates);
+	}
+
+	@Test
+	public void secondMondayOfTheMonth() {
+		DateSet dates = collect(Recurrence.monthly().byDay(2, DayOfWeek.MONDAY), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29));
+		assertEquals(dates(LocalDate.of(2024, 1, 8), LocalDate.of(2024, 2, 12)), dates);
+	}
+
+	@Test
+	public void everySecondWeekFromTheStart() {
+		DateSet dates = collect(Recurrence.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=SA", LocalDate.of(2024, 1, 6)), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 10));
+		assertEquals(dates(LocalDate.of(2024, 1, 6), LocalDate.of(2024, 1, 20), LocalDate.of(2024, 2, 3)), dates);
+	}
+
+	@Test
+	public void countIsCountedFromTheStart() {
+		Recurrence recurrence = Recurrence.daily().from(LocalDate.of(2024, 1, 10)).count(3);
+		assertEquals(dates(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 11), LocalDate.of(2024, 1, 12)),
+				collect(recurrence, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+		assertEquals(dates(LocalDate.of(2024, 1, 11), LocalDate.of(2024, 1, 12)), collect(recurrence, LocalDate.of(2024, 1, 11), LocalDate.of(2024, 1, 31)));
+	}
+
+	@Test
+	public void untilIsInclusive() {
+		DateSet dates = collect(Recurrence.parse("FREQ=DAILY;UNTIL=20240103T000000Z", LocalDate.of(2024, 1, 1)), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+		assertEquals(dates(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3)), dates);
+	}
+
+	@Test
+	public void missingMonthDayIsTakenFromTheStart() {
+		DateSet dates = collect(Recurrence.monthly().from(LocalDate.of(2024, 1, 31)), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+		assertEquals(dates(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 3, 31)), dates);
+	}
+
+	@Test
+	public void negativeMonthDayCountsFromTheEnd() {
+		DateSet dates = collect(Recurrence.monthly().byMonthDay(-1), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+		assertEquals(dates(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31)), dates);
+	}
+
+	@Test
+	public void yearlyHolidays() {
+		DateSet dates = collect(Recurrence.yearly().byMonth(12).byMonthDay(25, 26), LocalDate.of(2023, 1, 1), LocalDate.of(2024, 12, 31));
+		assertEquals(dates(LocalDate.of(2023, 12, 25), LocalDate.of(2023, 12, 26), LocalDate.of(2024, 12, 25), LocalDate.of(2024, 12, 26)), dates);
+	}
+
+	@Test
+	public void copyIsNotChangedByTheOriginal() {
+		Recurrence recurrence = Recurrence.weekly(DayOfWeek.MONDAY);
+		Recurrence copy = recurrence.copy();
+		recurrence.byDay(DayOfWeek.TUESDAY).until(LocalDate.of(2024, 1, 10));
+		assertEquals(5, collect(copy, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)).size());
+		assertEquals(4, collect(recurrence, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)).size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void missingFrequencyIsRejected() {
+		Recurrence.parse("BYDAY=MO", null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unsupportedPartIsRejected() {
+		Recurrence.parse("FREQ=YEARLY;BYWEEKNO=20", null);
+	}
+
+	private static DateSet collect(Recurrence recurrence, LocalDate from, LocalDate to) {
+		DateSet dates = new DateSet();
+		recurrence.collectDates(from, to, dates);
+		return dates;
+	}
+
+	private static DateSet dates(LocalDate... dates) {
+		return new DateSet(List.of(dates));
+	}
+}
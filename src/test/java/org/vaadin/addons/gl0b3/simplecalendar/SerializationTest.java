@@ -0,0 +1,120 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SerializationTest {
+
+	private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+
+	private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+	@Test
+	public void dateSetRoundTrip() throws Exception {
+		Random random = new Random(3);
+		DateSet dates = new DateSet();
+		for ( int i = 0; i < 1000; i++ ) {
+			dates.add(random.nextInt(100_000) - 50_000);
+		}
+		dates.add(LocalDate.MIN);
+		dates.add(LocalDate.MAX);
+		assertEquals(dates, roundTrip(dates));
+	}
+
+	@Test
+	public void immutableDateSetStaysImmutable() throws Exception {
+		DateSet dates = new DateSet(List.of(LocalDate.of(2024, 1, 1))).toImmutable();
+		assertTrue(roundTrip(dates).isImmutable());
+	}
+
+	@Test
+	public void consecutiveDaysAreWrittenCompactly() throws Exception {
+		DateSet dates = new DateSet();
+		for ( LocalDate day = FROM; !day.isAfter(TO); day = day.plusDays(1) ) {
+			dates.add(day);
+		}
+		assertTrue(serialize(dates).length < 100);
+	}
+
+	@Test
+	public void decorationModelKeepsTheDecorationsAndTheClientState() throws Exception {
+		DecorationModel model = new DecorationModel();
+		model.add("booked", List.of(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 2)));
+		model.addRule("weekend-day", Recurrence.weekly(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY));
+		model.addRule("open", Recurrence.weekly(DayOfWeek.values()));
+		model.removeByType(DecorationModel.WEEKEND, "open");
+		model.sync(FROM, TO);
+		Map<String, DateSet> decorations = model.getDecorations(FROM, TO);
+
+		DecorationModel deserialized = roundTrip(model);
+		assertEquals(decorations, deserialized.getDecorations(FROM, TO));
+		// the client still has everything, so nothing is sent again
+		assertEquals(0, deserialized.sync(FROM, TO).length());
+		assertFalse(deserialized.getDecorations(FROM, TO).get("open").contains(LocalDate.of(2024, 1, 6)));
+	}
+
+	@Test
+	public void decorationModelKeepsThePendingChanges() throws Exception {
+		DecorationModel model = new DecorationModel();
+		model.add("booked", List.of(LocalDate.of(2024, 3, 1)));
+		model.sync(FROM, TO);
+		model.add("booked", List.of(LocalDate.of(2024, 3, 5)));
+		model.removeByType(DecorationModel.WEEKDAY, "other");
+
+		DecorationModel deserialized = roundTrip(model);
+		assertTrue(deserialized.hasPendingChanges());
+		assertEquals(2, deserialized.sync(FROM, TO).length());
+	}
+
+	@Test
+	public void classNamesAreInterned() throws Exception {
+		DecorationModel model = new DecorationModel();
+		model.add(new String("booked".toCharArray()), List.of(LocalDate.of(2024, 3, 1)));
+		String className = roundTrip(model).getDecorations(FROM, TO).keySet().iterator().next();
+		assertSame("booked", className);
+	}
+
+	@Test
+	public void sharedNamesAreWrittenOnce() throws Exception {
+		String className = "a-rather-long-css-class-name";
+		DecorationModel model = new DecorationModel();
+		model.add(className, List.of(LocalDate.of(2024, 3, 1)));
+		model.sync(FROM, TO);
+		model.add(className, List.of(LocalDate.of(2024, 3, 2)));
+		// the name is in the dates, the client dates and the changed classes, but it is written once
+		String serialized = new String(serialize(model), StandardCharsets.ISO_8859_1);
+		assertEquals(serialized.indexOf(className), serialized.lastIndexOf(className));
+		assertTrue(serialized.contains(className));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T roundTrip(T object) throws IOException, ClassNotFoundException {
+		try ( ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialize(object))) ) {
+			return (T) in.readObject();
+		}
+	}
+
+	private static byte[] serialize(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try ( ObjectOutputStream out = new ObjectOutputStream(bytes) ) {
+			out.writeObject(object);
+		}
+		return bytes.toByteArray();
+	}
+}
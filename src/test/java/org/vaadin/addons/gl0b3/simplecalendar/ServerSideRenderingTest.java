@@ -0,0 +1,136 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.communication.IndexHtmlResponse;
+
+public class ServerSideRenderingTest {
+
+	@Test
+	public void firstPaintHasTheStructureOfTheAttachedComponent() {
+		MonthCalendar calendar = decorated(new MonthCalendar(2024, 3, "en", true));
+		Element host = decorated(new MonthCalendar(2024, 3, "en", true)).renderServerSideHost();
+
+		UI ui = new TestVaadinSession(new TestVaadinService()).createUI();
+		calendar.setServerSideRendering(true);
+		ui.add(calendar);
+		TestVaadinSession.roundTrip(ui);
+
+		Element component = calendar.getElement();
+		assertEquals(component.getTag(), host.getTag());
+		assertEquals(attributes(component), attributes(host));
+		assertEquals(1, component.getChildCount());
+		assertEquals(component.getChild(0).getOuterHTML(), host.getChild(0).getOuterHTML());
+	}
+
+	@Test
+	public void monthGridHasTheCellsOfTheComponent() {
+		MonthCalendar calendar = decorated(new MonthCalendar(2024, 3, "en", true));
+		calendar.setShowOtherMonthDays(true);
+		org.jsoup.nodes.Element host = Jsoup.parseBodyFragment(calendar.renderServerSideHost().getOuterHTML()).body().child(0);
+
+		assertEquals("month-calendar", host.tagName());
+		assertEquals("2024", host.attr("year"));
+		assertEquals("3", host.attr("month"));
+		assertEquals("en", host.attr("locale"));
+		assertTrue(host.child(0).hasClass(ServerSideRenderer.ROOT_CLASS));
+		assertFalse(host.child(0).hasClass("year"));
+		assertEquals(1, host.select("style").size());
+
+		assertEquals("2024 March", host.selectFirst(".header").text());
+		assertEquals(List.of("weekday", "weekday", "weekday", "weekday", "weekday", "weekend", "weekend"),
+				host.select("th").stream().map(cell -> cell.className()).collect(Collectors.toList()));
+		// March 2024 starts on a Friday and ends on a Sunday
+		assertEquals(5, host.select("tbody tr").size());
+		assertEquals(31, host.select("td:not(.othermonth)").size());
+		assertEquals(4, host.select("td.othermonth").size());
+		assertEquals("26", host.selectFirst("td.othermonth").text());
+		assertEquals(List.of("15"), host.select("td.holiday").eachText());
+		assertTrue(host.select("td.holiday").hasClass("weekday"));
+	}
+
+	@Test
+	public void otherMonthDaysAreEmptyCellsWhenHidden() {
+		MonthCalendar calendar = new MonthCalendar(2024, 3, "en", true);
+		org.jsoup.nodes.Element host = Jsoup.parseBodyFragment(calendar.renderServerSideHost().getOuterHTML()).body().child(0);
+		assertEquals(35, host.select("td").size());
+		assertEquals(31, host.select("td.weekday, td.weekend").size());
+		assertTrue(host.select("td.othermonth").isEmpty());
+	}
+
+	@Test
+	public void yearHasTheMonthsInOrder() {
+		org.jsoup.nodes.Element host = Jsoup.parseBodyFragment(new YearCalendar(2024, "en", false).renderServerSideHost().getOuterHTML())
+				.body().child(0);
+		assertEquals("year-calendar", host.tagName());
+		assertTrue(host.child(0).hasClass("year"));
+		assertEquals(12, host.select(".month").size());
+		assertEquals("January 2024", host.select(".header").first().text());
+		assertEquals("December 2024", host.select(".header").last().text());
+	}
+
+	@Test
+	public void timelineIsNotRendered() {
+		assertNull(new TimelineCalendar().renderServerSideHost());
+	}
+
+	@Test
+	public void placeholderIsPutIntoTheOutlet() {
+		Document document = Jsoup.parse("<html><body><header>menu</header><div id=\"outlet\"></div><footer>end</footer></body></html>");
+		new CalendarFirstPaint("/bookings/", () -> new MonthCalendar(2024, 3, "en", true)).modifyIndexHtmlResponse(response("/bookings", document));
+
+		org.jsoup.nodes.Element placeholder = document.getElementById(CalendarFirstPaint.PLACEHOLDER_ID);
+		assertNotNull(placeholder);
+		assertEquals("month-calendar", placeholder.tagName());
+		assertEquals(CalendarFirstPaint.OUTLET_ID, placeholder.parent().id());
+		assertEquals("header", document.body().child(0).tagName());
+	}
+
+	@Test
+	public void placeholderIsAppendedWithoutTheContainer() {
+		Document document = Jsoup.parse("<html><body><header>menu</header></body></html>");
+		new CalendarFirstPaint("", () -> new YearCalendar(2024, "en", true), "calendar-view").modifyIndexHtmlResponse(response("/", document));
+
+		assertEquals("header", document.body().child(0).tagName());
+		assertEquals(CalendarFirstPaint.PLACEHOLDER_ID, document.body().child(1).id());
+	}
+
+	@Test
+	public void otherRoutesAreLeftAlone() {
+		Document document = Jsoup.parse("<html><body><div id=\"outlet\"></div></body></html>");
+		new CalendarFirstPaint("bookings", () -> new MonthCalendar(2024, 3, "en", true)).modifyIndexHtmlResponse(response("/other", document));
+		assertNull(document.getElementById(CalendarFirstPaint.PLACEHOLDER_ID));
+	}
+
+	private static <T extends AbstractSimpleCalendar> T decorated(T calendar) {
+		calendar.addClassToCellByLocalDates(List.of(LocalDate.of(2024, 3, 15)), "holiday");
+		return calendar;
+	}
+
+	private static String attributes(Element element) {
+		return element.getAttributeNames().filter(name -> !"id".equals(name)).sorted()
+				.map(name -> name + "=" + element.getAttribute(name)).collect(Collectors.joining(" "));
+	}
+
+	private static IndexHtmlResponse response(String pathInfo, Document document) {
+		VaadinRequest request = (VaadinRequest) Proxy.newProxyInstance(VaadinRequest.class.getClassLoader(), new Class<?>[] { VaadinRequest.class },
+				(proxy, method, args) -> "getPathInfo".equals(method.getName()) ? pathInfo : null);
+		return new IndexHtmlResponse(request, null, document);
+	}
+}
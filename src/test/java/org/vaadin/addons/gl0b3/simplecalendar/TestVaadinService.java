@@ -0,0 +1,119 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.vaadin.flow.server.PwaRegistry;
+import com.vaadin.flow.server.RouteRegistry;
+import com.vaadin.flow.server.VaadinContext;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * A service without a servlet, with its {@link VaadinContext} in memory, for the tests of the application scoped state
+ */
+class TestVaadinService extends VaadinService {
+
+	@Override
+	protected RouteRegistry getRouteRegistry() {
+		return null;
+	}
+
+	@Override
+	protected PwaRegistry getPwaRegistry() {
+		return null;
+	}
+
+	@Override
+	public String getContextRootRelativePath(VaadinRequest request) {
+		return "/";
+	}
+
+	@Override
+	public String getMimeType(String resourceName) {
+		return null;
+	}
+
+	@Override
+	protected boolean requestCanCreateSession(VaadinRequest request) {
+		return false;
+	}
+
+	@Override
+	public String getServiceName() {
+		return "test";
+	}
+
+	@Override
+	public String getMainDivId(VaadinSession session, VaadinRequest request) {
+		return "test";
+	}
+
+	@Override
+	public URL getStaticResource(String url) {
+		return null;
+	}
+
+	@Override
+	public URL getResource(String url) {
+		return null;
+	}
+
+	@Override
+	public InputStream getResourceAsStream(String url) {
+		return null;
+	}
+
+	@Override
+	public String resolveResource(String url) {
+		return url;
+	}
+
+	@Override
+	protected VaadinContext constructVaadinContext() {
+		return new TestVaadinContext();
+	}
+
+	private static final class TestVaadinContext implements VaadinContext {
+
+		private final Map<Class<?>, Object> attributes = new ConcurrentHashMap<>();
+
+		@Override
+		public <T> T getAttribute(Class<T> type, Supplier<T> defaultValueSupplier) {
+			if ( defaultValueSupplier == null ) {
+				return type.cast(attributes.get(type));
+			}
+			return type.cast(attributes.computeIfAbsent(type, key -> defaultValueSupplier.get()));
+		}
+
+		@Override
+		public <T> void setAttribute(Class<T> clazz, T value) {
+			if ( value == null ) {
+				attributes.remove(clazz);
+			} else {
+				attributes.put(clazz, value);
+			}
+		}
+
+		@Override
+		public void removeAttribute(Class<?> clazz) {
+			attributes.remove(clazz);
+		}
+
+		@Override
+		public Enumeration<String> getContextParameterNames() {
+			return Collections.emptyEnumeration();
+		}
+
+		@Override
+		public String getContextParameter(String name) {
+			return null;
+		}
+	}
+}
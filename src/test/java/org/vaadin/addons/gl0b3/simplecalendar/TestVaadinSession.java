@@ -0,0 +1,62 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+
+import elemental.json.Json;
+
+/**
+ * A session without a servlet for the tests. It has a real lock, so {@link UI#access(com.vaadin.flow.server.Command)} runs
+ * the commands like in a deployed application: at once if the session is not locked, otherwise when it is unlocked.
+ */
+class TestVaadinSession extends VaadinSession {
+
+	private final transient Lock lock = new ReentrantLock();
+
+	TestVaadinSession(VaadinService service) {
+		super(service);
+	}
+
+	@Override
+	public Lock getLockInstance() {
+		return lock;
+	}
+
+	/**
+	 * Creates a UI of the session
+	 */
+	UI createUI() {
+		UI ui = new UI();
+		ui.getInternals().setSession(this);
+		return ui;
+	}
+
+	/**
+	 * Runs what Flow runs before a client response in the UI: the before client response callbacks and the collection of
+	 * the changes, and gives back the JS invocations of the response
+	 */
+	static List<PendingJavaScriptInvocation> roundTrip(UI ui) {
+		UI.setCurrent(ui);
+		try {
+			ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+			ui.getInternals().getStateTree().collectChanges(change -> {
+			});
+			return ui.getInternals().dumpPendingJavaScriptInvocations();
+		} finally {
+			UI.setCurrent(null);
+		}
+	}
+
+	/**
+	 * Completes the JS invocations which wait for the result like the client does when it has run them
+	 */
+	static void respond(List<PendingJavaScriptInvocation> invocations) {
+		invocations.stream().filter(PendingJavaScriptInvocation::isSubscribed).forEach(invocation -> invocation.complete(Json.createNull()));
+	}
+}
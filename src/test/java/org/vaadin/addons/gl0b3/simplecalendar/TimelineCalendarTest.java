@@ -0,0 +1,136 @@
+package org.vaadin.addons.gl0b3.simplecalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.dom.DomEvent;
+import com.vaadin.flow.internal.nodefeature.ElementListenerMap;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+public class TimelineCalendarTest {
+
+	private static final YearMonth START = YearMonth.of(2024, 1);
+
+	private final UI ui = new TestVaadinSession(new TestVaadinService()).createUI();
+
+	private final TimelineCalendar timeline = new TimelineCalendar(START, 60, "en");
+
+	@Test
+	public void firstMonthsAreSentAtAttach() {
+		List<PendingJavaScriptInvocation> invocations = attachBooked();
+		assertEquals(1, calls(invocations, ".initTimeline(").size());
+		assertSpan(sentDates(invocations), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+	}
+
+	@Test
+	public void onlyTheReportedMonthsAreSent() {
+		attachBooked();
+		reportRenderedMonths(YearMonth.of(2025, 11), YearMonth.of(2026, 2));
+		assertSpan(sentDates(TestVaadinSession.roundTrip(ui)), LocalDate.of(2025, 11, 1), LocalDate.of(2026, 2, 28));
+	}
+
+	@Test
+	public void sameReportSendsNothing() {
+		attachBooked();
+		reportRenderedMonths(START, START.plusMonths(2));
+		assertTrue(calls(TestVaadinSession.roundTrip(ui), ".decorateTimeline(").isEmpty());
+	}
+
+	@Test
+	public void reversedReportIsOneMonth() {
+		attachBooked();
+		reportRenderedMonths(YearMonth.of(2025, 6), YearMonth.of(2025, 4));
+		assertSpan(sentDates(TestVaadinSession.roundTrip(ui)), LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30));
+	}
+
+	@Test
+	public void attributesDescribeTheTimeline() {
+		attachBooked();
+		assertEquals("2024-01", timeline.getElement().getAttribute("start"));
+		assertEquals("60", timeline.getElement().getAttribute("months"));
+		assertEquals("300", timeline.getElement().getAttribute("month-height"));
+		assertEquals("en", timeline.getElement().getAttribute("locale"));
+
+		timeline.shiftMonths(-3);
+		timeline.refreshMonthHeight(200);
+		TestVaadinSession.roundTrip(ui);
+		assertEquals(YearMonth.of(2023, 10), timeline.getPeriodStart());
+		assertEquals("2023-10", timeline.getElement().getAttribute("start"));
+		assertEquals("200", timeline.getElement().getAttribute("month-height"));
+	}
+
+	@Test
+	public void scrollUsesTheMonthHeight() {
+		attachBooked();
+		timeline.scrollToMonth(YearMonth.of(2024, 5));
+		List<PendingJavaScriptInvocation> scrolls = calls(TestVaadinSession.roundTrip(ui), "scrollTop");
+		assertEquals(1, scrolls.size());
+		assertEquals(1200.0, ((Number) scrolls.get(0).getInvocation().getParameters().get(0)).doubleValue(), 0);
+	}
+
+	@Test
+	public void timelineIsNotRenderedOnTheServer() {
+		timeline.setServerSideRendering(true);
+		attachBooked();
+		assertEquals(0, timeline.getElement().getChildCount());
+	}
+
+	/**
+	 * Books every day of the timeline and attaches it, gives back the invocations of the first response
+	 */
+	private List<PendingJavaScriptInvocation> attachBooked() {
+		timeline.addClassToRange(START.atDay(1), START.plusMonths(59).atEndOfMonth(), "booked");
+		ui.add(timeline);
+		return TestVaadinSession.roundTrip(ui);
+	}
+
+	private void reportRenderedMonths(YearMonth from, YearMonth to) {
+		JsonObject data = Json.createObject();
+		data.put("event.detail.from", from.getYear() * 12 + from.getMonthValue() - 1);
+		data.put("event.detail.to", to.getYear() * 12 + to.getMonthValue() - 1);
+		timeline.getElement().getNode().getFeature(ElementListenerMap.class)
+				.fireEvent(new DomEvent(timeline.getElement(), TimelineCalendar.VISIBLE_RANGE_EVENT, data));
+	}
+
+	/**
+	 * Asserts that the dates are the days from the first to the last day, inclusive
+	 */
+	private static void assertSpan(DateSet dates, LocalDate first, LocalDate last) {
+		assertEquals(last.toEpochDay() - first.toEpochDay() + 1, dates.size());
+		assertTrue(dates.contains(first));
+		assertTrue(dates.contains(last));
+		assertEquals(dates.size(), dates.subSet(first, last).size());
+	}
+
+	/**
+	 * Gives back the dates which have been sent to the timeline in the given invocations
+	 */
+	private static DateSet sentDates(List<PendingJavaScriptInvocation> invocations) {
+		DateSet dates = new DateSet();
+		for ( PendingJavaScriptInvocation invocation : calls(invocations, ".decorateTimeline(") ) {
+			JsonArray operations = (JsonArray) invocation.getInvocation().getParameters().get(0);
+			for ( int i = 0; i < operations.length(); i++ ) {
+				JsonObject operation = operations.getObject(i);
+				if ( operation.hasKey("dates") ) {
+					dates.addAll(CalendarUtils.decodeDates(operation.getString("dates")));
+				}
+			}
+		}
+		return dates;
+	}
+
+	private static List<PendingJavaScriptInvocation> calls(List<PendingJavaScriptInvocation> invocations, String function) {
+		return invocations.stream().filter(invocation -> invocation.getInvocation().getExpression().contains(function)).toList();
+	}
+}